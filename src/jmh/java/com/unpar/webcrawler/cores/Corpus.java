@@ -0,0 +1,51 @@
+package com.unpar.webcrawler.cores;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Halaman html contoh untuk benchmark, dibaca dari src/jmh/resources/corpus.
+ * small +/-13 KB, medium +/-100 KB, large +/-1 MB; isinya campuran link relatif, absolut,
+ * eksternal, file, mailto/javascript, percent-encoding dan html tidak valid.
+ */
+final class Corpus {
+
+    static final String BASE_URI = "https://informatika.unpar.ac.id/berita/";
+    static final String ROOT_HOST = "informatika.unpar.ac.id";
+
+    private Corpus() {
+    }
+
+    static byte[] load(String name) {
+        try (InputStream in = Corpus.class.getResourceAsStream("/corpus/" + name + ".html")) {
+            if (in == null) {
+                throw new IllegalArgumentException("Corpus not found: " + name);
+            }
+
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Semua href absolut (belum dinormalisasi) dari halaman, seperti yang diberikan
+     * ke URLCanonicalization() oleh crawler.
+     */
+    static List<String> rawUrls(String name) {
+        List<String> urls = new ArrayList<>();
+
+        for (Element a : Jsoup.parse(new String(load(name), StandardCharsets.UTF_8), BASE_URI).select("a[href]")) {
+            urls.add(a.attr("abs:href"));
+        }
+
+        return urls;
+    }
+}
@@ -0,0 +1,58 @@
+package com.unpar.webcrawler.cores;
+
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing halaman dan pengambilan link: DOM lengkap (Jsoup.parse) dibandingkan dengan
+ * StreamParser. Body dibaca dari byte array agar hanya parsing yang diukur.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtractLinksBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String corpus;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        body = Corpus.load(corpus);
+    }
+
+    @Benchmark
+    public List<Crawler.ExtractedLink> dom() throws IOException {
+        return Crawler.extractLinks(Jsoup.parse(new ByteArrayInputStream(body), "UTF-8", Corpus.BASE_URI));
+    }
+
+    @Benchmark
+    public List<Crawler.ExtractedLink> streaming() throws IOException {
+        InputStreamReader reader = new InputStreamReader(new ByteArrayInputStream(body), StandardCharsets.UTF_8);
+
+        return Crawler.extractLinks(new StreamParser(Parser.htmlParser()).parse(reader, Corpus.BASE_URI));
+    }
+}
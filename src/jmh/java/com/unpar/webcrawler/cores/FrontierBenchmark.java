@@ -0,0 +1,71 @@
+package com.unpar.webcrawler.cores;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Satu operasi = satu url melewati add(), next() dan done(). Setiap invocation membuat
+ * Frontier baru dan memproses BATCH url dari 50 host. HostThrottle diberi batas yang
+ * sangat longgar agar yang diukur hanya antrian, bukan jeda politeness.
+ * maxInMemory kecil memaksa sebagian besar url lewat file segmen di disk.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrontierBenchmark {
+
+    private static final int BATCH = 10_000;
+    private static final int HOSTS = 50;
+
+    @Param({"100000", "1000"})
+    public int maxInMemory;
+
+    private String[] urls;
+
+    @Setup
+    public void setup() {
+        urls = new String[BATCH];
+
+        for (int i = 0; i < BATCH; i++) {
+            urls[i] = "https://host" + (i % HOSTS) + ".unpar.ac.id/halaman/" + i + "?id=" + (i * 31);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public int addNext() {
+        Frontier frontier = new Frontier(new HostThrottle(Integer.MAX_VALUE, 1e12), maxInMemory, null);
+
+        for (String url : urls) {
+            frontier.add(url);
+        }
+
+        int count = 0;
+
+        while (!frontier.isEmpty()) {
+            String url = frontier.next();
+
+            if (url != null) {
+                frontier.done(url, 200, null);
+                count++;
+            }
+        }
+
+        return count;
+    }
+}
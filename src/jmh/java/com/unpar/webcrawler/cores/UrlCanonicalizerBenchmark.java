@@ -0,0 +1,89 @@
+package com.unpar.webcrawler.cores;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalisasi dan klasifikasi url, jalur cepat (ParsedUrl) dibandingkan dengan
+ * versi lama berbasis java.net.URI. Input diambil dari semua link di corpus large,
+ * diulang per operasi secara bergiliran.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UrlCanonicalizerBenchmark {
+
+    private String[] rawUrls;
+    private String[] canonicalUrls;
+    private final ParsedUrl parsed = new ParsedUrl();
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        List<String> raw = Corpus.rawUrls("large");
+        List<String> canonical = new ArrayList<>();
+
+        for (String url : raw) {
+            String c = Crawler.URLCanonicalization(url);
+
+            if (c != null) {
+                canonical.add(c);
+            }
+        }
+
+        rawUrls = raw.toArray(String[]::new);
+        canonicalUrls = canonical.toArray(String[]::new);
+    }
+
+    private int next(int length) {
+        int i = next;
+        next = i + 1 == length ? 0 : i + 1;
+
+        return i;
+    }
+
+    @Benchmark
+    public String canonicalize() {
+        return Crawler.URLCanonicalization(rawUrls[next(rawUrls.length)]);
+    }
+
+    @Benchmark
+    public String canonicalizeWithURI() {
+        return UrlCanonicalizer.canonicalizeWithURI(rawUrls[next(rawUrls.length)]);
+    }
+
+    @Benchmark
+    public boolean isPotentialWebpage() {
+        return UrlCanonicalizer.isPotentialWebpage(canonicalUrls[next(canonicalUrls.length)], Corpus.ROOT_HOST);
+    }
+
+    /**
+     * Seperti yang dipakai Crawler: satu ParsedUrl dipakai ulang untuk semua link.
+     */
+    @Benchmark
+    public boolean isPotentialWebpageReused() {
+        String url = canonicalUrls[next(canonicalUrls.length)];
+
+        return UrlCanonicalizer.isPotentialWebpage(parsed, url, Corpus.ROOT_HOST);
+    }
+
+    @Benchmark
+    public boolean isPotentialWebpageWithURI() {
+        return UrlCanonicalizer.isPotentialWebpageWithURI(canonicalUrls[next(canonicalUrls.length)], Corpus.ROOT_HOST);
+    }
+}
@@ -0,0 +1,382 @@
+package com.unpar.webcrawler.harness;
+
+import com.unpar.webcrawler.cores.CrawlEvent;
+import com.unpar.webcrawler.cores.CrawlMetrics;
+import com.unpar.webcrawler.cores.CrawlPublisher;
+import com.unpar.webcrawler.cores.Crawler;
+import com.unpar.webcrawler.cores.HostThrottle;
+import com.unpar.webcrawler.cores.ResultSink;
+import com.unpar.webcrawler.cores.ResultWriter;
+import com.unpar.webcrawler.cores.WebpageCache;
+import com.unpar.webcrawler.models.BrokenLink;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mengukur throughput Crawler dari ujung ke ujung terhadap SyntheticSite.
+ *
+ * Opsi diberikan sebagai argumen key=value, contoh:
+ *   gradle crawlBenchmark -Pbench.args="pages=5000 fanOut=30 brokenRatio=0.1 latencyMillis=5"
+ *
+ * Setiap run membuat Crawler baru terhadap situs yang sama. Run pemanasan tidak dilaporkan.
+ * Hasil per run: webpage/detik, link unik dicek/detik, p50/p99 waktu layanan request di
+ * server, heap puncak, dan (jika metrics=true) p50/p99 setiap fase yang diukur crawler.
+ * Program keluar dengan status 1 jika jumlah broken link (atau pasangan broken link - webpage
+ * sumber) tidak sama dengan yang diharapkan
+ * atau throughput di bawah minPagesPerSecond, sehingga dapat dipakai sebagai gerbang regresi.
+ * Jika salah satu budget crawl (maxDepth, maxPages, maxLinks, maxMillis) diberikan, hasil
+ * hanya dicek tidak melebihi jawaban tanpa budget.
+ */
+public class CrawlBenchmark {
+
+    private static final int PUBLISHER_WINDOW = 64;              // demand awal subscriber pada mode publisher
+    private static final int MAX_CALENDAR_PAGES = 50;            // halaman kalender yang boleh di-crawl sebelum trap dianggap lolos
+
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("pages", "2000");
+        DEFAULTS.put("fanOut", "20");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("webpageRatio", "0.3");
+        DEFAULTS.put("externalRatio", "0.2");
+        DEFAULTS.put("brokenRatio", "0.05");
+        DEFAULTS.put("deadHostRatio", "0");
+        DEFAULTS.put("headUnsupportedRatio", "0.05");
+        DEFAULTS.put("redirectRatio", "0.05");
+        DEFAULTS.put("redirectHops", "2");
+        DEFAULTS.put("slowRatio", "0");
+        DEFAULTS.put("slowMillis", "500");
+        DEFAULTS.put("timeoutRatio", "0");
+        DEFAULTS.put("hangMillis", "11000");
+        DEFAULTS.put("latencyMillis", "0");
+        DEFAULTS.put("latencyJitterMillis", "0");
+        DEFAULTS.put("compression", "true");
+        DEFAULTS.put("disallowRatio", "0");            // webpage yang dilarang robots.txt situs
+        DEFAULTS.put("sitemap", "false");              // situs melayani sitemap index berisi semua webpage
+        DEFAULTS.put("validators", "true");            // situs mengirim ETag / Last-Modified dan menjawab 304
+        DEFAULTS.put("calendar", "false");             // situs berisi kalender tanpa akhir (crawler trap)
+        DEFAULTS.put("webpageFetches", "8");
+        DEFAULTS.put("linkChecks", "64");
+        DEFAULTS.put("perHost", "16");
+        DEFAULTS.put("ratePerHost", "100000");          // praktis tanpa batas laju untuk server lokal
+        DEFAULTS.put("warmups", "1");
+        DEFAULTS.put("runs", "3");
+        DEFAULTS.put("minPagesPerSecond", "0");
+        DEFAULTS.put("metrics", "true");                // histogram per fase dari CrawlMetrics
+        DEFAULTS.put("breaker", "true");                // timeout adaptif dan circuit breaker (HostHealth)
+        DEFAULTS.put("robots", "true");                 // crawler mematuhi robots.txt dan membaca sitemap
+        DEFAULTS.put("trapDetection", "true");          // CrawlTrapDetector crawler
+        DEFAULTS.put("incremental", "false");           // WebpageCache dipakai bersama semua run: run setelah yang pertama inkremental
+        DEFAULTS.put("maxDepth", "-1");                 // budget crawl, -1 / 0 = tanpa batas
+        DEFAULTS.put("maxPages", "0");
+        DEFAULTS.put("maxLinks", "0");
+        DEFAULTS.put("maxMillis", "0");
+        DEFAULTS.put("publisher", "false");              // hasil diterima lewat CrawlPublisher (Flow) alih-alih consumer
+        DEFAULTS.put("consumerMicros", "0");             // waktu proses subscriber per event, untuk menguji backpressure
+        DEFAULTS.put("output", "");                     // file hasil lewat ResultSink (.ndjson/.csv/.bin), kosong = hanya dihitung
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+
+            if (eq < 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option: " + arg);
+                System.err.println("Options: " + DEFAULTS);
+                System.exit(2);
+            }
+
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        SyntheticSite site = new SyntheticSite(intOf(options, "pages"), intOf(options, "fanOut"), Long.parseLong(options.get("seed")));
+        site.setWebpageRatio(doubleOf(options, "webpageRatio"));
+        site.setExternalRatio(doubleOf(options, "externalRatio"));
+        site.setBrokenRatio(doubleOf(options, "brokenRatio"));
+        site.setDeadHostRatio(doubleOf(options, "deadHostRatio"));
+        site.setHeadUnsupportedRatio(doubleOf(options, "headUnsupportedRatio"));
+        site.setRedirectRatio(doubleOf(options, "redirectRatio"));
+        site.setRedirectHops(intOf(options, "redirectHops"));
+        site.setSlowRatio(doubleOf(options, "slowRatio"));
+        site.setSlowMillis(intOf(options, "slowMillis"));
+        site.setTimeoutRatio(doubleOf(options, "timeoutRatio"));
+        site.setHangMillis(intOf(options, "hangMillis"));
+        site.setLatencyMillis(intOf(options, "latencyMillis"));
+        site.setLatencyJitterMillis(intOf(options, "latencyJitterMillis"));
+        site.setCompression(Boolean.parseBoolean(options.get("compression")));
+        site.setDisallowRatio(doubleOf(options, "disallowRatio"));
+        site.setSitemap(Boolean.parseBoolean(options.get("sitemap")));
+        site.setValidators(Boolean.parseBoolean(options.get("validators")));
+        site.setCalendar(Boolean.parseBoolean(options.get("calendar")));
+
+        boolean ok = true;
+
+        try (site) {
+            String seedUrl = site.start();
+            int expectedPages = site.expectedPages();
+            int expectedBroken = site.expectedBrokenLinks();
+            long expectedSources = site.expectedBrokenSources();
+            WebpageCache webpageCache = Boolean.parseBoolean(options.get("incremental"))
+                    ? WebpageCache.open(Files.createTempDirectory("webpage-cache-"), seedUrl)
+                    : null;
+            boolean budgeted = intOf(options, "maxDepth") >= 0 || intOf(options, "maxPages") > 0
+                    || intOf(options, "maxLinks") > 0 || intOf(options, "maxMillis") > 0;
+            int warmups = intOf(options, "warmups");
+            int runs = intOf(options, "runs");
+            List<Result> results = new ArrayList<>();
+
+            System.out.printf("site: %d pages (%d crawlable), fan-out %d, %d broken links from %d sources expected%n",
+                    site.getPages(), expectedPages, site.getFanOut(), expectedBroken, expectedSources);
+
+            for (int i = 0; i < warmups + runs; i++) {
+                Result result = run(site, seedUrl, webpageCache, options);
+                boolean warmup = i < warmups;
+
+                System.out.println((warmup ? "warmup " : "run    ") + result);
+
+                result.phases.forEach((phase, stats) -> System.out.printf(Locale.ROOT,
+                        "         %-14s %8d  p50 %7.2f ms  p99 %7.2f ms  max %8.2f ms  errors %d%n",
+                        phase, stats.count(), stats.p50Millis(), stats.p99Millis(), stats.maxMillis(), stats.errors()));
+
+                // halaman kalender tidak termasuk expectedPages, tetapi jumlahnya harus tetap kecil
+                int pages = result.pages - result.calendarPages;
+                boolean mismatch = budgeted
+                        ? result.brokenLinks > expectedBroken || result.brokenSources > expectedSources || pages > expectedPages
+                        : result.brokenLinks != expectedBroken || result.brokenSources != expectedSources || pages != expectedPages
+                            || result.calendarPages > MAX_CALENDAR_PAGES;
+
+                if (mismatch) {
+                    System.out.printf("  MISMATCH: expected %d pages and %d broken links from %d sources%n",
+                            expectedPages, expectedBroken, expectedSources);
+                    ok = false;
+                }
+
+                if (!warmup) {
+                    results.add(result);
+                }
+            }
+
+            if (!results.isEmpty()) {
+                results.sort((a, b) -> Double.compare(a.pagesPerSecond(), b.pagesPerSecond()));
+                Result median = results.get(results.size() / 2);
+
+                System.out.println("median " + median);
+
+                double min = doubleOf(options, "minPagesPerSecond");
+
+                if (median.pagesPerSecond() < min) {
+                    System.out.printf("  REGRESSION: %.1f pages/s is below %.1f%n", median.pagesPerSecond(), min);
+                    ok = false;
+                }
+            }
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static Result run(SyntheticSite site, String seedUrl, WebpageCache webpageCache, Map<String, String> options) {
+        System.gc();
+        site.drainLatencies();
+        site.drainCounts();
+
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+
+        int perHost = intOf(options, "perHost");
+        double rate = doubleOf(options, "ratePerHost");
+        Crawler crawler = new Crawler(seedUrl, intOf(options, "webpageFetches"), intOf(options, "linkChecks"),
+                new HostThrottle(perHost, rate), new HostThrottle(perHost, rate));
+        crawler.setMetricsEnabled(Boolean.parseBoolean(options.get("metrics")));
+        crawler.setRobotsEnabled(Boolean.parseBoolean(options.get("robots")));
+        crawler.setSitemapsEnabled(Boolean.parseBoolean(options.get("robots")));
+        crawler.setWebpageCache(webpageCache);
+
+        if (!Boolean.parseBoolean(options.get("trapDetection"))) {
+            crawler.setTrapDetector(null);
+        }
+
+        if (intOf(options, "maxDepth") >= 0) {
+            crawler.setMaxDepth(intOf(options, "maxDepth"));
+        }
+        if (intOf(options, "maxPages") > 0) {
+            crawler.setMaxWebpages(intOf(options, "maxPages"));
+        }
+        if (intOf(options, "maxLinks") > 0) {
+            crawler.setMaxLinkChecks(intOf(options, "maxLinks"));
+        }
+        if (intOf(options, "maxMillis") > 0) {
+            crawler.setMaxDuration(Duration.ofMillis(intOf(options, "maxMillis")));
+        }
+
+        if (!Boolean.parseBoolean(options.get("breaker"))) {
+            crawler.setHostHealth(null);
+        }
+
+        AtomicInteger pages = new AtomicInteger();
+        AtomicInteger broken = new AtomicInteger();
+        String output = options.get("output");
+
+        long start = System.nanoTime();
+
+        if (Boolean.parseBoolean(options.get("publisher"))) {
+            subscribe(crawler, intOf(options, "consumerMicros"), pages, broken);
+        } else if (output.isEmpty()) {
+            crawler.crawl(wl -> pages.incrementAndGet(), bl -> broken.incrementAndGet());
+        } else {
+            try {
+                ResultSink sink = new ResultSink(ResultWriter.open(Path.of(output)));
+
+                try (sink) {
+                    crawler.crawl(sink::webpage, bl -> broken.incrementAndGet());
+                    crawler.getBrokenLinks().forEach(sink::broken);     // seperti Application: broken link beserta semua sumbernya
+                }
+
+                pages.set((int) sink.summary().webpages());
+                broken.set((int) sink.summary().brokenLinks());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long sources = 0;
+
+        for (BrokenLink bl : crawler.getBrokenLinks()) {
+            sources += bl.getSourceCount();
+        }
+
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        long[] counts = site.drainCounts();
+
+        CrawlMetrics.Snapshot snapshot = crawler.snapshot();
+
+        return new Result(pages.get(), broken.get(), sources, (int) counts[1], (int) counts[0], counts[2], (int) counts[3], elapsed, site.drainLatencies(), peakHeap,
+                snapshot.shortCircuited(), snapshot.disallowed(), snapshot.sitemapUrls(), snapshot.unchanged(), snapshot.trapped(), crawler.isBudgetExhausted(), snapshot.phases());
+    }
+
+    /**
+     * Menghitung hasil lewat CrawlPublisher dan menunggu sampai onComplete. Subscriber
+     * meminta PUBLISHER_WINDOW event di awal, lalu satu event setiap kali selesai memproses.
+     */
+    private static void subscribe(Crawler crawler, long consumerMicros, AtomicInteger pages, AtomicInteger broken) {
+        CountDownLatch done = new CountDownLatch(1);
+
+        new CrawlPublisher(crawler).subscribe(new Flow.Subscriber<>() {
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(PUBLISHER_WINDOW);
+            }
+
+            @Override
+            public void onNext(CrawlEvent event) {
+                if (event instanceof CrawlEvent.WebpageCrawled) {
+                    pages.incrementAndGet();
+                } else if (event instanceof CrawlEvent.BrokenLinkFound) {
+                    broken.incrementAndGet();
+                }
+
+                if (consumerMicros > 0) {
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(consumerMicros));
+                }
+
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable e) {
+                e.printStackTrace();
+                done.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                done.countDown();
+            }
+        });
+
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intOf(Map<String, String> options, String key) {
+        return Integer.parseInt(options.get(key));
+    }
+
+    private static double doubleOf(Map<String, String> options, String key) {
+        return Double.parseDouble(options.get(key));
+    }
+
+    /**
+     * Hasil satu run. Latency adalah waktu layanan request di server (termasuk latency
+     * buatan), terurut naik.
+     */
+    private record Result(int pages, int brokenLinks, long brokenSources, int linksChecked, int requests, long bytesSent, int calendarPages,
+                          long elapsedNanos, long[] latencies, long peakHeapBytes, long shortCircuited,
+                          long disallowed, long sitemapUrls, long unchanged, long trapped, boolean budgetExhausted,
+                          Map<CrawlMetrics.Phase, CrawlMetrics.PhaseStats> phases) {
+
+        double pagesPerSecond() {
+            return pages * 1e9 / elapsedNanos;
+        }
+
+        double linksPerSecond() {
+            return linksChecked * 1e9 / elapsedNanos;
+        }
+
+        double percentileMillis(double p) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+
+            int index = (int) Math.ceil(p * latencies.length) - 1;
+
+            return latencies[Math.max(0, Math.min(index, latencies.length - 1))] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT,
+                    "%6d ms  %8.1f pages/s  %8.1f links/s  p50 %6.2f ms  p99 %7.2f ms  peak heap %5.1f MB  (%d pages, %d links, %d broken from %d sources, %d short-circuited, %d disallowed, %d from sitemaps, %d unchanged, %d trapped, %d calendar pages, %d requests, %.1f MB sent)%s",
+                    elapsedNanos / 1_000_000, pagesPerSecond(), linksPerSecond(),
+                    percentileMillis(0.50), percentileMillis(0.99), peakHeapBytes / 1048576.0,
+                    pages, linksChecked, brokenLinks, brokenSources, shortCircuited, disallowed, sitemapUrls, unchanged, trapped, calendarPages, requests, bytesSent / 1048576.0,
+                    budgetExhausted ? "  budget exhausted" : "");
+        }
+    }
+}
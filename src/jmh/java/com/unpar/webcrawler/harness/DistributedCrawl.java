@@ -0,0 +1,167 @@
+package com.unpar.webcrawler.harness;
+
+import com.unpar.webcrawler.cores.CrawlCoordinator;
+import com.unpar.webcrawler.cores.CrawlWorker;
+import com.unpar.webcrawler.cores.HostThrottle;
+import com.unpar.webcrawler.models.BrokenLink;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Menguji crawl terdistribusi di satu mesin: SyntheticSite dan CrawlCoordinator berjalan
+ * di proses ini, worker berjalan sebagai proses terpisah.
+ *
+ * Opsi diberikan sebagai argumen key=value, contoh:
+ *   gradle distributedCrawl -Pbench.args="pages=5000 workers=4 kill=1 lateWorkers=1"
+ *
+ * Setelah killMillis, sebanyak kill worker dibunuh paksa (SIGKILL); setelah lateMillis,
+ * sebanyak lateWorkers worker baru bergabung. Program keluar dengan status 1 jika jumlah
+ * webpage, broken link, atau pasangan broken link - webpage sumber tidak sama dengan yang
+ * diharapkan, atau ada hasil ganda. Sumber yang tercatat dua kali (webpage diproses ulang
+ * setelah worker-nya mati) dihitung sekali.
+ */
+public class DistributedCrawl {
+
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("pages", "2000");
+        DEFAULTS.put("fanOut", "20");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("latencyMillis", "5");             // memperlambat crawl agar kill dan join terjadi di tengah crawl
+        DEFAULTS.put("disallowRatio", "0");            // webpage yang dilarang robots.txt situs
+        DEFAULTS.put("workers", "3");
+        DEFAULTS.put("kill", "1");
+        DEFAULTS.put("killMillis", "1500");
+        DEFAULTS.put("lateWorkers", "1");
+        DEFAULTS.put("lateMillis", "2500");
+        DEFAULTS.put("perHost", "16");
+        DEFAULTS.put("ratePerHost", "100000");
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("worker")) {
+            runWorker(args);
+            return;
+        }
+
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+
+            if (eq < 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option: " + arg);
+                System.err.println("Options: " + DEFAULTS);
+                System.exit(2);
+            }
+
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        SyntheticSite site = new SyntheticSite(intOf(options, "pages"), intOf(options, "fanOut"), Long.parseLong(options.get("seed")));
+        site.setLatencyMillis(intOf(options, "latencyMillis"));
+        site.setDisallowRatio(Double.parseDouble(options.get("disallowRatio")));
+
+        List<Process> processes = new ArrayList<>();
+        boolean ok;
+
+        try (site; CrawlCoordinator coordinator = new CrawlCoordinator(0)) {
+            String seedUrl = site.start();
+            int expectedPages = site.expectedPages();
+            int expectedBroken = site.expectedBrokenLinks();
+            long expectedSources = site.expectedBrokenSources();
+
+            System.out.printf("site: %d pages, %d broken links expected, coordinator on port %d%n",
+                    site.getPages(), expectedBroken, coordinator.getPort());
+
+            for (int i = 0; i < intOf(options, "workers"); i++) {
+                processes.add(startWorker(coordinator.getPort(), options));
+            }
+
+            Thread chaos = Thread.ofVirtual().start(() -> {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(intOf(options, "killMillis"));
+
+                    for (int i = 0; i < intOf(options, "kill") && i < processes.size(); i++) {
+                        processes.get(i).destroyForcibly();
+                        System.out.println("killed worker " + processes.get(i).pid());
+                    }
+
+                    TimeUnit.MILLISECONDS.sleep(Math.max(0, intOf(options, "lateMillis") - intOf(options, "killMillis")));
+
+                    for (int i = 0; i < intOf(options, "lateWorkers"); i++) {
+                        Process late = startWorker(coordinator.getPort(), options);
+                        processes.add(late);
+                        System.out.println("started late worker " + late.pid());
+                    }
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+
+            Set<String> pages = ConcurrentHashMap.newKeySet();
+            Set<String> broken = ConcurrentHashMap.newKeySet();
+            int[] duplicates = {0};
+
+            long start = System.nanoTime();
+            coordinator.crawl(seedUrl,
+                    wl -> duplicates[0] += pages.add(wl.getUrl()) ? 0 : 1,
+                    bl -> duplicates[0] += broken.add(bl.getUrl()) ? 0 : 1);
+            long elapsed = System.nanoTime() - start;
+
+            chaos.join();
+
+            long sources = 0;
+
+            for (BrokenLink bl : coordinator.getBrokenLinks()) {
+                sources += Arrays.stream(bl.getSources()).distinct().count();
+            }
+
+            System.out.printf("%d ms  %d pages, %d broken from %d sources, %d duplicates%n",
+                    elapsed / 1_000_000, pages.size(), broken.size(), sources, duplicates[0]);
+
+            ok = pages.size() == expectedPages && broken.size() == expectedBroken && sources == expectedSources && duplicates[0] == 0;
+
+            if (!ok) {
+                System.out.printf("  MISMATCH: expected %d pages and %d broken links from %d sources%n",
+                        expectedPages, expectedBroken, expectedSources);
+            }
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static Process startWorker(int port, Map<String, String> options) throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), DistributedCrawl.class.getName(),
+                "worker", String.valueOf(port), options.get("perHost"), options.get("ratePerHost"))
+                .inheritIO()
+                .start();
+    }
+
+    private static void runWorker(String[] args) throws Exception {
+        int perHost = Integer.parseInt(args[2]);
+        double rate = Double.parseDouble(args[3]);
+
+        new CrawlWorker("127.0.0.1", Integer.parseInt(args[1]), 8, 64,
+                new HostThrottle(perHost, rate), new HostThrottle(perHost, rate)).run();
+    }
+
+    private static int intOf(Map<String, String> options, String key) {
+        return Integer.parseInt(options.get(key));
+    }
+}
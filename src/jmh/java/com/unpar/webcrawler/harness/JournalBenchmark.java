@@ -0,0 +1,185 @@
+package com.unpar.webcrawler.harness;
+
+import com.unpar.webcrawler.cores.CrawlJournal;
+import com.unpar.webcrawler.cores.Frontier;
+import com.unpar.webcrawler.utils.FingerprintSet;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Mengukur overhead disk CrawlJournal dan waktu pemulihan crawl besar.
+ *
+ * Opsi diberikan sebagai argumen key=value, contoh:
+ *   gradle journalBenchmark -Pbench.args="urls=1000000 doneRatio=0.9"
+ *
+ * Journal diisi seperti crawl yang terbunuh di tengah jalan: setiap url masuk frontier,
+ * sebagian (doneRatio) sudah selesai dengan hasil WebpageLink atau BrokenLink (brokenRatio),
+ * lalu journal ditutup tanpa complete(). Setelah itu journal dibuka ulang dan replay() diputar
+ * ke FingerprintSet dan Frontier, seperti Crawler.resume(). Dilaporkan: ukuran log, waktu
+ * replay, ukuran checkpoint, dan heap yang tertahan setelah replay (setelah GC).
+ * Program keluar dengan status 1 jika jumlah url yang dipulihkan tidak sesuai.
+ */
+public class JournalBenchmark {
+
+    private static final Map<String, String> DEFAULTS = new HashMap<>();
+
+    static {
+        DEFAULTS.put("urls", "1000000");
+        DEFAULTS.put("doneRatio", "0.9");
+        DEFAULTS.put("brokenRatio", "0.05");
+        DEFAULTS.put("hosts", "1");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>(DEFAULTS);
+
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+
+            if (eq < 0 || !DEFAULTS.containsKey(arg.substring(0, eq))) {
+                System.err.println("Unknown option: " + arg);
+                System.err.println("Options: " + DEFAULTS);
+                System.exit(2);
+            }
+
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        int urls = Integer.parseInt(options.get("urls"));
+        int done = (int) (urls * Double.parseDouble(options.get("doneRatio")));
+        int brokenEvery = Math.max(1, (int) Math.round(1 / Double.parseDouble(options.get("brokenRatio"))));
+        int hosts = Integer.parseInt(options.get("hosts"));
+        String seedUrl = urlOf(0, hosts);
+        String accessTime = Instant.now().toString();
+
+        Path directory = Files.createTempDirectory("journal-benchmark-");
+        boolean ok = true;
+
+        try {
+            // ===== crawl yang terbunuh =====
+            long start = System.nanoTime();
+
+            try (CrawlJournal journal = CrawlJournal.open(directory, seedUrl)) {
+                journal.replay(new Ignore());
+
+                for (int i = 0; i < urls; i++) {
+                    journal.frontier(urlOf(i, hosts), i == 0 ? 0 : 1 + i % 5);
+                }
+
+                for (int i = 0; i < done; i++) {
+                    String url = urlOf(i, hosts);
+
+                    if (i % brokenEvery == 0) {
+                        journal.broken(url, 404, null, "link " + i, urlOf(i / 2, hosts));
+                    } else {
+                        journal.webpage(url, 200, 20, accessTime);
+                    }
+
+                    journal.done(url);
+                }
+            }
+
+            long written = System.nanoTime() - start;
+            long logBytes = sizeOf(directory);
+
+            System.out.printf(Locale.ROOT, "write    %6d ms  log %7.1f MB  (%.1f bytes/url, %d urls, %d done)%n",
+                    written / 1_000_000, logBytes / 1048576.0, (double) logBytes / urls, urls, done);
+
+            // ===== pemulihan =====
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+            Recover recover = new Recover();
+            start = System.nanoTime();
+
+            try (CrawlJournal journal = CrawlJournal.open(directory, seedUrl)) {
+                journal.replay(recover);
+            }
+
+            long replayed = System.nanoTime() - start;
+
+            System.gc();
+            long retained = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+            long checkpointBytes = sizeOf(directory);
+
+            System.out.printf(Locale.ROOT, "recover  %6d ms  checkpoint %7.1f MB  retained heap %6.1f MB (%.1f bytes/url)  (%d done, %d pending, %d results)%n",
+                    replayed / 1_000_000, checkpointBytes / 1048576.0, retained / 1048576.0, (double) retained / urls,
+                    recover.done, recover.pending, recover.results);
+
+            if (recover.done != done || recover.pending != urls - done || recover.results != done
+                    || recover.frontier.size() != urls - done) {
+                System.out.printf("  MISMATCH: expected %d done, %d pending and %d results%n", done, urls - done, done);
+                ok = false;
+            }
+
+            // tetap tertahan sampai heap diukur
+            System.out.println("         " + recover.repositories.size() + " urls in repositories");
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+
+        System.exit(ok ? 0 : 1);
+    }
+
+    private static String urlOf(int i, int hosts) {
+        return "https://host" + (i % hosts) + ".example.com/archive/" + (i / 1000) + "/page-" + i + "?sort=date";
+    }
+
+    private static long sizeOf(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(p -> p.toFile().length()).sum();
+        }
+    }
+
+    private static final class Ignore implements CrawlJournal.Replay {
+        @Override
+        public void done(String url) {
+        }
+
+        @Override
+        public void pending(String url, int depth) {
+        }
+
+        @Override
+        public void result(String[] record) {
+        }
+    }
+
+    /**
+     * Sama seperti Crawler.resume(): url selesai ke repositories, url pending ke frontier.
+     */
+    private static final class Recover implements CrawlJournal.Replay {
+        final FingerprintSet repositories = FingerprintSet.onHeap(100_000);
+        final Frontier frontier = new Frontier();
+        long done, pending, results;
+
+        @Override
+        public void done(String url) {
+            repositories.add(url);
+            done++;
+        }
+
+        @Override
+        public void pending(String url, int depth) {
+            frontier.add(url, depth);
+            pending++;
+        }
+
+        @Override
+        public void result(String[] record) {
+            results++;
+        }
+    }
+}
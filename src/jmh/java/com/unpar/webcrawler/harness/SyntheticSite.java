@@ -0,0 +1,776 @@
+package com.unpar.webcrawler.harness;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Situs buatan yang dilayani HttpServer lokal untuk mengukur Crawler tanpa jaringan.
+ *
+ * Situs terdiri dari webpage /page/{i} (0 sampai pages-1) di host 127.0.0.1. Setiap webpage
+ * memiliki fanOut link: sebagian ke webpage lain, sisanya ke resource /res/{id}.pdf
+ * (sebagian di host "localhost", yaitu host eksternal bagi crawler). Webpage i selalu
+ * menautkan webpage 2i+1 dan 2i+2 sehingga semua webpage terjangkau dari seed.
+ *
+ * Perilaku setiap resource ditentukan dari id-nya dengan Random ber-seed, sehingga situs
+ * yang sama selalu menghasilkan graf dan jawaban yang sama:
+ * - broken: 404/410/500
+ * - HEAD tidak didukung: HEAD dijawab 405/501/999, GET dijawab 200
+ * - redirect: rantai 302 sepanjang redirectHops sebelum 200; hop setelah yang pertama
+ *   melewati salah satu dari 50 redirector bersama (seperti url shortener)
+ * - lambat: dijawab setelah slowMillis
+ * - timeout: dijawab setelah hangMillis (lebih lama dari timeout crawler)
+ * Sebagian resource (deadHostRatio) ada di host 127.0.0.2 yang menerima koneksi tetapi tidak
+ * pernah menjawab, seperti domain eksternal yang mati; semua link ke host ini broken.
+ * Setiap respon juga ditunda latencyMillis (ditambah jitter acak 0..latencyJitterMillis).
+ * Webpage dikirim dengan gzip jika klien memintanya lewat Accept-Encoding (dapat dimatikan),
+ * beserta ETag dan Last-Modified; GET bersyarat yang cocok dijawab 304 (validator dapat
+ * dimatikan, sehingga klien hanya dapat membandingkan body).
+ *
+ * robots.txt hanya dilayani jika ada webpage yang dilarang (disallowRatio) atau sitemap
+ * dinyalakan; selain itu dijawab 404. Sitemap berupa sitemap index /sitemap_index.xml yang
+ * menunjuk potongan urlset /sitemap/{k}.xml.gz berisi semua webpage yang tidak dilarang.
+ *
+ * Dengan calendar, setiap webpage juga menautkan /calendar?month=M&sid=S: crawler trap berupa
+ * kalender tanpa akhir (setiap bulan menautkan bulan sebelum dan sesudahnya, dengan session
+ * ID) yang isinya selalu sama selain link bulan tersebut. Kalender tidak masuk jawaban expected*.
+ *
+ * Waktu layanan setiap request (dari request diterima sampai respon ditulis) dicatat
+ * dan dapat dibaca dengan drainLatencies().
+ */
+public class SyntheticSite implements AutoCloseable {
+
+    static {
+        // tanpa TCP_NODELAY, body kecil yang ditulis terpisah dari header tertahan Nagle +
+        // delayed ACK (+/-40 ms per respon); server sungguhan umumnya menyalakan opsi ini
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final int[] BROKEN_STATUS = {404, 404, 404, 410, 500};
+    private static final int[] HEAD_UNSUPPORTED_STATUS = {405, 501, 999};
+    private static final int SHARED_REDIRECTORS = 50;
+    private static final String DEAD_HOST = "127.0.0.2";
+    private static final int SITEMAP_CHUNK = 500;            // webpage per file urlset
+    private static final int CALENDAR_NAV = 10;              // link navigasi di setiap halaman kalender
+    private static final String LAST_MODIFIED = "Mon, 05 Jan 2026 00:00:00 GMT";      // situs tidak pernah berubah
+
+    private final int pages;
+    private final int fanOut;
+    private final long seed;
+
+    private double webpageRatio = 0.3;           // bagian link yang menuju webpage lain
+    private double externalRatio = 0.2;          // bagian resource yang ada di host eksternal
+    private double deadHostRatio = 0;            // bagian resource yang ada di host mati
+    private double brokenRatio = 0.05;           // link-rot
+    private double headUnsupportedRatio = 0.05;
+    private double redirectRatio = 0.05;
+    private int redirectHops = 2;
+    private double slowRatio = 0;
+    private int slowMillis = 500;
+    private double timeoutRatio = 0;
+    private int hangMillis = 11_000;
+    private int latencyMillis = 0;
+    private int latencyJitterMillis = 0;
+    private boolean compression = true;
+    private double disallowRatio = 0;            // bagian webpage yang dilarang robots.txt (seed tidak pernah)
+    private boolean sitemap = false;
+    private boolean validators = true;           // ETag / Last-Modified dan jawaban 304
+    private boolean calendar = false;            // kalender tanpa akhir (crawler trap)
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private ServerSocket deadHost;               // menerima koneksi tanpa pernah membaca request
+    private final List<Socket> deadConnections = new ArrayList<>();
+    private int resources;                       // jumlah id resource yang mungkin
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicLong bytesSent = new AtomicLong();         // byte body yang dikirim
+    private final AtomicInteger calendarPages = new AtomicInteger();   // request GET ke kalender
+    private final Set<Integer> checkedResources = ConcurrentHashMap.newKeySet();
+    private final Object latencyLock = new Object();
+    private long[] latencies = new long[1024];   // nanodetik
+    private int latencyCount = 0;
+
+    public SyntheticSite(int pages, int fanOut, long seed) {
+        if (pages < 1 || fanOut < 2) {
+            throw new IllegalArgumentException("Site needs at least 1 page and a fan-out of 2");
+        }
+
+        this.pages = pages;
+        this.fanOut = fanOut;
+        this.seed = seed;
+    }
+
+    /**
+     * Menjalankan server di port acak.
+     *
+     * @return url seed (/page/0)
+     */
+    public String start() throws IOException {
+        resources = Math.max(1, pages * fanOut / 2);
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        if (deadHostRatio > 0) {
+            deadHost = new ServerSocket(0, 1024, InetAddress.getByName(DEAD_HOST));
+            executor.execute(this::acceptDeadConnections);
+        }
+
+        return baseUrl("127.0.0.1") + "/page/0";
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+        }
+
+        if (deadHost != null) {
+            try {
+                deadHost.close();
+
+                synchronized (deadConnections) {
+                    for (Socket socket : deadConnections) {
+                        socket.close();
+                    }
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void acceptDeadConnections() {
+        try {
+            while (true) {
+                Socket socket = deadHost.accept();
+
+                synchronized (deadConnections) {
+                    deadConnections.add(socket);
+                }
+            }
+        } catch (IOException ignored) {
+            // server ditutup
+        }
+    }
+
+    private String baseUrl(String host) {
+        return "http://" + host + ":" + server.getAddress().getPort();
+    }
+
+    /** ===== Graf situs dan jawaban yang diharapkan ===== */
+
+    /**
+     * Link yang ada di webpage i, dengan url absolut.
+     */
+    String[] linksOf(int page) {
+        Random r = new Random(seed * 31 + page);
+        String[] links = new String[fanOut];
+
+        links[0] = pageUrl((2 * page + 1) % pages);
+        links[1] = pageUrl((2 * page + 2) % pages);
+
+        for (int k = 2; k < fanOut; k++) {
+            if (r.nextDouble() < webpageRatio) {
+                links[k] = pageUrl(r.nextInt(pages));
+            } else {
+                int id = r.nextInt(resources);
+
+                if (isDead(id)) {
+                    links[k] = "http://" + DEAD_HOST + ":" + deadHost.getLocalPort() + "/res/" + id + ".pdf";
+                } else {
+                    String host = isExternal(id) ? "localhost" : "127.0.0.1";
+                    links[k] = baseUrl(host) + "/res/" + id + ".pdf";
+                }
+            }
+        }
+
+        return links;
+    }
+
+    private String pageUrl(int page) {
+        return baseUrl("127.0.0.1") + "/page/" + page;
+    }
+
+    /**
+     * Nomor webpage dari url, -1 jika url bukan webpage situs ini.
+     */
+    private int pageOf(String url) {
+        String prefix = baseUrl("127.0.0.1") + "/page/";
+
+        return url.startsWith(prefix) ? parseId(url, prefix.length(), url.length()) : -1;
+    }
+
+    private boolean isDisallowed(int page) {
+        return page != 0 && disallowRatio > 0 && new Random(seed ^ page * 0xA0761D6478BD642FL).nextDouble() < disallowRatio;
+    }
+
+    /**
+     * Webpage yang seharusnya di-crawl: terjangkau dari seed (atau dari sitemap) tanpa
+     * melewati webpage yang dilarang robots.txt.
+     */
+    private boolean[] crawledPages() {
+        boolean[] crawled = new boolean[pages];
+        int[] queue = new int[pages];
+        int head = 0;
+        int tail = 0;
+
+        for (int page = 0; page < pages; page++) {
+            if (page == 0 || sitemap && !isDisallowed(page)) {
+                crawled[page] = true;
+                queue[tail++] = page;
+            }
+        }
+
+        while (head < tail) {
+            for (String link : linksOf(queue[head++])) {
+                int page = pageOf(link);
+
+                if (page >= 0 && !crawled[page] && !isDisallowed(page)) {
+                    crawled[page] = true;
+                    queue[tail++] = page;
+                }
+            }
+        }
+
+        return crawled;
+    }
+
+    /**
+     * Jumlah webpage yang seharusnya di-crawl.
+     */
+    public int expectedPages() {
+        int count = 0;
+
+        for (boolean crawled : crawledPages()) {
+            if (crawled) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private boolean isExternal(int id) {
+        return new Random(seed ^ id * 0x9E3779B97F4A7C15L).nextDouble() < externalRatio;
+    }
+
+    private boolean isDead(int id) {
+        return deadHostRatio > 0 && new Random(seed ^ id * 0xD6E8FEB86659FD93L).nextDouble() < deadHostRatio;
+    }
+
+    private enum Kind {OK, BROKEN, HEAD_UNSUPPORTED, REDIRECT, SLOW, TIMEOUT}
+
+    private Kind kindOf(int id) {
+        double x = new Random(seed + id * 0xC2B2AE3D27D4EB4FL).nextDouble();
+
+        if ((x -= brokenRatio) < 0) return Kind.BROKEN;
+        if ((x -= timeoutRatio) < 0) return Kind.TIMEOUT;
+        if ((x -= headUnsupportedRatio) < 0) return Kind.HEAD_UNSUPPORTED;
+        if ((x -= redirectRatio) < 0) return Kind.REDIRECT;
+        if ((x -= slowRatio) < 0) return Kind.SLOW;
+
+        return Kind.OK;
+    }
+
+    /**
+     * Jumlah link unik yang seharusnya dilaporkan broken oleh crawler
+     * (resource broken, timeout, dan di host mati yang ditautkan dari webpage mana pun).
+     */
+    public int expectedBrokenLinks() {
+        boolean[] crawled = crawledPages();
+        boolean[] seen = new boolean[resources];
+        int broken = 0;
+
+        for (int page = 0; page < pages; page++) {
+            if (!crawled[page]) {
+                continue;
+            }
+
+            for (String link : linksOf(page)) {
+                int at = link.indexOf("/res/");
+
+                if (at < 0) {
+                    continue;
+                }
+
+                int id = Integer.parseInt(link.substring(at + 5, link.length() - 4));
+
+                if (!seen[id]) {
+                    seen[id] = true;
+                    Kind kind = kindOf(id);
+
+                    if (kind == Kind.BROKEN || kind == Kind.TIMEOUT || isDead(id)) {
+                        broken++;
+                    }
+                }
+            }
+        }
+
+        return broken;
+    }
+
+    /**
+     * Jumlah pasangan (broken link, webpage sumber) yang seharusnya dilaporkan: setiap
+     * webpage yang menautkan broken link dihitung sekali untuk link tersebut.
+     */
+    public long expectedBrokenSources() {
+        boolean[] crawled = crawledPages();
+        long sources = 0;
+
+        for (int page = 0; page < pages; page++) {
+            if (!crawled[page]) {
+                continue;
+            }
+
+            Set<Integer> onPage = new HashSet<>();
+
+            for (String link : linksOf(page)) {
+                int at = link.indexOf("/res/");
+
+                if (at < 0) {
+                    continue;
+                }
+
+                int id = Integer.parseInt(link.substring(at + 5, link.length() - 4));
+                Kind kind = kindOf(id);
+
+                if ((kind == Kind.BROKEN || kind == Kind.TIMEOUT || isDead(id)) && onPage.add(id)) {
+                    sources++;
+                }
+            }
+        }
+
+        return sources;
+    }
+
+    /** ===== Handler ===== */
+
+    private void handle(HttpExchange ex) throws IOException {
+        long start = System.nanoTime();
+        requests.incrementAndGet();
+
+        try (ex) {
+            String path = ex.getRequestURI().getPath();
+            boolean head = ex.getRequestMethod().equals("HEAD");
+
+            delay(ex);
+
+            if (path.startsWith("/page/")) {
+                int page = parseId(path, 6, path.length());
+
+                if (page < 0 || page >= pages) {
+                    respond(ex, 404, "text/html", null, head);
+                } else if (validators && notModified(ex, page)) {
+                    ex.sendResponseHeaders(304, -1);
+                } else {
+                    if (validators) {
+                        ex.getResponseHeaders().add("ETag", etagOf(page));
+                        ex.getResponseHeaders().add("Last-Modified", LAST_MODIFIED);
+                    }
+
+                    byte[] body = pageBody(page);
+
+                    if (compression && !head && acceptsGzip(ex)) {
+                        body = gzip(body);
+                        ex.getResponseHeaders().add("Content-Encoding", "gzip");
+                    }
+
+                    respond(ex, 200, "text/html; charset=utf-8", body, head);
+                }
+            } else if (path.equals("/calendar") && calendar) {
+                if (!head) {
+                    calendarPages.incrementAndGet();
+                }
+
+                respond(ex, 200, "text/html; charset=utf-8", calendarBody(ex.getRequestURI().getRawQuery()), head);
+            } else if (path.startsWith("/res/") && path.endsWith(".pdf")) {
+                int id = parseId(path, 5, path.length() - 4);
+
+                if (id < 0 || id >= resources) {
+                    respond(ex, 404, "text/html", null, head);
+                } else {
+                    checkedResources.add(id);
+                    resource(ex, id, head);
+                }
+            } else if (path.startsWith("/hop/")) {
+                // /hop/{id}/{sisa hop}
+                int slash = path.indexOf('/', 5);
+                int id = parseId(path, 5, slash);
+                int left = parseId(path, slash + 1, path.length());
+
+                redirect(ex, left <= 1 ? "/final/" + id + ".pdf" : "/hop/" + id + "/" + (left - 1));
+            } else if (path.startsWith("/final/")) {
+                respond(ex, 200, "application/pdf", null, head);
+            } else if (path.equals("/robots.txt") && (disallowRatio > 0 || sitemap)) {
+                respond(ex, 200, "text/plain; charset=utf-8", robotsBody(), head);
+            } else if (path.equals("/sitemap_index.xml") && sitemap) {
+                respond(ex, 200, "application/xml", sitemapIndexBody(), head);
+            } else if (path.startsWith("/sitemap/") && path.endsWith(".xml.gz") && sitemap) {
+                int chunk = parseId(path, 9, path.length() - 7);
+
+                if (chunk < 0 || chunk * SITEMAP_CHUNK >= pages) {
+                    respond(ex, 404, "text/html", null, head);
+                } else {
+                    // file .gz dikirim apa adanya, tanpa Content-Encoding
+                    respond(ex, 200, "application/gzip", gzip(urlsetBody(chunk)), head);
+                }
+            } else {
+                respond(ex, 404, "text/html", null, head);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ignored) {
+            // klien menutup koneksi (misalnya karena timeout)
+        } finally {
+            recordLatency(System.nanoTime() - start);
+        }
+    }
+
+    private void resource(HttpExchange ex, int id, boolean head) throws IOException, InterruptedException {
+        Random r = new Random(seed + id);
+
+        switch (kindOf(id)) {
+            case BROKEN -> respond(ex, BROKEN_STATUS[r.nextInt(BROKEN_STATUS.length)], "text/html", null, head);
+            case HEAD_UNSUPPORTED -> {
+                if (head) {
+                    respond(ex, HEAD_UNSUPPORTED_STATUS[r.nextInt(HEAD_UNSUPPORTED_STATUS.length)], "text/html", null, true);
+                } else {
+                    respond(ex, 200, "application/pdf", null, false);
+                }
+            }
+            case REDIRECT -> redirect(ex, redirectHops <= 1
+                    ? "/final/" + id + ".pdf"
+                    : "/hop/" + id % SHARED_REDIRECTORS + "/" + (redirectHops - 1));
+            case SLOW -> {
+                Thread.sleep(slowMillis);
+                respond(ex, 200, "application/pdf", null, head);
+            }
+            case TIMEOUT -> {
+                Thread.sleep(hangMillis);
+                respond(ex, 200, "application/pdf", null, head);
+            }
+            default -> respond(ex, 200, "application/pdf", null, head);
+        }
+    }
+
+    private byte[] pageBody(int page) {
+        StringBuilder sb = new StringBuilder(256 + fanOut * 80);
+        sb.append("<!DOCTYPE html><html><head><title>Halaman ").append(page).append("</title></head><body>\n");
+        sb.append("<h1>Halaman ").append(page).append("</h1>\n<ul>\n");
+
+        int k = 0;
+        for (String link : linksOf(page)) {
+            sb.append("<li><a href=\"").append(link).append("\">link ").append(k++).append("</a></li>\n");
+        }
+
+        if (calendar) {
+            sb.append("<li><a href=\"").append(calendarUrl(page % 12, Long.toHexString(seed * 31 + page))).append("\">kalender</a></li>\n");
+        }
+
+        sb.append("</ul>\n</body></html>\n");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Isi kalender selalu sama (navigasi ke CALENDAR_NAV webpage pertama) selain link ke
+     * bulan sebelum dan sesudahnya. Bulan boleh negatif dan tidak dibatasi.
+     */
+    private byte[] calendarBody(String query) {
+        long month = 0;
+        String sid = "";
+
+        for (String param : query == null ? new String[0] : query.split("&")) {
+            if (param.startsWith("month=")) {
+                try {
+                    month = Long.parseLong(param.substring(6));
+                } catch (NumberFormatException ignored) {
+                }
+            } else if (param.startsWith("sid=")) {
+                sid = param.substring(4);
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("<!DOCTYPE html><html><head><title>Kalender</title></head><body>\n<ul>\n");
+
+        for (int page = 0; page < Math.min(CALENDAR_NAV, pages); page++) {
+            sb.append("<li><a href=\"").append(pageUrl(page)).append("\">halaman ").append(page).append("</a></li>\n");
+        }
+
+        sb.append("<li><a href=\"").append(calendarUrl(month - 1, sid)).append("\">sebelumnya</a></li>\n");
+        sb.append("<li><a href=\"").append(calendarUrl(month + 1, sid)).append("\">berikutnya</a></li>\n");
+        sb.append("</ul>\n</body></html>\n");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String calendarUrl(long month, String sid) {
+        return baseUrl("127.0.0.1") + "/calendar?month=" + month + (sid.isEmpty() ? "" : "&sid=" + sid);
+    }
+
+    private byte[] robotsBody() {
+        StringBuilder sb = new StringBuilder("User-agent: *\n");
+
+        for (int page = 0; page < pages; page++) {
+            if (isDisallowed(page)) {
+                sb.append("Disallow: /page/").append(page).append("$\n");
+            }
+        }
+
+        if (sitemap) {
+            sb.append("\nSitemap: ").append(baseUrl("127.0.0.1")).append("/sitemap_index.xml\n");
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] sitemapIndexBody() {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<sitemapindex xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+
+        for (int chunk = 0; chunk * SITEMAP_CHUNK < pages; chunk++) {
+            sb.append("<sitemap><loc>").append(baseUrl("127.0.0.1")).append("/sitemap/").append(chunk).append(".xml.gz</loc></sitemap>\n");
+        }
+
+        sb.append("</sitemapindex>\n");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] urlsetBody(int chunk) {
+        StringBuilder sb = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<urlset xmlns=\"http://www.sitemaps.org/schemas/sitemap/0.9\">\n");
+
+        for (int page = chunk * SITEMAP_CHUNK; page < Math.min(pages, (chunk + 1) * SITEMAP_CHUNK); page++) {
+            if (!isDisallowed(page)) {
+                sb.append("<url><loc>").append(pageUrl(page)).append("</loc></url>\n");
+            }
+        }
+
+        sb.append("</urlset>\n");
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String etagOf(int page) {
+        return "\"" + Long.toHexString(seed) + "-" + page + "\"";
+    }
+
+    /**
+     * If-None-Match lebih diutamakan; If-Modified-Since hanya dipakai jika tidak ada.
+     */
+    private boolean notModified(HttpExchange ex, int page) {
+        String ifNoneMatch = ex.getRequestHeaders().getFirst("If-None-Match");
+
+        if (ifNoneMatch != null) {
+            return ifNoneMatch.equals(etagOf(page));
+        }
+
+        return LAST_MODIFIED.equals(ex.getRequestHeaders().getFirst("If-Modified-Since"));
+    }
+
+    private static boolean acceptsGzip(HttpExchange ex) {
+        String accept = ex.getRequestHeaders().getFirst("Accept-Encoding");
+
+        return accept != null && accept.toLowerCase().contains("gzip");
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+
+        return out.toByteArray();
+    }
+
+    private void delay(HttpExchange ex) throws InterruptedException {
+        int millis = latencyMillis;
+
+        if (latencyJitterMillis > 0) {
+            millis += new Random(System.nanoTime() ^ ex.hashCode()).nextInt(latencyJitterMillis + 1);
+        }
+
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+
+    private static void redirect(HttpExchange ex, String location) throws IOException {
+        ex.getResponseHeaders().add("Location", location);
+        ex.sendResponseHeaders(302, -1);
+    }
+
+    private void respond(HttpExchange ex, int status, String contentType, byte[] body, boolean head) throws IOException {
+        ex.getResponseHeaders().add("Content-Type", contentType);
+
+        if (head || body == null) {
+            ex.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        ex.sendResponseHeaders(status, body.length);
+        bytesSent.addAndGet(body.length);
+
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static int parseId(String path, int from, int to) {
+        try {
+            return Integer.parseInt(path, from, to, 10);
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /** ===== Statistik ===== */
+
+    private void recordLatency(long nanos) {
+        synchronized (latencyLock) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencyCount * 2);
+            }
+
+            latencies[latencyCount++] = nanos;
+        }
+    }
+
+    /**
+     * Mengambil dan mengosongkan catatan waktu layanan request (nanodetik, terurut).
+     */
+    public long[] drainLatencies() {
+        long[] result;
+
+        synchronized (latencyLock) {
+            result = Arrays.copyOf(latencies, latencyCount);
+            latencyCount = 0;
+        }
+
+        Arrays.sort(result);
+
+        return result;
+    }
+
+    /**
+     * Mengambil dan mengosongkan jumlah request, jumlah resource unik yang dicek, dan
+     * jumlah byte body yang dikirim.
+     *
+     * @return {request, resource unik, byte, halaman kalender}
+     */
+    public long[] drainCounts() {
+        long[] result = {requests.getAndSet(0), checkedResources.size(), bytesSent.getAndSet(0), calendarPages.getAndSet(0)};
+        checkedResources.clear();
+
+        return result;
+    }
+
+    // ===================== Getter & Setter =====================
+    public int getPages() {
+        return pages;
+    }
+
+    public int getFanOut() {
+        return fanOut;
+    }
+
+    public void setWebpageRatio(double webpageRatio) {
+        this.webpageRatio = webpageRatio;
+    }
+
+    public void setExternalRatio(double externalRatio) {
+        this.externalRatio = externalRatio;
+    }
+
+    public void setDeadHostRatio(double deadHostRatio) {
+        this.deadHostRatio = deadHostRatio;
+    }
+
+    public void setBrokenRatio(double brokenRatio) {
+        this.brokenRatio = brokenRatio;
+    }
+
+    public void setHeadUnsupportedRatio(double headUnsupportedRatio) {
+        this.headUnsupportedRatio = headUnsupportedRatio;
+    }
+
+    public void setRedirectRatio(double redirectRatio) {
+        this.redirectRatio = redirectRatio;
+    }
+
+    public void setRedirectHops(int redirectHops) {
+        this.redirectHops = redirectHops;
+    }
+
+    public void setSlowRatio(double slowRatio) {
+        this.slowRatio = slowRatio;
+    }
+
+    public void setSlowMillis(int slowMillis) {
+        this.slowMillis = slowMillis;
+    }
+
+    public void setTimeoutRatio(double timeoutRatio) {
+        this.timeoutRatio = timeoutRatio;
+    }
+
+    public void setHangMillis(int hangMillis) {
+        this.hangMillis = hangMillis;
+    }
+
+    public void setLatencyMillis(int latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    public void setLatencyJitterMillis(int latencyJitterMillis) {
+        this.latencyJitterMillis = latencyJitterMillis;
+    }
+
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
+
+    public void setDisallowRatio(double disallowRatio) {
+        this.disallowRatio = disallowRatio;
+    }
+
+    public void setSitemap(boolean sitemap) {
+        this.sitemap = sitemap;
+    }
+
+    public void setValidators(boolean validators) {
+        this.validators = validators;
+    }
+
+    public void setCalendar(boolean calendar) {
+        this.calendar = calendar;
+    }
+}
@@ -0,0 +1,51 @@
+package com.unpar.webcrawler.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Konversi status code ke teks dan sebaliknya, dengan campuran status yang umum
+ * ditemui crawler (termasuk 0 untuk request gagal dan code yang tidak dikenal).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpStatusBenchmark {
+
+    private static final int[] CODES = {200, 200, 200, 301, 302, 404, 200, 403, 500, 0, 429, 503, 999, 200, 410, 301};
+
+    private String[] statuses;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        statuses = new String[CODES.length];
+
+        for (int i = 0; i < CODES.length; i++) {
+            statuses[i] = HttpStatus.getStatus(CODES[i]);
+        }
+    }
+
+    @Benchmark
+    public String getStatus() {
+        return HttpStatus.getStatus(CODES[next++ & (CODES.length - 1)]);
+    }
+
+    @Benchmark
+    public int getCode() {
+        return HttpStatus.getCode(statuses[next++ & (CODES.length - 1)]);
+    }
+}
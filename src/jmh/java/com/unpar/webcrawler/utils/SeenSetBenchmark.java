@@ -0,0 +1,102 @@
+package com.unpar.webcrawler.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pengecekan url yang sudah dikunjungi: HashSet<String> (cara lama) dibandingkan dengan
+ * FingerprintSet di heap dan di file. Setengah dari url yang dicek ada di set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SeenSetBenchmark {
+
+    private static final int PROBES = 1 << 16;
+
+    @Param({"1000000"})
+    public int size;
+
+    private Set<String> hashSet;
+    private FingerprintSet onHeap;
+    private FingerprintSet mapped;
+    private Path mappedFile;
+    private String[] probes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        hashSet = new HashSet<>();
+        onHeap = FingerprintSet.onHeap(size);
+        mappedFile = Files.createTempFile("seen-set", ".bin");
+        mapped = FingerprintSet.mapped(mappedFile, size);
+
+        for (int i = 0; i < size; i++) {
+            String url = url(i);
+
+            hashSet.add(url);
+            onHeap.add(url);
+            mapped.add(url);
+        }
+
+        probes = new String[PROBES];
+
+        for (int i = 0; i < PROBES; i++) {
+            probes[i] = url(i % 2 == 0 ? i * 7 % size : size + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        mapped = null;
+        Files.deleteIfExists(mappedFile);
+    }
+
+    private static String url(int i) {
+        return "https://informatika.unpar.ac.id/halaman/" + i + "/?page=" + (i % 97);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next = 0;
+
+        String next(String[] probes) {
+            return probes[next++ & (PROBES - 1)];
+        }
+    }
+
+    @Benchmark
+    public boolean hashSet(Cursor cursor) {
+        return hashSet.contains(cursor.next(probes));
+    }
+
+    @Benchmark
+    public boolean onHeap(Cursor cursor) {
+        return onHeap.contains(cursor.next(probes));
+    }
+
+    @Benchmark
+    public boolean mapped(Cursor cursor) {
+        return mapped.contains(cursor.next(probes));
+    }
+}
@@ -1,57 +1,242 @@
 package com.unpar.webcrawler;
 
+import com.unpar.webcrawler.cores.BatchCrawler;
+import com.unpar.webcrawler.cores.CrawlCoordinator;
+import com.unpar.webcrawler.cores.CrawlJournal;
+import com.unpar.webcrawler.cores.CrawlTrapDetector;
+import com.unpar.webcrawler.cores.CrawlWorker;
 import com.unpar.webcrawler.cores.Crawler;
-import com.unpar.webcrawler.models.WebpageLink;
-import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.cores.LinkStatusCache;
+import com.unpar.webcrawler.cores.ResultSink;
+import com.unpar.webcrawler.cores.ResultWriter;
+import com.unpar.webcrawler.utils.HttpStatus;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
-import java.util.function.Consumer;
 
 public class Application {
 
-    public static void main(String[] args) {
+    private static final String DEFAULT_OUTPUT = "results.ndjson";     // .csv dan .bin juga didukung, lihat ResultWriter
+    private static final int MAX_TRAPPED_LINES = 10;
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if ((args.length == 3 || args.length == 4) && args[0].equals("--listen")) {
+            runCoordinator(Integer.parseInt(args[1]), args[2], Path.of(args.length == 4 ? args[3] : DEFAULT_OUTPUT));
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("--worker")) {
+            int colon = args[1].lastIndexOf(':');
+            new CrawlWorker(args[1].substring(0, colon), Integer.parseInt(args[1].substring(colon + 1))).run();
+            return;
+        }
+
+        if (args.length > 0) {
+            runBatch(args);
+            return;
+        }
+
         Scanner scanner = new Scanner(System.in);
 
         System.out.print(">> Masukkan Seed URL   : ");
         String seedUrl = scanner.nextLine().trim();
 
+        System.out.print(">> File hasil [" + DEFAULT_OUTPUT + "] : ");
+        String output = scanner.nextLine().trim();
 
         Crawler crawler = new Crawler(seedUrl);
 
-        List<WebpageLink> webpageLinks = new ArrayList<>();
-        List<BrokenLink> brokenLinks   = new ArrayList<>();
-
-        Consumer<WebpageLink> conWebpageLink = new Consumer<WebpageLink>() {
-            @Override
-            public void accept(WebpageLink wl) {
-                System.out.println("=== WebpageLink ===");
-                System.out.println("URL             : " + wl.getUrl());
-                System.out.println("Status Code     : " + wl.getStatusCode());
-                System.out.println("Links Count     : " + wl.getLinkCount());
-                System.out.println("Access Time ISO : " + wl.getAccessTime());
-                System.out.println();
-                webpageLinks.add(wl);
-            }
-        };
-
-        Consumer<BrokenLink> conBrokenLink = new Consumer<BrokenLink>() {
-            @Override
-            public void accept(BrokenLink bl) {
-                System.out.println("=== BrokenLink ===");
-                System.out.println("URL          : " + bl.getUrl());
-                System.out.println("Status       : " + bl.getStatusCode());
-                System.out.println("Anchor Text  : " + bl.getAnchorText());
-                System.out.println("Source Page  : " + bl.getWebpageUrl());
-                System.out.println();
-                brokenLinks.add(bl);
+        // cache status link eksternal, dipakai ulang oleh crawl berikutnya
+        LinkStatusCache cache = openLinkStatusCache();
+        crawler.setLinkStatusCache(cache);
+
+        // crawl seed yang sama yang sebelumnya terhenti dilanjutkan, hasil lamanya ikut ditulis ulang
+        crawler.setJournal(CrawlJournal.open(dataDirectory("journal"), seedUrl));
+
+        // hasil ditulis ke file oleh thread terpisah, tidak disimpan di memori
+        Path path = Path.of(output.isEmpty() ? DEFAULT_OUTPUT : output);
+
+        ResultSink sink = new ResultSink(ResultWriter.open(path));
+
+        try (sink) {
+            // broken link ditulis setelah crawl selesai agar semua webpage sumbernya ikut tercatat
+            crawler.crawl(sink::webpage, bl -> {});
+            crawler.getBrokenLinks().forEach(sink::broken);
+        } finally {
+            cache.flush();
+        }
+
+        // ringkasan dibaca setelah sink ditutup, saat semua hasil sudah ditulis
+        printSummary(sink.summary(), path);
+        printTrapped(crawler.getTrapDetector().getSkipped());
+    }
+
+    /**
+     * Mode batch tanpa interaksi:
+     *   java Application [--file seeds.txt] [--output results.ndjson] [--parallel N] [--max-pages N] [--max-links N] [--max-depth N]
+     *                    [--max-minutes N] [--deadline-minutes N] [--incremental] [--no-journal] [seed ...]
+     *
+     * Seed diberikan sebagai argumen dan/atau dari file (satu url per baris, baris kosong dan
+     * baris berawalan # diabaikan). Hasil semua situs ditulis ke satu file output, dan
+     * ringkasan setiap situs dicetak saat situs tersebut selesai. --max-* berlaku per situs,
+     * --deadline-minutes untuk seluruh batch. --incremental hanya mem-parse webpage yang
+     * berubah sejak run sebelumnya (lihat WebpageCache).
+     *
+     * Progres setiap situs dicatat ke journal, sehingga batch yang terhenti (dibunuh, crash)
+     * melanjutkan situs yang belum selesai jika dijalankan lagi dengan seed yang sama.
+     * --no-journal meng-crawl semua situs dari awal tanpa journal.
+     */
+    private static void runBatch(String[] args) throws IOException, InterruptedException {
+        List<String> seeds = new ArrayList<>();
+        int parallel = 4;
+        int maxPages = Integer.MAX_VALUE;
+        int maxLinks = Integer.MAX_VALUE;
+        int maxDepth = Integer.MAX_VALUE;
+        Duration maxDuration = null;
+        Duration deadline = null;
+        boolean incremental = false;
+        boolean journal = true;
+        Path output = Path.of(DEFAULT_OUTPUT);
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--file" -> {
+                    for (String line : Files.readAllLines(Path.of(args[++i]))) {
+                        String seed = line.trim();
+
+                        if (!seed.isEmpty() && !seed.startsWith("#")) {
+                            seeds.add(seed);
+                        }
+                    }
+                }
+                case "--output" -> output = Path.of(args[++i]);
+                case "--parallel" -> parallel = Integer.parseInt(args[++i]);
+                case "--max-pages" -> maxPages = Integer.parseInt(args[++i]);
+                case "--max-links" -> maxLinks = Integer.parseInt(args[++i]);
+                case "--max-depth" -> maxDepth = Integer.parseInt(args[++i]);
+                case "--max-minutes" -> maxDuration = Duration.ofMinutes(Long.parseLong(args[++i]));
+                case "--deadline-minutes" -> deadline = Duration.ofMinutes(Long.parseLong(args[++i]));
+                case "--incremental" -> incremental = true;
+                case "--no-journal" -> journal = false;
+                default -> seeds.add(args[i]);
             }
-        };
+        }
+
+        BatchCrawler batch = new BatchCrawler(Math.max(8, parallel * 4), Math.max(64, parallel * 16));
+        batch.setMaxConcurrentSites(parallel);
+        batch.setMaxWebpagesPerSite(maxPages);
+        batch.setMaxLinkChecksPerSite(maxLinks);
+        batch.setMaxDepthPerSite(maxDepth);
+        batch.setMaxDurationPerSite(maxDuration);
+        batch.setMaxDuration(deadline);
+        LinkStatusCache cache = openLinkStatusCache();
+        batch.setLinkStatusCache(cache);
 
-        crawler.crawl(conWebpageLink, conBrokenLink);
+        if (incremental) {
+            batch.setWebpageCacheDirectory(dataDirectory("webpages"));
+        }
 
-        // ringkasan akhir
+        if (journal) {
+            batch.setJournalDirectory(dataDirectory("journal"));
+        }
+
+        ResultSink sink = new ResultSink(ResultWriter.open(output));
+
+        try (sink) {
+            // ringkasan dicetak dan broken link (beserta semua sumbernya) ditulis begitu satu situs selesai
+            batch.setSiteFinished(result -> {
+                result.brokenLinks().forEach(sink::broken);
+                System.out.println(summary(result));
+                printTrapped(result.trapped());
+            });
+
+            batch.crawl(seeds, (seed, wl) -> sink.webpage(wl), (seed, bl) -> {});
+        } finally {
+            cache.flush();
+        }
+
+        printSummary(sink.summary(), output);
+    }
+
+    /**
+     * Mode coordinator crawl terdistribusi:
+     *   java Application --listen PORT seedUrl [results.ndjson]
+     * lalu jalankan satu atau lebih worker (boleh kapan saja selama crawl berjalan):
+     *   java Application --worker HOST:PORT
+     */
+    private static void runCoordinator(int port, String seedUrl, Path output) throws IOException, InterruptedException {
+        ResultSink sink = new ResultSink(ResultWriter.open(output));
+
+        try (sink; CrawlCoordinator coordinator = new CrawlCoordinator(port)) {
+
+            System.out.println(">> Menunggu worker di port " + coordinator.getPort());
+
+            coordinator.crawl(seedUrl, sink::webpage, bl -> {});
+            coordinator.getBrokenLinks().forEach(sink::broken);
+        }
+
+        printSummary(sink.summary(), output);
+    }
+
+    private static void printSummary(ResultSink.Summary summary, Path output) {
         System.out.println("=== RINGKASAN ===");
-        System.out.println("Total Webpage Links     : " + webpageLinks.size());
-        System.out.println("Total Broken Links      : " + brokenLinks.size());
+        System.out.println("Total Webpage Links     : " + summary.webpages());
+        System.out.println("Total Broken Links      : " + summary.brokenLinks());
+        System.out.println("Total Sumber Broken Link: " + summary.brokenSources());
+
+        summary.brokenByStatus().forEach((status, count) ->
+                System.out.println("  " + (status == 0 ? "tanpa respon" : HttpStatus.getStatus(status)) + " : " + count));
+
+        System.out.println("File Hasil              : " + output.toAbsolutePath());
+    }
+
+    /**
+     * Url yang dilewati deteksi crawler trap, per alasan dan pola url (paling banyak MAX_TRAPPED_LINES baris).
+     */
+    private static void printTrapped(List<CrawlTrapDetector.Skipped> trapped) {
+        for (int i = 0; i < Math.min(trapped.size(), MAX_TRAPPED_LINES); i++) {
+            CrawlTrapDetector.Skipped s = trapped.get(i);
+            System.out.println("  dilewati " + s.reason() + " " + s.pattern() + " : " + s.count() + "  (contoh " + s.example() + ")");
+        }
+
+        if (trapped.size() > MAX_TRAPPED_LINES) {
+            System.out.println("  ... " + (trapped.size() - MAX_TRAPPED_LINES) + " pola lainnya");
+        }
+    }
+
+    private static String summary(BatchCrawler.SiteResult result) {
+        if (result.snapshot() == null) {
+            return "=== " + result.seedUrl() + (result.error() != null ? "  GAGAL: " + result.error() : "  tidak di-crawl (batas waktu habis)");
+        }
+
+        return String.format("=== %s  webpage %d  link %d  broken %d  trap %d  %.1f s%s%s",
+                result.seedUrl(),
+                result.snapshot().webpagesCrawled(),
+                result.snapshot().linksChecked(),
+                result.snapshot().brokenLinks(),
+                result.snapshot().trapped(),
+                result.snapshot().elapsed().toMillis() / 1000.0,
+                result.budgetExhausted() ? "  (budget habis)" : "",
+                result.error() != null ? "  GAGAL: " + result.error() : "");
+    }
+
+    private static LinkStatusCache openLinkStatusCache() {
+        // cache status link eksternal, dipakai ulang oleh crawl berikutnya
+        return LinkStatusCache.open(
+                dataDirectory("link-status"),
+                Duration.ofDays(7),     // TTL link yang berhasil
+                Duration.ofHours(6),    // TTL link yang gagal
+                100_000                 // jumlah entry maksimum di memori
+        );
+    }
+
+    /**
+     * Direktori data yang dipakai antar run, di bawah ~/.brokenlinkchecker.
+     */
+    private static Path dataDirectory(String name) {
+        return Path.of(System.getProperty("user.home"), ".brokenlinkchecker", name);
     }
 }
@@ -0,0 +1,291 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Meng-crawl banyak situs sekaligus dalam satu JVM.
+ *
+ * Setiap seed mendapat Crawler sendiri (frontier, repositories, dan metrik terpisah),
+ * tetapi semua Crawler memakai bersama:
+ * - satu executor virtual thread dan satu batas global fetch webpage. Semaphore-nya fair,
+ *   sehingga situs yang punya banyak url tidak mengambil semua slot dari situs lain
+ * - satu HostThrottle webpage, sehingga dua seed di host yang sama tetap sopan
+ * - satu LinkChecker: link eksternal yang sama (CDN, media sosial) hanya dicek sekali,
+ *   dan batas per host, HEAD learning, serta circuit breaker berlaku untuk semua situs
+ *
+ * Budget per situs (depth, jumlah webpage, jumlah link, dan waktu) serta batas waktu seluruh
+ * batch diatur dengan setter sebelum crawl().
+ * Gauge antrian link pada snapshot setiap Crawler menunjukkan LinkChecker bersama.
+ */
+public class BatchCrawler {
+
+    private static final int DEFAULT_MAX_CONCURRENT_SITES = 16;
+    private static final int DEFAULT_MAX_WEBPAGE_FETCHES_PER_SITE = 8;
+    private static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 4;
+    private static final double DEFAULT_MAX_RATE_PER_HOST = 10;
+    private static final int DEFAULT_MAX_LINK_CHECKS_PER_HOST = 6;
+    private static final double DEFAULT_MAX_LINK_RATE_PER_HOST = 20;
+    private static final int RECENT_RESULTS = 200_000;              // hasil cek link yang dipakai ulang antar situs
+
+    private final int maxWebpageFetches;                            // batas global fetch webpage
+    private final HostThrottle webpageThrottle;
+    private final LinkChecker linkChecker;
+
+    private int maxConcurrentSites = DEFAULT_MAX_CONCURRENT_SITES;
+    private int maxWebpageFetchesPerSite = DEFAULT_MAX_WEBPAGE_FETCHES_PER_SITE;
+    private int maxWebpagesPerSite = Integer.MAX_VALUE;
+    private int maxLinkChecksPerSite = Integer.MAX_VALUE;
+    private int maxDepthPerSite = Integer.MAX_VALUE;
+    private Duration maxDurationPerSite;
+    private Duration maxDuration;                                   // batas waktu seluruh batch, boleh null
+    private long deadline;                                          // maxDuration dalam System.nanoTime(), dihitung saat crawl() dimulai
+    private Path webpageCacheDirectory;                             // direktori WebpageCache per situs, null jika tidak inkremental
+    private Path journalDirectory;                                  // direktori CrawlJournal per situs, null tanpa journal
+    private Consumer<SiteResult> siteFinished = result -> {
+    };
+
+    /**
+     * @param maxWebpageFetches jumlah maksimum webpage yang di-fetch bersamaan, semua situs
+     * @param maxLinkChecks     jumlah maksimum link yang dicek bersamaan, semua situs
+     */
+    public BatchCrawler(int maxWebpageFetches, int maxLinkChecks) {
+        this(maxWebpageFetches, maxLinkChecks,
+                new HostThrottle(DEFAULT_MAX_CONCURRENT_PER_HOST, DEFAULT_MAX_RATE_PER_HOST),
+                new HostThrottle(DEFAULT_MAX_LINK_CHECKS_PER_HOST, DEFAULT_MAX_LINK_RATE_PER_HOST));
+    }
+
+    /**
+     * @param webpageThrottle batas request per host untuk fetch webpage, semua situs
+     * @param linkThrottle    batas request per host untuk cek link, semua situs
+     */
+    public BatchCrawler(int maxWebpageFetches, int maxLinkChecks, HostThrottle webpageThrottle, HostThrottle linkThrottle) {
+        if (maxWebpageFetches < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1");
+        }
+
+        this.maxWebpageFetches = maxWebpageFetches;
+        this.webpageThrottle = webpageThrottle;
+        this.linkChecker = Crawler.newLinkChecker(maxLinkChecks, linkThrottle);
+
+        linkChecker.setRecentResults(RECENT_RESULTS);
+    }
+
+    /**
+     * Hasil crawl satu situs.
+     *
+     * @param snapshot        metrik akhir Crawler situs ini (jumlah webpage, link, broken link, waktu),
+     *                        null jika situs tidak di-crawl (seed tidak valid, atau batas waktu batch habis)
+     * @param budgetExhausted crawl dihentikan karena budget, sebagian url tidak di-fetch
+     * @param brokenLinks     broken link situs ini beserta semua webpage sumbernya, lihat Crawler.getBrokenLinks()
+     * @param trapped         url yang dilewati deteksi crawler trap, lihat CrawlTrapDetector.getSkipped()
+     * @param error           exception yang menghentikan crawl situs ini, null jika tidak ada
+     */
+    public record SiteResult(String seedUrl, CrawlMetrics.Snapshot snapshot, boolean budgetExhausted,
+                             List<BrokenLink> brokenLinks, List<CrawlTrapDetector.Skipped> trapped, Throwable error) {
+    }
+
+    /**
+     * Meng-crawl semua seed, paling banyak maxConcurrentSites situs bersamaan, dan menunggu
+     * sampai semuanya selesai.
+     *
+     * Consumer menerima seed url situs asal beserta hasilnya. Untuk satu situs consumer
+     * dipanggil secara serial, tetapi situs yang berbeda dapat memanggilnya bersamaan.
+     *
+     * @return hasil per situs, urutannya sama dengan seeds
+     */
+    public List<SiteResult> crawl(List<String> seeds,
+                                  BiConsumer<String, WebpageLink> streamWebpageLink,
+                                  BiConsumer<String, BrokenLink> streamBrokenLink) throws InterruptedException {
+
+        deadline = maxDuration == null ? 0 : System.nanoTime() + maxDuration.toNanos();
+
+        Semaphore sharedSlots = new Semaphore(maxWebpageFetches, true);
+        Semaphore siteSlots = new Semaphore(maxConcurrentSites, true);
+        List<Future<SiteResult>> futures = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            for (String seed : seeds) {
+                futures.add(executor.submit(() -> {
+                    siteSlots.acquire();
+
+                    try {
+                        SiteResult result = crawlSite(seed, executor, sharedSlots, streamWebpageLink, streamBrokenLink);
+                        siteFinished.accept(result);
+                        return result;
+                    } finally {
+                        siteSlots.release();
+                    }
+                }));
+            }
+
+            List<SiteResult> results = new ArrayList<>();
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    results.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    results.add(new SiteResult(seeds.get(i), null, false, List.of(), List.of(), e.getCause()));
+                }
+            }
+
+            return results;
+        }
+    }
+
+    private SiteResult crawlSite(String seed, ExecutorService executor, Semaphore sharedSlots,
+                                 BiConsumer<String, WebpageLink> streamWebpageLink,
+                                 BiConsumer<String, BrokenLink> streamBrokenLink) {
+        Duration budget = maxDurationPerSite;
+
+        // situs yang menunggu giliran mendapat sisa batas waktu batch
+        if (maxDuration != null) {
+            long remaining = deadline - System.nanoTime();
+
+            if (remaining <= 0) {
+                return new SiteResult(seed, null, true, List.of(), List.of(), null);
+            }
+
+            if (budget == null || budget.toNanos() > remaining) {
+                budget = Duration.ofNanos(remaining);
+            }
+        }
+
+        Crawler crawler;
+
+        try {
+            crawler = new Crawler(seed, maxWebpageFetchesPerSite, webpageThrottle, linkChecker);
+        } catch (RuntimeException e) {      // seed url tidak valid
+            return new SiteResult(seed, null, false, List.of(), List.of(), e);
+        }
+
+        crawler.setSharedSlots(sharedSlots);
+        crawler.setSharedExecutor(executor);
+        crawler.setMaxWebpages(maxWebpagesPerSite);
+        crawler.setMaxLinkChecks(maxLinkChecksPerSite);
+        crawler.setMaxDepth(maxDepthPerSite);
+        crawler.setMaxDuration(budget);
+
+        if (webpageCacheDirectory != null) {
+            crawler.setWebpageCache(WebpageCache.open(webpageCacheDirectory, seed));
+        }
+
+        if (journalDirectory != null) {
+            crawler.setJournal(CrawlJournal.open(journalDirectory, seed));
+        }
+
+        try {
+            crawler.crawl(wl -> streamWebpageLink.accept(seed, wl), bl -> streamBrokenLink.accept(seed, bl));
+            return new SiteResult(seed, crawler.snapshot(), crawler.isBudgetExhausted(), crawler.getBrokenLinks(), trappedOf(crawler), null);
+        } catch (RuntimeException e) {
+            return new SiteResult(seed, crawler.snapshot(), crawler.isBudgetExhausted(), crawler.getBrokenLinks(), trappedOf(crawler), e);
+        }
+    }
+
+    private static List<CrawlTrapDetector.Skipped> trappedOf(Crawler crawler) {
+        return crawler.getTrapDetector() == null ? List.of() : crawler.getTrapDetector().getSkipped();
+    }
+
+    /**
+     * Cache status link di disk, dipakai bersama semua situs dan antar run.
+     */
+    public void setLinkStatusCache(LinkStatusCache cache) {
+        linkChecker.setCache(cache);
+    }
+
+    /**
+     * Re-crawl inkremental: setiap situs memakai WebpageCache sendiri di direktori ini,
+     * lihat Crawler.setWebpageCache(). null untuk crawl penuh.
+     */
+    public void setWebpageCacheDirectory(Path webpageCacheDirectory) {
+        this.webpageCacheDirectory = webpageCacheDirectory;
+    }
+
+    /**
+     * Setiap situs mencatat progresnya ke CrawlJournal sendiri di direktori ini, sehingga
+     * batch yang terhenti melanjutkan situs yang belum selesai saat dijalankan lagi, lihat
+     * Crawler.setJournal(). null tanpa journal.
+     */
+    public void setJournalDirectory(Path journalDirectory) {
+        this.journalDirectory = journalDirectory;
+    }
+
+    // ===================== Getter & Setter =====================
+
+    /**
+     * Dipanggil dari thread situs begitu crawl situs tersebut selesai, sebelum crawl() kembali.
+     */
+    public void setSiteFinished(Consumer<SiteResult> siteFinished) {
+        this.siteFinished = siteFinished;
+    }
+
+    public void setMaxConcurrentSites(int maxConcurrentSites) {
+        if (maxConcurrentSites < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1");
+        }
+
+        this.maxConcurrentSites = maxConcurrentSites;
+    }
+
+    public void setMaxWebpageFetchesPerSite(int maxWebpageFetchesPerSite) {
+        if (maxWebpageFetchesPerSite < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1");
+        }
+
+        this.maxWebpageFetchesPerSite = maxWebpageFetchesPerSite;
+    }
+
+    /**
+     * Budget jumlah webpage per situs, lihat Crawler.setMaxWebpages().
+     */
+    public void setMaxWebpagesPerSite(int maxWebpagesPerSite) {
+        this.maxWebpagesPerSite = maxWebpagesPerSite;
+    }
+
+    /**
+     * Budget jumlah link yang dicek per situs, lihat Crawler.setMaxLinkChecks(). Link yang
+     * hasilnya diambil dari LinkChecker bersama tetap dihitung.
+     */
+    public void setMaxLinkChecksPerSite(int maxLinkChecksPerSite) {
+        this.maxLinkChecksPerSite = maxLinkChecksPerSite;
+    }
+
+    /**
+     * Depth maksimum per situs, lihat Crawler.setMaxDepth().
+     */
+    public void setMaxDepthPerSite(int maxDepthPerSite) {
+        this.maxDepthPerSite = maxDepthPerSite;
+    }
+
+    /**
+     * Budget waktu per situs sejak crawl situs tersebut dimulai, null tanpa batas.
+     */
+    public void setMaxDurationPerSite(Duration maxDurationPerSite) {
+        this.maxDurationPerSite = maxDurationPerSite;
+    }
+
+    /**
+     * Batas waktu seluruh batch sejak crawl() dimulai, null tanpa batas. Situs yang sedang
+     * di-crawl berhenti seperti budget waktu per situs; situs yang belum dimulai dilewati.
+     */
+    public void setMaxDuration(Duration maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public LinkChecker getLinkChecker() {
+        return linkChecker;
+    }
+}
@@ -0,0 +1,169 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.utils.FingerprintSet;
+import com.unpar.webcrawler.utils.UrlDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mengumpulkan semua webpage sumber setiap broken link dalam satu crawl.
+ *
+ * repositories membuat setiap url hanya dicek sekali; kemunculan berikutnya dilaporkan ke
+ * seen(). Kemunculan tersebut dicatat jika url-nya sudah diketahui broken, atau masih dicek
+ * (disimpan sementara lalu digabung saat hasil cek keluar). Url yang ternyata tidak broken
+ * tidak meninggalkan apa pun, sehingga memori hanya terpakai untuk broken link dan cek yang
+ * sedang berjalan.
+ *
+ * Webpage yang masih menunggu di frontier tidak dilacak (frontier hanya menyimpan url);
+ * untuk webpage yang gagal di-fetch, sumber yang tercatat adalah kemunculan setelah fetch gagal.
+ */
+final class BrokenLinkIndex {
+
+    private final UrlDictionary urls = new UrlDictionary();
+    private final Map<String, int[]> checking = new HashMap<>();     // url yang sedang dicek -> {jumlah, id sumber tambahan...}
+    private BrokenLink[] byUrl = new BrokenLink[64];                 // indeks: id url di urls
+
+    UrlDictionary getUrlDictionary() {
+        return urls;
+    }
+
+    /**
+     * Menandai url mulai dicek jika belum ada di repositories; kemunculan berikutnya disimpan
+     * sampai hasil cek keluar. Memakai lock yang sama dengan seen() agar kemunculan di webpage
+     * lain tidak terlewat di antara repositories.add() dan pencatatan ini.
+     *
+     * @return false jika url sudah pernah dilihat
+     */
+    synchronized boolean checking(String url, FingerprintSet repositories) {
+        if (!repositories.add(url)) {
+            return false;
+        }
+
+        checking.put(url, null);
+        return true;
+    }
+
+    /**
+     * Url sudah dicek dan tidak broken.
+     */
+    synchronized void ok(String url) {
+        checking.remove(url);
+    }
+
+    /**
+     * Membuat record broken link, atau menambah sumber pada record yang sudah ada.
+     * Sumber yang tercatat selama url dicek ikut digabung.
+     *
+     * @param webpageUrl webpage sumber pertama, kosong jika tidak diketahui
+     */
+    synchronized BrokenLink broken(String url, int statusCode, String reason, String anchorText, String webpageUrl) {
+        int id = urls.find(url);
+        BrokenLink bl = id >= 0 && id < byUrl.length ? byUrl[id] : null;
+
+        if (bl == null) {
+            bl = new BrokenLink(urls, url, statusCode, reason, anchorText, webpageUrl);
+            id = bl.getUrlId();
+
+            if (id >= byUrl.length) {
+                byUrl = Arrays.copyOf(byUrl, Math.max(id + 1, byUrl.length * 2));
+            }
+
+            byUrl[id] = bl;
+        } else if (!webpageUrl.isEmpty()) {
+            bl.addSource(webpageUrl);
+        }
+
+        int[] pending = checking.remove(url);
+
+        if (pending != null) {
+            for (int i = 1; i <= pending[0]; i++) {
+                bl.addSource(pending[i]);
+            }
+        }
+
+        return bl;
+    }
+
+    /**
+     * Kemunculan key (bentuk lain url yang sama, lihat Crawler.keyOf()) dicatat pada bl.
+     */
+    synchronized void alias(String key, BrokenLink bl) {
+        int id = urls.intern(key);
+
+        if (id >= byUrl.length) {
+            byUrl = Arrays.copyOf(byUrl, Math.max(id + 1, byUrl.length * 2));
+        }
+
+        if (byUrl[id] == null) {
+            byUrl[id] = bl;
+        }
+    }
+
+    /**
+     * Url yang sudah pernah dilihat ditemukan lagi di webpage lain.
+     *
+     * @return url broken link tempat webpage dicatat sebagai sumber (berbeda dari url jika
+     *         url adalah key alias()), atau null jika tidak dicatat
+     */
+    synchronized String seen(String url, String webpageUrl) {
+        int id = urls.find(url);
+
+        if (id >= 0 && id < byUrl.length && byUrl[id] != null) {
+            byUrl[id].addSource(webpageUrl);
+            return byUrl[id].getUrl();
+        }
+
+        if (!checking.containsKey(url)) {
+            return null;            // sudah dicek dan tidak broken, atau webpage di frontier
+        }
+
+        int[] pending = checking.get(url);
+
+        if (pending == null) {
+            pending = new int[3];
+        } else if (pending[0] + 1 == pending.length) {
+            pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+
+        pending[++pending[0]] = urls.intern(webpageUrl);
+        checking.put(url, pending);
+        return url;
+    }
+
+    /**
+     * Sumber dari journal (record S). Record S dapat mendahului record B url yang sama,
+     * sehingga sumbernya disimpan seperti selama url dicek sampai broken() dipanggil.
+     */
+    synchronized void replayedSource(String url, String webpageUrl) {
+        checking.putIfAbsent(url, null);
+        seen(url, webpageUrl);
+    }
+
+    /**
+     * Membuang sumber dari journal milik url yang tidak broken.
+     */
+    synchronized void endReplay() {
+        checking.clear();
+    }
+
+    /**
+     * @return semua broken link, sesuai urutan ditemukan
+     */
+    synchronized List<BrokenLink> snapshot() {
+        List<BrokenLink> result = new ArrayList<>();
+
+        for (int id = 0, n = Math.min(byUrl.length, urls.size()); id < n; id++) {
+            // entry alias() dilewati, broken link-nya sudah ada di id url aslinya
+            if (byUrl[id] != null && byUrl[id].getUrlId() == id) {
+                result.add(byUrl[id]);
+            }
+        }
+
+        return result;
+    }
+}
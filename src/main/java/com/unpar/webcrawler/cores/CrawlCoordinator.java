@@ -0,0 +1,477 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+import com.unpar.webcrawler.utils.FingerprintSet;
+import com.unpar.webcrawler.utils.HttpStatus;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Coordinator crawl terdistribusi: membagi url ke beberapa CrawlWorker (biasanya proses
+ * terpisah di mesin yang sama) lewat TCP.
+ *
+ * Url dibagi ke PARTITIONS partisi berdasarkan hash url (bukan host), sehingga satu situs
+ * besar pun tersebar ke semua worker. Setiap partisi dimiliki tepat satu worker. Semua
+ * link yang ditemukan worker dikirim ke coordinator, yang:
+ * - membuang url yang sudah pernah dilihat (fingerprint 64-bit, seperti Crawler)
+ * - mencatat url baru ke log partisi di disk
+ * - meneruskannya ke worker pemilik partisi
+ *
+ * Depth url ikut dikirim bersama url, sehingga setMaxDepth() berlaku seperti pada Crawler.
+ * Karena url yang sudah pernah dilihat dibuang, depth sebuah url adalah depth saat url itu
+ * pertama kali tiba di coordinator, yang bisa lebih dalam dari jalur terpendeknya.
+ *
+ * Hasil dari worker di-stream ke consumer, satu kali per url. Karena semua kemunculan link
+ * melewati coordinator, webpage sumber setiap broken link dikumpulkan di sini (getBrokenLinks()).
+ *
+ * Worker boleh bergabung kapan saja. Worker baru mendapat partisi yang belum punya pemilik,
+ * lalu partisi dipindah dari worker dengan partisi terbanyak sampai pembagian rata.
+ * Jika koneksi worker putus (proses mati), partisinya dibagi ke worker lain.
+ * Dalam kedua kasus log partisi diputar ulang ke pemilik baru, kecuali url yang sudah
+ * dinyatakan selesai (record D). Url yang sempat diproses dua kali hanya dilaporkan sekali.
+ *
+ * Crawl selesai ketika semua worker idle dan sudah memproses semua url yang dikirim ke
+ * masing-masing. Karena setiap worker mengirim link dan laporan idle lewat satu koneksi
+ * secara berurutan, link yang belum diteruskan selalu tiba sebelum laporan idle
+ * pengirimnya.
+ */
+public class CrawlCoordinator implements AutoCloseable {
+
+    private static final int DEFAULT_EXPECTED_URLS = 100_000;
+    private static final long STOP_TIMEOUT_MILLIS = 30_000;         // menunggu worker mengirim hasil terakhir
+
+    private final ServerSocket server;
+    private final Path partitionDirectory;
+    private final BufferedWriter[] partitionLogs = new BufferedWriter[CrawlProtocol.PARTITIONS];
+    private final Worker[] owners = new Worker[CrawlProtocol.PARTITIONS];      // null: belum ada pemilik
+    private final List<Worker> workers = new ArrayList<>();
+    private final Object lock = new Object();                                  // monitor untuk state worker dan partisi
+    private final Object streamLock = new Object();
+
+    private FingerprintSet seen = FingerprintSet.onHeap(DEFAULT_EXPECTED_URLS);        // url yang pernah dikirim ke worker
+    private final FingerprintSet done = FingerprintSet.onHeap(DEFAULT_EXPECTED_URLS);  // url yang selesai diproses
+    private final FingerprintSet reported = FingerprintSet.onHeap(DEFAULT_EXPECTED_URLS);  // url yang hasilnya sudah di-stream
+
+    private final BrokenLinkIndex brokenLinks = new BrokenLinkIndex();
+
+    private String seedUrl;
+    private String rootHost;
+    private Consumer<WebpageLink> streamWebpageLink;
+    private Consumer<BrokenLink> streamBrokenLink;
+    private boolean finished = false;
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /**
+     * Membuka port untuk worker. Port 0 memilih port bebas, lihat getPort().
+     */
+    public CrawlCoordinator(int port) throws IOException {
+        this.server = new ServerSocket();
+        this.server.bind(new InetSocketAddress(port));
+        this.partitionDirectory = Files.createTempDirectory("crawl-partitions");
+    }
+
+    /**
+     * Menjalankan crawl dan menunggu sampai selesai. Worker boleh sudah terhubung sebelum
+     * method ini dipanggil maupun bergabung setelahnya; selama belum ada worker, crawl
+     * menunggu.
+     *
+     * Consumer dipanggil secara serial, seperti pada Crawler.crawl().
+     */
+    public void crawl(String seedUrl, Consumer<WebpageLink> streamWebpageLink,
+                      Consumer<BrokenLink> streamBrokenLink) throws InterruptedException {
+
+        synchronized (lock) {
+            this.seedUrl = seedUrl;
+            this.rootHost = URI.create(seedUrl).getHost().toLowerCase();
+            this.streamWebpageLink = streamWebpageLink;
+            this.streamBrokenLink = streamBrokenLink;
+
+            route(seedUrl, "", "", 0);
+        }
+
+        Thread acceptor = Thread.ofVirtual().name("crawl-coordinator-accept").start(this::acceptWorkers);
+
+        try {
+            synchronized (lock) {
+                while (!finished) {
+                    lock.wait();
+                }
+
+                for (Worker worker : workers) {
+                    worker.connection.send("X");
+                }
+            }
+
+            // hasil terakhir dikirim worker sebelum koneksinya ditutup
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(STOP_TIMEOUT_MILLIS);
+
+            synchronized (lock) {
+                while (!workers.isEmpty() && deadline - System.nanoTime() > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, deadline - System.nanoTime());
+                }
+            }
+        } finally {
+            close();
+            acceptor.join();
+        }
+    }
+
+    private void acceptWorkers() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                CrawlProtocol.Connection connection = new CrawlProtocol.Connection(socket);
+                Worker worker = new Worker(connection);
+
+                synchronized (lock) {
+                    if (finished) {
+                        connection.send("X");
+                        connection.close();
+                        continue;
+                    }
+
+                    connection.send("S", seedUrl, String.valueOf(maxDepth));
+                    workers.add(worker);
+                    join(worker);
+                }
+
+                Thread.ofVirtual().name("crawl-coordinator-" + connection).start(() -> receive(worker));
+            } catch (IOException e) {
+                // server ditutup, atau koneksi gagal sebelum worker terdaftar
+            }
+        }
+    }
+
+    private void receive(Worker worker) {
+        try {
+            String[] message;
+
+            while ((message = worker.connection.receive()) != null) {
+                handle(worker, message);
+            }
+        } catch (IOException | RuntimeException e) {
+            // koneksi putus atau pesan rusak, perlakukan seperti worker mati
+        } finally {
+            leave(worker);
+        }
+    }
+
+    private void handle(Worker worker, String[] message) {
+        switch (message[0]) {
+            case "L" -> {
+                synchronized (lock) {
+                    route(message[1], message[2], message[3], Integer.parseInt(message[4]));
+                }
+            }
+            case "D" -> {
+                done.add(message[1]);
+                brokenLinks.ok(message[1]);         // untuk link yang broken, record B sudah tiba lebih dulu
+            }
+            case "W" -> {
+                if (reported.add(message[1])) {
+                    WebpageLink wl = new WebpageLink(message[1], Integer.parseInt(message[2]),
+                            Integer.parseInt(message[3]), Instant.parse(message[4]));
+
+                    synchronized (streamLock) {
+                        streamWebpageLink.accept(wl);
+                    }
+                }
+            }
+            case "B" -> {
+                if (reported.add(message[1])) {
+                    BrokenLink bl = brokenLinks.broken(message[1], HttpStatus.getCode(message[2]),
+                            HttpStatus.getReason(message[2]), message[3], message[4]);
+
+                    synchronized (streamLock) {
+                        streamBrokenLink.accept(bl);
+                    }
+                }
+            }
+            case "I" -> {
+                synchronized (lock) {
+                    worker.idleAt = Long.parseLong(message[1]);
+                    checkFinished();
+                }
+            }
+            default -> throw new IllegalArgumentException("Unexpected message from worker: " + message[0]);
+        }
+    }
+
+    /**
+     * Semua broken link beserta semua webpage yang menautkannya, lihat Crawler.getBrokenLinks().
+     * Webpage yang diproses ulang setelah worker-nya mati bisa tercatat dua kali sebagai sumber.
+     */
+    public List<BrokenLink> getBrokenLinks() {
+        return brokenLinks.snapshot();
+    }
+
+    // ===================== Partisi =====================
+
+    /**
+     * Mencatat url baru ke log partisinya dan meneruskannya ke pemilik partisi.
+     * Url yang sudah pernah dilihat dibuang; webpageUrl-nya hanya dicatat sebagai sumber
+     * jika url tersebut broken. Harus dipanggil sambil memegang lock.
+     */
+    private void route(String url, String anchorText, String webpageUrl, int depth) {
+        // seperti Crawler: sumber hanya dilacak selama link non-webpage dicek, bukan selama webpage menunggu di frontier
+        boolean added = UrlCanonicalizer.isPotentialWebpage(url, rootHost)
+                ? seen.add(url)
+                : brokenLinks.checking(url, seen);
+
+        if (!added) {
+            brokenLinks.seen(url, webpageUrl);
+            return;
+        }
+
+        int partition = CrawlProtocol.partitionOf(url);
+
+        try {
+            BufferedWriter log = partitionLog(partition);
+            log.write(CrawlJournal.escape(url) + '\t' + CrawlJournal.escape(anchorText) + '\t' + CrawlJournal.escape(webpageUrl)
+                    + '\t' + depth + '\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        if (owners[partition] != null) {
+            owners[partition].deliver(url, anchorText, webpageUrl, depth);
+        }
+    }
+
+    private BufferedWriter partitionLog(int partition) throws IOException {
+        if (partitionLogs[partition] == null) {
+            partitionLogs[partition] = Files.newBufferedWriter(partitionDirectory.resolve("partition-" + partition + ".log"), StandardCharsets.UTF_8);
+        }
+
+        return partitionLogs[partition];
+    }
+
+    /**
+     * Memberikan partisi ke worker dan memutar ulang log partisi tersebut: semua url
+     * yang belum selesai dikirim ke pemilik baru.
+     */
+    private void assign(int partition, Worker to) {
+        Worker from = owners[partition];
+
+        owners[partition] = to;
+
+        if (from != null) {
+            from.owned &= ~(1L << partition);
+            from.connection.send("A", Long.toHexString(from.owned));
+        }
+
+        to.owned |= 1L << partition;
+        to.connection.send("A", Long.toHexString(to.owned));
+
+        if (partitionLogs[partition] == null) {
+            return;
+        }
+
+        try {
+            partitionLogs[partition].flush();
+
+            try (BufferedReader reader = Files.newBufferedReader(partitionDirectory.resolve("partition-" + partition + ".log"), StandardCharsets.UTF_8)) {
+                String line;
+
+                while ((line = reader.readLine()) != null) {
+                    String[] fields = line.split("\t", -1);
+                    String url = CrawlJournal.unescape(fields[0]);
+
+                    if (!done.contains(url)) {
+                        to.deliver(url, CrawlJournal.unescape(fields[1]), CrawlJournal.unescape(fields[2]), Integer.parseInt(fields[3]));
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Worker baru: ambil semua partisi tanpa pemilik, lalu ambil dari worker dengan partisi
+     * terbanyak sampai pembagian rata.
+     */
+    private void join(Worker worker) {
+        for (int p = 0; p < CrawlProtocol.PARTITIONS; p++) {
+            if (owners[p] == null) {
+                assign(p, worker);
+            }
+        }
+
+        while (true) {
+            Worker busiest = workers.stream().max(Comparator.comparingInt(Worker::partitions)).orElseThrow();
+
+            if (busiest.partitions() - worker.partitions() <= 1) {
+                break;
+            }
+
+            assign(Long.numberOfTrailingZeros(busiest.owned), worker);
+        }
+
+        checkFinished();
+    }
+
+    /**
+     * Worker mati atau keluar: partisinya dibagi ke worker lain, mulai dari yang partisinya
+     * paling sedikit. Jika tidak ada worker lain, partisi menunggu worker berikutnya.
+     */
+    private void leave(Worker worker) {
+        worker.connection.abort();
+
+        synchronized (lock) {
+            if (!workers.remove(worker)) {
+                return;
+            }
+
+            if (!finished) {
+                for (int p = 0; p < CrawlProtocol.PARTITIONS; p++) {
+                    if (owners[p] != worker) {
+                        continue;
+                    }
+
+                    owners[p] = null;
+
+                    Worker to = workers.stream().min(Comparator.comparingInt(Worker::partitions)).orElse(null);
+
+                    if (to != null) {
+                        assign(p, to);
+                    }
+                }
+
+                checkFinished();
+            }
+
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Crawl selesai jika ada worker dan setiap worker idle setelah memproses semua url
+     * yang dikirim kepadanya. Harus dipanggil sambil memegang lock.
+     */
+    private void checkFinished() {
+        if (finished || workers.isEmpty()) {
+            return;
+        }
+
+        for (Worker worker : workers) {
+            if (worker.idleAt != worker.delivered) {
+                return;
+            }
+        }
+
+        finished = true;
+        lock.notifyAll();
+    }
+
+    // ===================== Getter & Setter =====================
+
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Jumlah worker yang sedang terhubung.
+     */
+    public int getWorkerCount() {
+        synchronized (lock) {
+            return workers.size();
+        }
+    }
+
+    /**
+     * Depth maksimum webpage yang di-fetch worker, lihat Crawler.setMaxDepth(). Harus
+     * dipanggil sebelum crawl().
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 0) {
+            throw new IllegalArgumentException("Max depth must not be negative");
+        }
+
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Mengganti himpunan url yang sudah dilihat, misalnya dengan FingerprintSet.mapped()
+     * untuk situs dengan puluhan juta url. Harus dipanggil sebelum crawl().
+     */
+    public void setRepositories(FingerprintSet repositories) {
+        this.seen = repositories;
+    }
+
+    /**
+     * Menutup port dan semua koneksi worker, lalu menghapus log partisi.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            finished = true;
+            lock.notifyAll();
+
+            for (Worker worker : workers) {
+                worker.connection.abort();
+            }
+
+            for (BufferedWriter log : partitionLogs) {
+                try {
+                    if (log != null) {
+                        log.close();
+                    }
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+
+        try (Stream<Path> files = Files.list(partitionDirectory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+
+            Files.deleteIfExists(partitionDirectory);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class Worker {
+        final CrawlProtocol.Connection connection;
+        long owned = 0;             // mask partisi
+        long delivered = 0;         // jumlah pesan L yang dikirim ke worker
+        long idleAt = -1;           // nilai received pada laporan idle terakhir
+
+        Worker(CrawlProtocol.Connection connection) {
+            this.connection = connection;
+        }
+
+        void deliver(String url, String anchorText, String webpageUrl, int depth) {
+            delivered++;
+            connection.send("L", url, anchorText, webpageUrl, String.valueOf(depth));
+        }
+
+        int partitions() {
+            return Long.bitCount(owned);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+
+/**
+ * Event yang dikirim CrawlPublisher ke subscriber.
+ */
+public sealed interface CrawlEvent {
+
+    /**
+     * Webpage selesai di-fetch, sama seperti consumer pertama Crawler.crawl().
+     */
+    record WebpageCrawled(WebpageLink webpageLink) implements CrawlEvent {
+    }
+
+    /**
+     * Broken link ditemukan, sama seperti consumer kedua Crawler.crawl(). Daftar webpage
+     * sumbernya masih dapat bertambah sampai crawl selesai.
+     */
+    record BrokenLinkFound(BrokenLink brokenLink) implements CrawlEvent {
+    }
+
+    /**
+     * Metrik crawl, dikirim berkala selama crawl berjalan dan sekali lagi sebelum onComplete.
+     */
+    record Progress(CrawlMetrics.Snapshot snapshot) implements CrawlEvent {
+    }
+}
@@ -0,0 +1,393 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.utils.FingerprintSet;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Log append-only untuk satu crawl, agar crawl yang terhenti (dibunuh, OutOfMemoryError)
+ * dapat dilanjutkan tanpa mengulang webpage yang sudah selesai.
+ *
+ * Setiap baris adalah satu record yang dipisah tab:
+ *
+ *   F  url  depth                               url masuk ke frontier
+ *   D  url                                      webpage (beserta semua link-nya) atau link selesai diproses
+ *   W  url  statusCode  linkCount  accessTime   hasil WebpageLink
+ *   B  url  status      anchorText webpageUrl   hasil BrokenLink (status: "404" atau "0 <reason>")
+ *   S  url  webpageUrl                          webpage sumber tambahan dari url yang broken atau masih dicek
+ *
+ * replay() memutar ulang log langsung ke Crawler tanpa menyalin isinya ke memori: log dibaca
+ * dua kali, pertama untuk url yang sudah selesai, kedua untuk url frontier yang belum selesai
+ * dan hasil milik url yang sudah selesai. Yang disimpan di heap hanya fingerprint url
+ * (FingerprintSet, sekitar 16 byte per url). Sambil dibaca, log ditulis kembali dalam bentuk
+ * ringkas (checkpoint) yang hanya berisi record tersebut.
+ * Baris terakhir yang tidak diakhiri '\n' (terpotong karena crash) dibuang sebelum replay,
+ * walaupun jumlah field-nya lengkap (depth "12" yang terpotong menjadi "1"). Jika crawl
+ * selesai normal, log dihapus sehingga crawl berikutnya untuk seed yang sama dimulai dari awal.
+ *
+ * Record ditulis ke buffer dan di-flush paling lambat FLUSH_INTERVAL setelah record pertama
+ * yang belum di-flush, walaupun tidak ada record lain yang menyusul.
+ */
+public class CrawlJournal implements AutoCloseable {
+
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;   // data yang hilang saat crash paling banyak ~1 detik
+    private static final int EXPECTED_URLS = 100_000;
+
+    private final Path path;
+    private BufferedWriter writer;                      // dibuka oleh replay() atau record pertama
+    private boolean flushScheduled = false;             // flush() tertunda sudah dijadwalkan
+    private boolean closed = false;
+
+    private CrawlJournal(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Membuka log untuk seed tertentu di dalam direktori. Isi log sebelumnya baru dibaca
+     * oleh replay().
+     */
+    public static CrawlJournal open(Path directory, String seedUrl) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return new CrawlJournal(directory.resolve(fileNameOf(seedUrl)));
+    }
+
+    /**
+     * Penerima isi log crawl sebelumnya, lihat replay().
+     */
+    public interface Replay {
+
+        /**
+         * Url yang sudah selesai. Semua url yang sudah selesai diberikan sebelum pending() dan result().
+         */
+        void done(String url);
+
+        /**
+         * Url frontier yang belum selesai beserta depth-nya, sesuai urutan masuk.
+         */
+        void pending(String url, int depth);
+
+        /**
+         * Record hasil yang sudah pernah di-stream, diawali "W" atau "B", atau sumber
+         * tambahan broken link yang diawali "S". Record S dapat muncul sebelum record B url-nya.
+         */
+        void result(String[] record);
+    }
+
+    // ===================== Replay & checkpoint =====================
+
+    /**
+     * Memutar ulang log crawl sebelumnya (jika ada) ke target, menulis checkpoint, lalu
+     * membuka log untuk record berikutnya. Dipanggil sekali, sebelum record pertama ditulis.
+     *
+     * @return true jika log berisi crawl sebelumnya yang belum selesai
+     */
+    public synchronized boolean replay(Replay target) {
+        if (writer != null) {
+            throw new IllegalStateException("Journal already opened for writing");
+        }
+
+        try {
+            boolean resumed = Files.exists(path) && dropPartialLine() && checkpoint(target);
+            openWriter();
+
+            return resumed;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean checkpoint(Replay target) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        FingerprintSet done = FingerprintSet.onHeap(EXPECTED_URLS);
+        FingerprintSet queued = FingerprintSet.onHeap(EXPECTED_URLS);
+        boolean resumed = false;
+
+        try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+
+            // putaran pertama: url yang sudah selesai
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String[] fields;
+
+                while ((fields = readRecord(reader)) != null) {
+                    if (fields[0].equals("D") && fields.length == 2 && done.add(fields[1])) {
+                        target.done(fields[1]);
+                        writeRecord(out, fields);
+                        resumed = true;
+                    }
+                }
+            }
+
+            // putaran kedua: url frontier yang belum selesai dan hasil url yang sudah selesai
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                String[] fields;
+
+                while ((fields = readRecord(reader)) != null) {
+                    switch (fields[0]) {
+                        case "F" -> {
+                            if (fields.length != 3) {
+                                continue;
+                            }
+
+                            String url = fields[1];
+                            int depth = parseDepth(fields[2]);
+
+                            if (!done.contains(url) && queued.add(url)) {
+                                target.pending(url, depth);
+                                writeRecord(out, new String[]{"F", url, String.valueOf(depth)});
+                                resumed = true;
+                            }
+                        }
+                        case "W", "B" -> {
+                            // hasil url yang belum selesai akan di-stream ulang
+                            if (fields.length == 5 && done.contains(fields[1])) {
+                                target.result(fields);
+                                writeRecord(out, fields);
+                            }
+                        }
+                        case "S" -> {
+                            // sumber dari webpage yang belum selesai tercatat lagi saat webpage itu di-crawl ulang
+                            if (fields.length == 3 && done.contains(fields[1]) && done.contains(fields[2])) {
+                                target.result(fields);
+                                writeRecord(out, fields);
+                            }
+                        }
+                        default -> {
+                            // record D (putaran pertama) atau baris rusak (misalnya terpotong saat crash)
+                        }
+                    }
+                }
+            }
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        return resumed;
+    }
+
+    /**
+     * Memotong log sampai '\n' terakhir. BufferedReader.readLine() juga mengembalikan baris
+     * terakhir yang tidak lengkap, sehingga baris itu harus dibuang lebih dulu.
+     *
+     * @return false jika log kosong setelah dipotong
+     */
+    private boolean dropPartialLine() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096);
+            long end = channel.size();
+
+            while (end > 0) {
+                long start = Math.max(0, end - buffer.capacity());
+
+                buffer.clear().limit((int) (end - start));
+                channel.read(buffer, start);
+
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        channel.truncate(start + i + 1);
+                        return true;
+                    }
+                }
+
+                end = start;
+            }
+
+            channel.truncate(0);
+            return false;
+        }
+    }
+
+    private static String[] readRecord(BufferedReader reader) throws IOException {
+        String line = reader.readLine();
+
+        if (line == null) {
+            return null;
+        }
+
+        String[] fields = line.split("\t", -1);
+
+        for (int i = 1; i < fields.length; i++) {
+            fields[i] = unescape(fields[i]);
+        }
+
+        return fields;
+    }
+
+    private static void writeRecord(BufferedWriter out, String[] fields) throws IOException {
+        out.write(fields[0]);
+
+        for (int i = 1; i < fields.length; i++) {
+            out.write('\t');
+            out.write(escape(fields[i]));
+        }
+
+        out.write('\n');
+    }
+
+    // ===================== Menulis record =====================
+
+    public void frontier(String url, int depth) {
+        append("F", url, String.valueOf(depth));
+    }
+
+    public void done(String url) {
+        append("D", url);
+    }
+
+    public void webpage(String url, int statusCode, int linkCount, String accessTime) {
+        append("W", url, String.valueOf(statusCode), String.valueOf(linkCount), accessTime);
+    }
+
+    public void broken(String url, int statusCode, String reason, String anchorText, String webpageUrl) {
+        String status = statusCode == 0 && reason != null && !reason.isEmpty() ? "0 " + reason : String.valueOf(statusCode);
+
+        append("B", url, status, anchorText, webpageUrl);
+    }
+
+    public void source(String url, String webpageUrl) {
+        append("S", url, webpageUrl);
+    }
+
+    /**
+     * Menandai crawl selesai normal: log ditutup dan dihapus.
+     */
+    public synchronized void complete() {
+        close();
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // log yang tersisa hanya membuat crawl berikutnya melanjutkan crawl yang sudah selesai
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void openWriter() throws IOException {
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private synchronized void append(String type, String... fields) {
+        if (closed) {
+            return;
+        }
+
+        try {
+            if (writer == null) {
+                openWriter();
+            }
+
+            writer.write(type);
+
+            for (String field : fields) {
+                writer.write('\t');
+                writer.write(escape(field));
+            }
+
+            writer.write('\n');
+
+            // record ini paling lama menunggu satu interval di buffer
+            if (!flushScheduled) {
+                flushScheduled = true;
+
+                CompletableFuture
+                        .delayedExecutor(FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS)
+                        .execute(this::flush);
+            }
+        } catch (IOException ignored) {
+            // journal hanya untuk pemulihan, kegagalan menulis tidak boleh menghentikan crawl
+        }
+    }
+
+    private synchronized void flush() {
+        flushScheduled = false;
+
+        if (closed) {
+            return;
+        }
+
+        try {
+            writer.flush();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static int parseDepth(String value) {
+        try {
+            return Math.max(0, Integer.parseInt(value));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    static String fileNameOf(String seedUrl) {
+        String host = Frontier.hostOf(seedUrl).replaceAll("[^a-z0-9.-]", "_");
+        return host + "-" + Integer.toHexString(seedUrl.hashCode()) + ".journal";
+    }
+
+    static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        StringBuilder sb = new StringBuilder(value.length());
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(switch (next) {
+                    case 't' -> '\t';
+                    case 'n' -> '\n';
+                    case 'r' -> '\r';
+                    default -> next;
+                });
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,413 @@
+package com.unpar.webcrawler.cores;
+
+import jdk.jfr.EventType;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Metrik crawl: counter progres, histogram latency per fase dan per host, serta gauge
+ * antrian dan request yang sedang berjalan.
+ *
+ * Counter progres dan gauge selalu tersedia (dipakai snapshot untuk laporan progres).
+ * Histogram hanya diisi jika metrik diaktifkan dengan setEnabled(true); event JFR
+ * CrawlPhaseEvent dicatat jika ada recording yang mengaktifkannya. Jika keduanya
+ * mati, begin() hanya mengembalikan OFF tanpa membaca jam, sehingga overhead-nya
+ * dapat diabaikan.
+ *
+ * Pemakaian dari kode yang diukur:
+ *   long start = metrics.begin();
+ *   ... kerja fase ...
+ *   metrics.end(Phase.WEBPAGE_FETCH, host, url, start, statusCode);
+ */
+public class CrawlMetrics implements CrawlMetricsMXBean {
+
+    public enum Phase {
+        WEBPAGE_FETCH,      // request webpage sampai header diterima (DNS, connect, TTFB)
+        WEBPAGE_PARSE,      // download body dan parse html (mode streaming: termasuk ekstraksi link)
+        EXTRACT_LINKS,      // ekstraksi link dari DOM (hanya mode non-streaming)
+        LINK_QUEUE,         // link menunggu slot global / per host di LinkChecker
+        LINK_CHECK          // request HEAD (dan GET fallback) untuk satu link
+    }
+
+    static final long OFF = Long.MIN_VALUE;
+
+    private static final int MAX_HOSTS = 1000;                  // host berikutnya digabung ke OTHER_HOSTS
+    private static final String OTHER_HOSTS = "*";
+    private static final Phase[] PHASES = Phase.values();
+    private static final EventType PHASE_EVENT = EventType.getEventType(CrawlPhaseEvent.class);   // cek recording tanpa membuat event
+
+    private volatile boolean enabled = false;
+    private volatile long startedAt = System.nanoTime();
+
+    private final LongAdder webpagesCrawled = new LongAdder();
+    private final LongAdder linksChecked = new LongAdder();
+    private final LongAdder brokenLinks = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder shortCircuited = new LongAdder();
+    private final LongAdder disallowed = new LongAdder();
+    private final LongAdder sitemapUrls = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder trapped = new LongAdder();
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[PHASES.length];
+    private final Map<String, AtomicReferenceArray<LatencyHistogram>> hosts = new ConcurrentHashMap<>();
+
+    private LongSupplier frontierSize = () -> 0;
+    private IntSupplier pendingLinkChecks = () -> 0;
+    private IntSupplier webpagesInFlight = () -> 0;
+    private IntSupplier linksInFlight = () -> 0;
+
+    private ObjectName objectName;
+
+    public CrawlMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Sumber gauge, dipasang oleh Crawler.
+     */
+    void gauges(LongSupplier frontierSize, IntSupplier pendingLinkChecks, IntSupplier webpagesInFlight, IntSupplier linksInFlight) {
+        this.frontierSize = frontierSize;
+        this.pendingLinkChecks = pendingLinkChecks;
+        this.webpagesInFlight = webpagesInFlight;
+        this.linksInFlight = linksInFlight;
+    }
+
+    /**
+     * Menandai awal crawl, dasar perhitungan elapsed pada snapshot.
+     */
+    void started() {
+        startedAt = System.nanoTime();
+    }
+
+    /** ===== Pencatatan ===== */
+
+    /**
+     * @return waktu mulai fase, atau OFF jika histogram maupun event JFR tidak aktif
+     */
+    long begin() {
+        if (enabled || PHASE_EVENT.isEnabled()) {
+            return System.nanoTime();
+        }
+
+        return OFF;
+    }
+
+    /**
+     * Mencatat fase yang bukan request (parse, ekstraksi, antrian).
+     */
+    void end(Phase phase, String host, String url, long start) {
+        end(phase, host, url, start, 0, false);
+    }
+
+    /**
+     * Mencatat fase request; status 0 atau >= 400 dihitung sebagai error.
+     */
+    void end(Phase phase, String host, String url, long start, int statusCode) {
+        end(phase, host, url, start, statusCode, statusCode == 0 || statusCode >= 400);
+    }
+
+    private void end(Phase phase, String host, String url, long start, int statusCode, boolean error) {
+        if (start == OFF) {
+            return;
+        }
+
+        long nanos = System.nanoTime() - start;
+
+        if (enabled) {
+            phases[phase.ordinal()].record(nanos, error);
+            hostHistogram(host, phase).record(nanos, error);
+        }
+
+        if (PHASE_EVENT.isEnabled()) {
+            CrawlPhaseEvent event = new CrawlPhaseEvent();
+            event.phase = phase.name();
+            event.host = host;
+            event.url = url;
+            event.statusCode = statusCode;
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+
+    private LatencyHistogram hostHistogram(String host, Phase phase) {
+        AtomicReferenceArray<LatencyHistogram> byPhase = hosts.get(host);
+
+        if (byPhase == null) {
+            String key = hosts.size() < MAX_HOSTS ? host : OTHER_HOSTS;
+            byPhase = hosts.computeIfAbsent(key, h -> new AtomicReferenceArray<>(PHASES.length));
+        }
+
+        LatencyHistogram histogram = byPhase.get(phase.ordinal());
+
+        if (histogram == null) {
+            byPhase.compareAndSet(phase.ordinal(), null, new LatencyHistogram());
+            histogram = byPhase.get(phase.ordinal());
+        }
+
+        return histogram;
+    }
+
+    void webpageCrawled() {
+        webpagesCrawled.increment();
+    }
+
+    void linkChecked() {
+        linksChecked.increment();
+    }
+
+    void brokenLink() {
+        brokenLinks.increment();
+    }
+
+    void retried() {
+        retries.increment();
+    }
+
+    void shortCircuited() {
+        shortCircuited.increment();
+    }
+
+    void disallowed() {
+        disallowed.increment();
+    }
+
+    void sitemapUrls(long count) {
+        sitemapUrls.add(count);
+    }
+
+    void unchanged() {
+        unchanged.increment();
+    }
+
+    void trapped() {
+        trapped.increment();
+    }
+
+    /** ===== Snapshot ===== */
+
+    /**
+     * Ringkasan satu histogram. Latency dalam milidetik.
+     */
+    public record PhaseStats(long count, long errors, double meanMillis, double p50Millis, double p99Millis, double maxMillis) {
+        static PhaseStats of(LatencyHistogram h) {
+            return new PhaseStats(h.getCount(), h.getErrors(), h.getMeanMillis(),
+                    h.percentileMillis(0.50), h.percentileMillis(0.99), h.getMaxMillis());
+        }
+    }
+
+    /**
+     * Keadaan crawl pada satu waktu. phases dan hosts kosong jika metrik tidak diaktifkan;
+     * host di luar 1000 host pertama digabung dengan key "*".
+     */
+    public record Snapshot(Duration elapsed,
+                           long webpagesCrawled, long linksChecked, long brokenLinks, long retries, long shortCircuited,
+                           long disallowed, long sitemapUrls, long unchanged, long trapped,
+                           long frontierSize, int pendingLinkChecks, int webpagesInFlight, int linksInFlight,
+                           Map<Phase, PhaseStats> phases,
+                           Map<String, Map<Phase, PhaseStats>> hosts) {
+
+        public double webpagesPerSecond() {
+            return elapsed.isZero() ? 0 : webpagesCrawled * 1e9 / elapsed.toNanos();
+        }
+
+        public double linksPerSecond() {
+            return elapsed.isZero() ? 0 : linksChecked * 1e9 / elapsed.toNanos();
+        }
+    }
+
+    public Snapshot snapshot() {
+        Map<Phase, PhaseStats> phaseStats = new EnumMap<>(Phase.class);
+        Map<String, Map<Phase, PhaseStats>> hostStats = new HashMap<>();
+
+        for (Phase phase : PHASES) {
+            LatencyHistogram h = phases[phase.ordinal()];
+
+            if (h.getCount() > 0) {
+                phaseStats.put(phase, PhaseStats.of(h));
+            }
+        }
+
+        hosts.forEach((host, byPhase) -> {
+            Map<Phase, PhaseStats> stats = new EnumMap<>(Phase.class);
+
+            for (Phase phase : PHASES) {
+                LatencyHistogram h = byPhase.get(phase.ordinal());
+
+                if (h != null) {
+                    stats.put(phase, PhaseStats.of(h));
+                }
+            }
+
+            hostStats.put(host, stats);
+        });
+
+        return new Snapshot(Duration.ofNanos(System.nanoTime() - startedAt),
+                getWebpagesCrawled(), getLinksChecked(), getBrokenLinks(), getRetries(), getShortCircuited(),
+                getDisallowed(), getSitemapUrls(), getUnchanged(), getTrapped(),
+                getFrontierSize(), getPendingLinkChecks(), getWebpagesInFlight(), getLinksInFlight(),
+                phaseStats, hostStats);
+    }
+
+    /** ===== JMX ===== */
+
+    /**
+     * Mendaftarkan metrik ke platform MBeanServer dengan nama
+     * com.unpar.webcrawler:type=CrawlMetrics,name=&lt;name&gt;.
+     */
+    public synchronized void registerMBean(String name) throws JMException {
+        unregisterMBean();
+
+        ObjectName objectName = new ObjectName("com.unpar.webcrawler:type=CrawlMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+
+        this.objectName = objectName;
+    }
+
+    public synchronized void unregisterMBean() throws JMException {
+        if (objectName == null) {
+            return;
+        }
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        if (server.isRegistered(objectName)) {
+            server.unregisterMBean(objectName);
+        }
+
+        objectName = null;
+    }
+
+    private Map<String, Long> perPhase(ToLongFunction<LatencyHistogram> value) {
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        for (Phase phase : PHASES) {
+            result.put(phase.name(), value.applyAsLong(phases[phase.ordinal()]));
+        }
+
+        return result;
+    }
+
+    private Map<String, Double> perPhaseMillis(ToDoubleFunction<LatencyHistogram> value) {
+        Map<String, Double> result = new LinkedHashMap<>();
+
+        for (Phase phase : PHASES) {
+            result.put(phase.name(), value.applyAsDouble(phases[phase.ordinal()]));
+        }
+
+        return result;
+    }
+
+    // ===================== Getter & Setter =====================
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getWebpagesCrawled() {
+        return webpagesCrawled.sum();
+    }
+
+    @Override
+    public long getLinksChecked() {
+        return linksChecked.sum();
+    }
+
+    @Override
+    public long getBrokenLinks() {
+        return brokenLinks.sum();
+    }
+
+    @Override
+    public long getRetries() {
+        return retries.sum();
+    }
+
+    @Override
+    public long getShortCircuited() {
+        return shortCircuited.sum();
+    }
+
+    @Override
+    public long getDisallowed() {
+        return disallowed.sum();
+    }
+
+    @Override
+    public long getSitemapUrls() {
+        return sitemapUrls.sum();
+    }
+
+    @Override
+    public long getUnchanged() {
+        return unchanged.sum();
+    }
+
+    @Override
+    public long getTrapped() {
+        return trapped.sum();
+    }
+
+    @Override
+    public long getFrontierSize() {
+        return frontierSize.getAsLong();
+    }
+
+    @Override
+    public int getPendingLinkChecks() {
+        return pendingLinkChecks.getAsInt();
+    }
+
+    @Override
+    public int getWebpagesInFlight() {
+        return webpagesInFlight.getAsInt();
+    }
+
+    @Override
+    public int getLinksInFlight() {
+        return linksInFlight.getAsInt();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseCounts() {
+        return perPhase(LatencyHistogram::getCount);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseErrors() {
+        return perPhase(LatencyHistogram::getErrors);
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP50Millis() {
+        return perPhaseMillis(h -> h.percentileMillis(0.50));
+    }
+
+    @Override
+    public Map<String, Double> getPhaseP99Millis() {
+        return perPhaseMillis(h -> h.percentileMillis(0.99));
+    }
+}
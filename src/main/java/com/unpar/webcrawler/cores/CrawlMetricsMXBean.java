@@ -0,0 +1,62 @@
+package com.unpar.webcrawler.cores;
+
+import java.util.Map;
+
+/**
+ * Atribut JMX dari CrawlMetrics. Map fase memakai nama CrawlMetrics.Phase sebagai key.
+ */
+public interface CrawlMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getWebpagesCrawled();
+
+    long getLinksChecked();
+
+    long getBrokenLinks();
+
+    long getRetries();
+
+    /**
+     * Link yang tidak di-request karena circuit breaker host-nya terbuka.
+     */
+    long getShortCircuited();
+
+    /**
+     * Webpage yang tidak di-fetch karena dilarang robots.txt.
+     */
+    long getDisallowed();
+
+    /**
+     * Url webpage baru yang dimasukkan ke frontier dari sitemap.
+     */
+    long getSitemapUrls();
+
+    /**
+     * Webpage yang tidak berubah sejak crawl sebelumnya (304 atau hash body sama), tidak di-parse.
+     */
+    long getUnchanged();
+
+    /**
+     * Url webpage yang dilewati deteksi crawler trap, setiap url sekali (lihat CrawlTrapDetector).
+     */
+    long getTrapped();
+
+    long getFrontierSize();
+
+    int getPendingLinkChecks();
+
+    int getWebpagesInFlight();
+
+    int getLinksInFlight();
+
+    Map<String, Long> getPhaseCounts();
+
+    Map<String, Long> getPhaseErrors();
+
+    Map<String, Double> getPhaseP50Millis();
+
+    Map<String, Double> getPhaseP99Millis();
+}
@@ -0,0 +1,38 @@
+package com.unpar.webcrawler.cores;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Event JDK Flight Recorder untuk satu fase crawl (fetch webpage, parse, cek link, dll.).
+ * Dicatat oleh CrawlMetrics hanya ketika ada recording yang mengaktifkan event ini, contoh:
+ *   java -XX:StartFlightRecording:filename=crawl.jfr ...
+ */
+@Name("com.unpar.webcrawler.CrawlPhase")
+@Label("Crawl Phase")
+@Category({"BrokenLinkChecker", "Crawler"})
+@Description("Durasi satu fase crawl untuk satu url")
+@StackTrace(false)
+class CrawlPhaseEvent extends jdk.jfr.Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Host")
+    String host;
+
+    @Label("URL")
+    String url;
+
+    @Label("Status Code")
+    @Description("Status code HTTP, 0 jika request gagal atau fase bukan request")
+    int statusCode;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+}
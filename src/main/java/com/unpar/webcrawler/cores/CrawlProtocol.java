@@ -0,0 +1,201 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.utils.FingerprintSet;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Pesan antara CrawlCoordinator dan CrawlWorker lewat TCP. Setiap pesan adalah satu baris,
+ * field dipisah tab dan di-escape seperti CrawlJournal. Record D, W, dan B sama dengan
+ * record journal.
+ *
+ * Coordinator ke worker:
+ *
+ *   S  seedUrl  maxDepth                       seed crawl dan depth maksimum, selalu pesan pertama
+ *   A  mask                                    partisi milik worker (bit ke-i = partisi i, hex)
+ *   L  url  anchorText  webpageUrl  depth      url yang harus diproses worker
+ *   X                                          crawl selesai, worker berhenti
+ *
+ * Worker ke coordinator:
+ *
+ *   L  url  anchorText  webpageUrl  depth      link yang ditemukan di webpage (depth webpage + 1)
+ *   D  url                                     webpage (beserta link-nya) atau link selesai diproses
+ *   W  url  statusCode  linkCount  accessTime
+ *   B  url  status      anchorText webpageUrl
+ *   I  received                                worker idle setelah memproses sebanyak received pesan L
+ */
+final class CrawlProtocol {
+
+    static final int PARTITIONS = 64;           // satu bit per partisi pada mask
+
+    private CrawlProtocol() {
+    }
+
+    /**
+     * Partisi url: 6 bit teratas fingerprint url, sehingga webpage dari satu host pun tersebar
+     * ke semua worker.
+     */
+    static int partitionOf(String url) {
+        return (int) (FingerprintSet.fingerprint(url) >>> (Long.SIZE - 6));
+    }
+
+    static boolean owns(long mask, String url) {
+        return (mask >>> partitionOf(url) & 1) != 0;
+    }
+
+    /**
+     * Koneksi dengan pengiriman yang tidak pernah memblokir pemanggil: pesan diantrikan
+     * dan ditulis oleh virtual thread sendiri. Tanpa ini, coordinator dan worker bisa saling
+     * menunggu ketika buffer socket di kedua arah penuh.
+     */
+    static final class Connection implements Closeable {
+
+        private static final String END = "";          // penanda akhir antrian, pesan tidak pernah kosong
+
+        private final Socket socket;
+        private final Reader in;
+        private final char[] buffer = new char[8192];
+        private int position = 0;
+        private int limit = 0;
+        private final BufferedWriter out;
+        private final LinkedBlockingQueue<String> outbox = new LinkedBlockingQueue<>();
+        private final Thread writer;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.socket.setTcpNoDelay(true);        // pesan kecil yang di-flush tidak boleh tertahan Nagle + delayed ACK
+            this.in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            this.writer = Thread.ofVirtual().name("crawl-connection-writer").start(this::drain);
+        }
+
+        void send(String type, String... fields) {
+            StringBuilder sb = new StringBuilder(type);
+
+            for (String field : fields) {
+                sb.append('\t').append(CrawlJournal.escape(field));
+            }
+
+            outbox.add(sb.append('\n').toString());
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    String message = outbox.take();
+
+                    if (message.isEmpty()) {
+                        break;
+                    }
+
+                    out.write(message);
+
+                    if (outbox.isEmpty()) {
+                        out.flush();
+                    }
+                }
+
+                out.flush();
+            } catch (IOException | InterruptedException e) {
+                // koneksi putus, pembaca di sisi ini akan mendapat EOF / error
+                closeSocket();
+            }
+        }
+
+        /**
+         * Membaca satu pesan.
+         *
+         * @return field pesan, atau null jika koneksi ditutup. Baris terakhir yang tidak
+         *         lengkap (proses lawan mati saat menulis) diabaikan.
+         */
+        String[] receive() throws IOException {
+            StringBuilder partial = null;       // baris yang terpotong di akhir buffer
+
+            while (true) {
+                if (position == limit) {
+                    int n = in.read(buffer);
+
+                    if (n < 0) {
+                        return null;
+                    }
+
+                    position = 0;
+                    limit = n;
+                }
+
+                for (int i = position; i < limit; i++) {
+                    if (buffer[i] == '\n') {
+                        String line = partial == null
+                                ? new String(buffer, position, i - position)
+                                : partial.append(buffer, position, i - position).toString();
+
+                        position = i + 1;
+
+                        return split(line);
+                    }
+                }
+
+                if (partial == null) {
+                    partial = new StringBuilder();
+                }
+
+                partial.append(buffer, position, limit - position);
+                position = limit;
+            }
+        }
+
+        private static String[] split(String line) {
+            String[] fields = line.split("\t", -1);
+
+            for (int i = 1; i < fields.length; i++) {
+                fields[i] = CrawlJournal.unescape(fields[i]);
+            }
+
+            return fields;
+        }
+
+        /**
+         * Mengirim semua pesan yang masih diantrikan lalu menutup koneksi.
+         */
+        @Override
+        public void close() {
+            outbox.add(END);
+
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            closeSocket();
+        }
+
+        /**
+         * Menutup koneksi tanpa mengirim pesan yang tersisa.
+         */
+        void abort() {
+            closeSocket();
+            writer.interrupt();
+        }
+
+        private void closeSocket() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+
+        @Override
+        public String toString() {
+            return String.valueOf(socket.getRemoteSocketAddress());
+        }
+    }
+}
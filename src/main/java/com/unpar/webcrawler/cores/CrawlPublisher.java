@@ -0,0 +1,270 @@
+package com.unpar.webcrawler.cores;
+
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Crawl satu Crawler sebagai Flow.Publisher, untuk pemanggil yang tidak boleh diblok
+ * (misalnya thread JavaFX) atau consumer yang lebih lambat dari crawl.
+ *
+ * - crawl() dijalankan di virtual thread sendiri begitu ada subscriber. Event dikirim ke
+ *   subscriber lewat executor, satu per satu dan tidak pernah bersamaan, sebanyak yang
+ *   diminta dengan request(n).
+ * - Backpressure: event yang belum diminta ditampung di buffer. Selama isinya mencapai
+ *   bufferSize, dispatcher Crawler tidak mengambil url baru dari frontier. Webpage yang
+ *   sedang di-fetch tetap diselesaikan, sehingga buffer dapat sedikit melebihi bufferSize.
+ * - cancel() memanggil Crawler.cancel(): fetch webpage di-interrupt, cek link yang masih
+ *   antri dibatalkan, buffer dikosongkan, dan tidak ada signal lagi ke subscriber.
+ *
+ * Satu publisher hanya untuk satu crawl; subscriber berikutnya langsung menerima onError.
+ * Dengan executor Platform::runLater, onNext dipanggil di thread JavaFX; setiap giliran
+ * executor mengirim paling banyak MAX_BATCH event agar UI tetap responsif.
+ */
+public class CrawlPublisher implements Flow.Publisher<CrawlEvent> {
+
+    private static final int DEFAULT_BUFFER_SIZE = 1024;
+    private static final int MAX_BATCH = 256;                                           // event per giliran executor
+    private static final long PROGRESS_INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);   // jarak minimum antar event Progress
+    private static final Executor DEFAULT_EXECUTOR = task -> Thread.ofVirtual().name("crawl-publisher").start(task);
+
+    private final Crawler crawler;
+    private final Executor executor;
+    private final int bufferSize;
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    public CrawlPublisher(Crawler crawler) {
+        this(crawler, DEFAULT_EXECUTOR, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * @param executor   menjalankan pengiriman event ke subscriber
+     * @param bufferSize jumlah event yang belum diminta subscriber sebelum crawl ditahan
+     */
+    public CrawlPublisher(Crawler crawler, Executor executor, int bufferSize) {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be at least 1");
+        }
+
+        this.crawler = crawler;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CrawlEvent> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Crawl already has a subscriber"));
+            return;
+        }
+
+        CrawlSubscription subscription = new CrawlSubscription(subscriber);
+
+        crawler.setPauseCondition(subscription::isFull);
+        subscriber.onSubscribe(subscription);
+        subscription.start();
+    }
+
+    private final class CrawlSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super CrawlEvent> subscriber;
+        private final Queue<CrawlEvent> events = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger buffered = new AtomicInteger();     // jumlah event di events
+        private final AtomicLong demand = new AtomicLong();             // event yang diminta dan belum dikirim
+        private final AtomicInteger wip = new AtomicInteger();          // permintaan drain yang belum dilayani
+        private final AtomicBoolean crawlCancelled = new AtomicBoolean();
+        private volatile boolean cancelled = false;                     // cancel() dipanggil subscriber
+        private volatile boolean finished = false;                      // crawl() sudah kembali
+        private volatile Throwable error;                               // exception dari crawl(), dikirim setelah event terakhir
+        private volatile Throwable violation;                           // request(n) dengan n <= 0, dikirim segera
+        private long lastProgress;                                      // hanya diakses consumer crawl() (serial)
+
+        CrawlSubscription(Flow.Subscriber<? super CrawlEvent> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void start() {
+            lastProgress = System.nanoTime();
+
+            Thread.ofVirtual().name("crawl-publisher-crawl").start(() -> {
+                try {
+                    crawler.crawl(
+                            wl -> {
+                                emit(new CrawlEvent.WebpageCrawled(wl));
+                                progress();
+                            },
+                            bl -> {
+                                emit(new CrawlEvent.BrokenLinkFound(bl));
+                                progress();
+                            });
+
+                    emit(new CrawlEvent.Progress(crawler.snapshot()));
+                } catch (Throwable e) {
+                    error = e;
+                } finally {
+                    finished = true;
+                    signal();
+                }
+            });
+        }
+
+        boolean isFull() {
+            return buffered.get() >= bufferSize;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                violation = new IllegalArgumentException("Demand must be positive: " + n);
+                cancelCrawl();
+                signal();
+                return;
+            }
+
+            demand.getAndUpdate(d -> Long.MAX_VALUE - d <= n ? Long.MAX_VALUE : d + n);
+            signal();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            cancelCrawl();
+            signal();
+        }
+
+        private void cancelCrawl() {
+            if (crawlCancelled.compareAndSet(false, true)) {
+                crawler.cancel();
+            }
+        }
+
+        /** ===== Crawl -> buffer ===== */
+
+        private void emit(CrawlEvent event) {
+            if (cancelled || violation != null) {
+                return;
+            }
+
+            // dihitung sebelum masuk antrian agar buffered tidak pernah kurang dari isi antrian
+            buffered.incrementAndGet();
+            events.add(event);
+            signal();
+        }
+
+        private void progress() {
+            long now = System.nanoTime();
+
+            if (now - lastProgress >= PROGRESS_INTERVAL) {
+                lastProgress = now;
+                emit(new CrawlEvent.Progress(crawler.snapshot()));
+            }
+        }
+
+        /** ===== Buffer -> subscriber ===== */
+
+        private void signal() {
+            if (wip.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        /**
+         * Hanya satu drain() yang berjalan pada satu waktu (wip), sehingga signal ke
+         * subscriber selalu serial. Setelah signal terminal wip tidak pernah kembali ke 0,
+         * sehingga drain() tidak dijadwalkan lagi.
+         */
+        private void drain() {
+            int missed = 1;
+            int emitted = 0;
+
+            while (true) {
+                while (true) {
+                    if (cancelled) {
+                        clear();
+                        return;
+                    }
+
+                    Throwable v = violation;
+
+                    if (v != null) {
+                        clear();
+                        subscriber.onError(v);
+                        return;
+                    }
+
+                    // finished dibaca sebelum antrian: event terakhir masuk sebelum finished diset
+                    if (finished && events.isEmpty()) {
+                        Throwable e = error;
+
+                        if (e == null) {
+                            subscriber.onComplete();
+                        } else {
+                            subscriber.onError(e);
+                        }
+                        return;
+                    }
+
+                    if (demand.get() == 0) {
+                        break;
+                    }
+
+                    // giliran executor sudah cukup lama, lanjutkan di giliran berikutnya
+                    if (emitted == MAX_BATCH) {
+                        executor.execute(this::drain);
+                        return;
+                    }
+
+                    CrawlEvent event = events.poll();
+
+                    if (event == null) {
+                        break;
+                    }
+
+                    if (buffered.decrementAndGet() == bufferSize - 1) {
+                        crawler.resumeDispatch();
+                    }
+
+                    if (demand.get() != Long.MAX_VALUE) {
+                        demand.decrementAndGet();
+                    }
+
+                    try {
+                        subscriber.onNext(event);
+                    } catch (Throwable e) {
+                        cancel();           // subscriber melanggar kontrak Flow, subscription dianggap batal
+                    }
+
+                    emitted++;
+                }
+
+                missed = wip.addAndGet(-missed);
+
+                if (missed == 0) {
+                    return;
+                }
+            }
+        }
+
+        private void clear() {
+            events.clear();
+            buffered.set(0);
+        }
+    }
+}
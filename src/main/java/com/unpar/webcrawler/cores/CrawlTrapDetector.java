@@ -0,0 +1,541 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.utils.FingerprintSet;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Deteksi crawler trap: url yang terus menghasilkan "webpage baru" tanpa isi baru, misalnya
+ * kalender, parameter session ID, permutasi sort/filter, dan path relatif yang berulang.
+ *
+ * - Aturan tetap: url lebih dari MAX_URL_LENGTH karakter, path lebih dari maxPathDepth
+ *   segmen, atau satu segmen muncul lebih dari maxSegmentRepeat kali (/a/b/a/b/a/...).
+ * - normalize(): parameter session yang umum dan parameter yang sudah dipelajari tidak
+ *   berpengaruh dibuang, sisanya diurutkan, sehingga permutasi urutan parameter menjadi
+ *   url yang sama.
+ * - Pola url: host + path dengan setiap deret angka (dan id heksadesimal) diganti '#',
+ *   ditambah nama parameter query yang diurutkan, misalnya "example.com/calendar?month".
+ * - Fingerprint isi: SimHash 64-bit dari himpunan link webpage (sudah di-normalize), tanpa
+ *   link yang berpola sama dengan webpage itu sendiri (bulan berikutnya, permutasi sort).
+ *   Webpage yang berbeda paling banyak MAX_HAMMING bit dari webpage lain dengan pola yang
+ *   sama adalah near-duplicate: link berpola sama darinya tidak di-crawl, link lain tetap.
+ * - Belajar: pola yang webpage-nya hampir semuanya near-duplicate (TRAP_RATIO, minimal
+ *   MIN_PATTERN_PAGES webpage) menjadi trap dan url berikutnya dengan pola itu dilewati.
+ *   Dua webpage near-duplicate yang hanya berbeda nilai satu parameter memberi satu suara
+ *   untuk parameter tersebut; setelah IGNORABLE_VOTES suara, normalize() membuangnya.
+ *
+ * Url yang dilewati dicatat per alasan dan pola (getSkipped()), setiap url sekali.
+ * Satu instance per Crawler; semua method thread-safe.
+ */
+public class CrawlTrapDetector {
+
+    /**
+     * Alasan url dilewati.
+     */
+    public enum Reason {
+        URL_TOO_LONG,
+        PATH_TOO_DEEP,
+        REPEATED_SEGMENT,
+        TRAP_PATTERN,
+        NEAR_DUPLICATE,
+        NORMALIZED          // sama dengan webpage yang sudah di-crawl setelah normalize()
+    }
+
+    /**
+     * @param pattern pola url (lihat patternOf()), "*" untuk pola di luar MAX_REPORTED_PATTERNS pertama
+     * @param count   jumlah url berbeda yang dilewati
+     * @param example url pertama yang dilewati
+     */
+    public record Skipped(Reason reason, String pattern, long count, String example) {
+    }
+
+    private static final Set<String> SESSION_PARAMS = Set.of(
+            "jsessionid", "phpsessid", "aspsessionid", "sessionid", "session_id", "sid", "cfid", "cftoken");
+    private static final Pattern PATH_SESSION = Pattern.compile("(?i);jsessionid=[^/?]*");
+    private static final int MAX_URL_LENGTH = 2048;
+    private static final int DEFAULT_MAX_PATH_DEPTH = 16;
+    private static final int DEFAULT_MAX_SEGMENT_REPEAT = 2;
+    private static final int MIN_LINKS = 8;                     // webpage dengan link lebih sedikit tidak di-fingerprint
+    private static final int MAX_HAMMING = 3;                   // 4 blok 16 bit: minimal satu blok pasti sama
+    private static final int MIN_PATTERN_PAGES = 50;
+    private static final double TRAP_RATIO = 0.9;
+    private static final int IGNORABLE_VOTES = 3;
+    private static final int MAX_FINGERPRINTS = 250_000;
+    private static final int MAX_BUCKET = 64;                   // webpage per blok SimHash
+    private static final int MAX_PATTERNS = 100_000;
+    private static final int MAX_REPORTED_PATTERNS = 1000;
+
+    private int maxPathDepth = DEFAULT_MAX_PATH_DEPTH;
+    private int maxSegmentRepeat = DEFAULT_MAX_SEGMENT_REPEAT;
+
+    private final Map<Integer, List<Page>> bands = new HashMap<>();        // (blok, 16 bit SimHash) -> webpage
+    private int fingerprints = 0;
+    private final Map<String, int[]> patterns = new HashMap<>();           // pola -> {webpage, near-duplicate}
+    private final Set<String> trapPatterns = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> votes = new HashMap<>();            // host + " " + parameter -> suara
+    private final Map<String, Set<String>> ignorable = new ConcurrentHashMap<>();    // host -> parameter yang dibuang
+    private final FingerprintSet skippedUrls = FingerprintSet.onHeap(1024);
+    private final Map<String, SkippedCount> skipped = new HashMap<>();     // alasan + " " + pola -> jumlah
+
+    // ===================== Getter & Setter =====================
+
+    public void setMaxPathDepth(int maxPathDepth) {
+        if (maxPathDepth < 1) {
+            throw new IllegalArgumentException("Path depth limit must be at least 1");
+        }
+
+        this.maxPathDepth = maxPathDepth;
+    }
+
+    public void setMaxSegmentRepeat(int maxSegmentRepeat) {
+        if (maxSegmentRepeat < 1) {
+            throw new IllegalArgumentException("Segment repeat limit must be at least 1");
+        }
+
+        this.maxSegmentRepeat = maxSegmentRepeat;
+    }
+
+    /**
+     * @return parameter query yang dipelajari tidak berpengaruh, per host
+     */
+    public Map<String, Set<String>> getIgnorableParameters() {
+        Map<String, Set<String>> result = new HashMap<>();
+        ignorable.forEach((host, names) -> result.put(host, Set.copyOf(names)));
+
+        return result;
+    }
+
+    public Set<String> getTrapPatterns() {
+        return Set.copyOf(trapPatterns);
+    }
+
+    /**
+     * @return url yang dilewati per alasan dan pola, terbanyak lebih dulu
+     */
+    public synchronized List<Skipped> getSkipped() {
+        List<Skipped> result = new ArrayList<>();
+
+        for (SkippedCount s : skipped.values()) {
+            result.add(new Skipped(s.reason, s.pattern, s.count, s.example));
+        }
+
+        result.sort(Comparator.comparingLong(Skipped::count).reversed());
+
+        return result;
+    }
+
+    /** ===== Url ===== */
+
+    /**
+     * Membuang parameter session dan parameter yang dipelajari tidak berpengaruh, lalu
+     * mengurutkan parameter yang tersisa. Url dikembalikan apa adanya jika tidak berubah.
+     */
+    public String normalize(String url) {
+        String result = url;
+
+        if (result.indexOf(';') >= 0) {
+            result = PATH_SESSION.matcher(result).replaceAll("");
+        }
+
+        int query = result.indexOf('?');
+
+        if (query < 0) {
+            return result;
+        }
+
+        Set<String> learned = ignorable.get(Frontier.hostOf(result));
+        List<String> params = new ArrayList<>();
+
+        for (String param : result.substring(query + 1).split("&")) {
+            if (param.isEmpty()) {
+                continue;
+            }
+
+            String name = nameOf(param);
+
+            if (SESSION_PARAMS.contains(name.toLowerCase(Locale.ROOT)) || learned != null && learned.contains(name)) {
+                continue;
+            }
+
+            params.add(param);
+        }
+
+        params.sort(null);
+
+        String normalized = params.isEmpty()
+                ? result.substring(0, query)
+                : result.substring(0, query + 1) + String.join("&", params);
+
+        return normalized.equals(url) ? url : normalized;
+    }
+
+    /**
+     * @param sourcePattern         pola webpage tempat url ditemukan
+     * @param sourceNearDuplicate   webpage tersebut near-duplicate, lihat observe()
+     * @return alasan url harus dilewati, atau null jika url boleh di-crawl
+     */
+    public Reason check(String url, String sourcePattern, boolean sourceNearDuplicate) {
+        if (url.length() > MAX_URL_LENGTH) {
+            return Reason.URL_TOO_LONG;
+        }
+
+        Reason path = checkPath(url);
+
+        if (path != null) {
+            return path;
+        }
+
+        String pattern = patternOf(url);
+
+        if (trapPatterns.contains(pattern)) {
+            return Reason.TRAP_PATTERN;
+        }
+
+        if (sourceNearDuplicate && pattern.equals(sourcePattern)) {
+            return Reason.NEAR_DUPLICATE;
+        }
+
+        return null;
+    }
+
+    /**
+     * Mencatat url yang dilewati.
+     *
+     * @return false jika url sudah pernah dicatat
+     */
+    public boolean skipped(String url, Reason reason) {
+        if (!skippedUrls.add(url)) {
+            return false;
+        }
+
+        String pattern = patternOf(url);
+
+        synchronized (this) {
+            String key = reason + " " + pattern;
+            SkippedCount count = skipped.get(key);
+
+            if (count == null && skipped.size() >= MAX_REPORTED_PATTERNS) {
+                key = reason + " *";
+                pattern = "*";
+                count = skipped.get(key);
+            }
+
+            if (count == null) {
+                count = new SkippedCount(reason, pattern, url);
+                skipped.put(key, count);
+            }
+
+            count.count++;
+        }
+
+        return true;
+    }
+
+    private Reason checkPath(String url) {
+        int scheme = url.indexOf("://");
+        int start = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+
+        if (start < 0) {
+            return null;
+        }
+
+        int query = url.indexOf('?', start);
+        String[] segments = url.substring(start + 1, query < 0 ? url.length() : query).split("/");
+
+        if (segments.length > maxPathDepth) {
+            return Reason.PATH_TOO_DEEP;
+        }
+
+        if (segments.length > maxSegmentRepeat) {
+            Map<String, Integer> counts = new HashMap<>();
+
+            for (String segment : segments) {
+                if (!segment.isEmpty() && counts.merge(segment, 1, Integer::sum) > maxSegmentRepeat) {
+                    return Reason.REPEATED_SEGMENT;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Pola url: host dan path dengan deret angka diganti '#' (segmen yang berupa id
+     * heksadesimal atau uuid menjadi satu '#'), ditambah nama parameter yang diurutkan.
+     */
+    public static String patternOf(String url) {
+        int scheme = url.indexOf("://");
+        int start = scheme < 0 ? 0 : scheme + 3;
+        int query = url.indexOf('?', start);
+        int end = query < 0 ? url.length() : query;
+        StringBuilder sb = new StringBuilder(end - start + 16);
+
+        int segmentStart = start;
+
+        while (segmentStart <= end) {
+            int slash = url.indexOf('/', segmentStart);
+            int segmentEnd = slash < 0 || slash > end ? end : slash;
+
+            appendSegment(sb, url, segmentStart, segmentEnd);
+
+            if (segmentEnd == end) {
+                break;
+            }
+
+            sb.append('/');
+            segmentStart = segmentEnd + 1;
+        }
+
+        if (query >= 0) {
+            Set<String> names = new TreeSet<>();
+
+            for (String param : url.substring(query + 1).split("&")) {
+                if (!param.isEmpty()) {
+                    names.add(nameOf(param));
+                }
+            }
+
+            sb.append('?').append(String.join("&", names));
+        }
+
+        return sb.toString();
+    }
+
+    private static void appendSegment(StringBuilder sb, String url, int start, int end) {
+        if (end - start >= 8 && isHexId(url, start, end)) {
+            sb.append('#');
+            return;
+        }
+
+        boolean digits = false;
+
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                if (!digits) {
+                    sb.append('#');
+                }
+                digits = true;
+            } else {
+                sb.append(c);
+                digits = false;
+            }
+        }
+    }
+
+    /**
+     * Hanya karakter heksadesimal dan '-', dengan minimal satu angka.
+     */
+    private static boolean isHexId(String url, int start, int end) {
+        boolean digit = false;
+
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+
+            if (c >= '0' && c <= '9') {
+                digit = true;
+            } else if (!(c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F' || c == '-')) {
+                return false;
+            }
+        }
+
+        return digit;
+    }
+
+    private static String nameOf(String param) {
+        int eq = param.indexOf('=');
+        return eq < 0 ? param : param.substring(0, eq);
+    }
+
+    /** ===== Fingerprint isi ===== */
+
+    /**
+     * Mencatat fingerprint webpage yang baru di-crawl.
+     *
+     * @param pattern patternOf(webpageUrl)
+     * @return true jika webpage near-duplicate dari webpage lain dengan pola yang sama
+     */
+    boolean observe(String webpageUrl, String pattern, List<Crawler.ExtractedLink> links) {
+        int[] weights = new int[Long.SIZE];
+        Set<String> seen = new HashSet<>();
+        int features = 0;
+
+        for (Crawler.ExtractedLink link : links) {
+            String url = normalize(link.url());
+
+            if (!seen.add(url) || patternOf(url).equals(pattern)) {
+                continue;
+            }
+
+            features++;
+            long h = FingerprintSet.fingerprint(url);
+
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                weights[bit] += (h >>> bit & 1) != 0 ? 1 : -1;
+            }
+        }
+
+        long simHash = 0;
+
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                simHash |= 1L << bit;
+            }
+        }
+
+        synchronized (this) {
+            int[] stats = patterns.get(pattern);
+
+            if (stats == null && patterns.size() < MAX_PATTERNS) {
+                stats = new int[2];
+                patterns.put(pattern, stats);
+            }
+
+            if (stats != null) {
+                stats[0]++;
+            }
+
+            if (features < MIN_LINKS) {
+                return false;
+            }
+
+            Page match = findNear(simHash, pattern);
+
+            if (match == null) {
+                insert(new Page(simHash, webpageUrl, pattern));
+                return false;
+            }
+
+            if (stats != null) {
+                stats[1]++;
+
+                if (stats[0] >= MIN_PATTERN_PAGES && stats[1] >= stats[0] * TRAP_RATIO) {
+                    trapPatterns.add(pattern);
+                }
+            }
+
+            learn(match.url, webpageUrl);
+
+            return true;
+        }
+    }
+
+    private Page findNear(long simHash, String pattern) {
+        for (int band = 0; band < 4; band++) {
+            List<Page> bucket = bands.get(bandKey(simHash, band));
+
+            if (bucket == null) {
+                continue;
+            }
+
+            for (Page page : bucket) {
+                if (Long.bitCount(page.simHash ^ simHash) <= MAX_HAMMING && page.pattern.equals(pattern)) {
+                    return page;
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void insert(Page page) {
+        if (fingerprints >= MAX_FINGERPRINTS) {
+            return;
+        }
+
+        fingerprints++;
+
+        for (int band = 0; band < 4; band++) {
+            List<Page> bucket = bands.computeIfAbsent(bandKey(page.simHash, band), k -> new ArrayList<>(2));
+
+            if (bucket.size() < MAX_BUCKET) {
+                bucket.add(page);
+            }
+        }
+    }
+
+    private static int bandKey(long simHash, int band) {
+        return band << 16 | (int) (simHash >>> band * 16) & 0xffff;
+    }
+
+    /**
+     * Dua url near-duplicate dengan path dan nama parameter yang sama, tetapi nilai satu
+     * parameternya berbeda: parameter tersebut kemungkinan tidak berpengaruh pada isi.
+     */
+    private void learn(String a, String b) {
+        int queryA = a.indexOf('?');
+        int queryB = b.indexOf('?');
+
+        if (queryA < 0 || queryA != queryB || !a.regionMatches(0, b, 0, queryA)) {
+            return;
+        }
+
+        Map<String, String> paramsA = paramsOf(a.substring(queryA + 1));
+        Map<String, String> paramsB = paramsOf(b.substring(queryB + 1));
+
+        if (!paramsA.keySet().equals(paramsB.keySet())) {
+            return;
+        }
+
+        String differing = null;
+
+        for (Map.Entry<String, String> e : paramsA.entrySet()) {
+            if (!e.getValue().equals(paramsB.get(e.getKey()))) {
+                if (differing != null) {
+                    return;
+                }
+                differing = e.getKey();
+            }
+        }
+
+        if (differing == null) {
+            return;
+        }
+
+        String host = Frontier.hostOf(a);
+
+        if (votes.merge(host + " " + differing, 1, Integer::sum) >= IGNORABLE_VOTES) {
+            ignorable.computeIfAbsent(host, h -> ConcurrentHashMap.newKeySet()).add(differing);
+        }
+    }
+
+    private static Map<String, String> paramsOf(String query) {
+        Map<String, String> params = new HashMap<>();
+
+        for (String param : query.split("&")) {
+            if (!param.isEmpty()) {
+                int eq = param.indexOf('=');
+                params.putIfAbsent(eq < 0 ? param : param.substring(0, eq), eq < 0 ? "" : param.substring(eq + 1));
+            }
+        }
+
+        return params;
+    }
+
+    private record Page(long simHash, String url, String pattern) {
+    }
+
+    private static final class SkippedCount {
+        final Reason reason;
+        final String pattern;
+        final String example;
+        long count;
+
+        SkippedCount(Reason reason, String pattern, String example) {
+            this.reason = reason;
+            this.pattern = pattern;
+            this.example = example;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.IOException;
+import java.net.Socket;
+
+/**
+ * Worker pada crawl terdistribusi, biasanya satu per proses. Worker terhubung ke
+ * CrawlCoordinator, menjalankan Crawler untuk partisi url miliknya, dan mengirim hasil
+ * (WebpageLink / BrokenLink) serta link yang ditemukan kembali ke coordinator.
+ *
+ * Frontier, himpunan url yang sudah di-fetch, HostThrottle, dan LinkChecker dimiliki
+ * worker masing-masing. Batas per host berlaku per worker, sehingga untuk N worker batas
+ * per host sebaiknya dibagi N agar total request ke satu host tetap sopan.
+ */
+public class CrawlWorker {
+
+    private static final int DEFAULT_MAX_WEBPAGE_FETCHES = 8;
+    private static final int DEFAULT_MAX_LINK_CHECKS = 64;
+    private static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 4;
+    private static final double DEFAULT_MAX_RATE_PER_HOST = 10;
+    private static final int DEFAULT_MAX_LINK_CHECKS_PER_HOST = 6;
+    private static final double DEFAULT_MAX_LINK_RATE_PER_HOST = 20;
+
+    private final String host;
+    private final int port;
+    private final int maxWebpageFetches;
+    private final int maxLinkChecks;
+    private final HostThrottle webpageThrottle;
+    private final HostThrottle linkThrottle;
+
+    private volatile long owned = 0;            // mask partisi milik worker ini
+
+    public CrawlWorker(String host, int port) {
+        this(host, port, DEFAULT_MAX_WEBPAGE_FETCHES, DEFAULT_MAX_LINK_CHECKS,
+                new HostThrottle(DEFAULT_MAX_CONCURRENT_PER_HOST, DEFAULT_MAX_RATE_PER_HOST),
+                new HostThrottle(DEFAULT_MAX_LINK_CHECKS_PER_HOST, DEFAULT_MAX_LINK_RATE_PER_HOST));
+    }
+
+    /**
+     * @param host alamat coordinator
+     * @param port port coordinator
+     */
+    public CrawlWorker(String host, int port, int maxWebpageFetches, int maxLinkChecks,
+                       HostThrottle webpageThrottle, HostThrottle linkThrottle) {
+        this.host = host;
+        this.port = port;
+        this.maxWebpageFetches = maxWebpageFetches;
+        this.maxLinkChecks = maxLinkChecks;
+        this.webpageThrottle = webpageThrottle;
+        this.linkThrottle = linkThrottle;
+    }
+
+    /**
+     * Terhubung ke coordinator dan ikut crawl sampai coordinator menyatakan crawl selesai
+     * atau koneksi ke coordinator putus.
+     */
+    public void run() throws IOException, InterruptedException {
+        try (CrawlProtocol.Connection connection = new CrawlProtocol.Connection(new Socket(host, port))) {
+
+            String[] hello = connection.receive();
+
+            if (hello == null || !hello[0].equals("S") || hello.length != 3) {
+                throw new IOException("Unexpected handshake from coordinator");
+            }
+
+            Crawler crawler = new Crawler(hello[1], maxWebpageFetches, maxLinkChecks, webpageThrottle, linkThrottle);
+            crawler.setMaxDepth(Integer.parseInt(hello[2]));
+
+            crawler.setRemote(new RemotePartition.Coordinator() {
+                @Override
+                public boolean owns(String url) {
+                    return CrawlProtocol.owns(owned, url);
+                }
+
+                @Override
+                public void discovered(Crawler.ExtractedLink link, String webpageUrl, int depth) {
+                    connection.send("L", link.url(), link.anchorText(), webpageUrl, String.valueOf(depth));
+                }
+
+                @Override
+                public void done(String url) {
+                    connection.send("D", url);
+                }
+
+                @Override
+                public void idle(long received) {
+                    connection.send("I", String.valueOf(received));
+                }
+            });
+
+            Thread crawl = Thread.ofVirtual().name("crawl-worker").start(() -> crawler.crawl(
+                    wl -> connection.send("W", wl.getUrl(), String.valueOf(wl.getStatusCode()),
+                            String.valueOf(wl.getLinkCount()), wl.getAccessTime().toString()),
+                    bl -> connection.send("B", bl.getUrl(), bl.getStatus(), bl.getAnchorText(), bl.getWebpageUrl())
+            ));
+
+            try {
+                receive(connection, crawler);
+            } finally {
+                crawler.stop();
+                crawl.join();           // hasil terakhir ikut terkirim sebelum koneksi ditutup
+            }
+        }
+    }
+
+    private void receive(CrawlProtocol.Connection connection, Crawler crawler) throws IOException, InterruptedException {
+        String[] message;
+
+        while ((message = connection.receive()) != null) {
+            switch (message[0]) {
+                case "A" -> owned = Long.parseUnsignedLong(message[1], 16);
+                case "L" -> crawler.accept(message[1], message[2], message[3], Integer.parseInt(message[4]));
+                case "X" -> {
+                    return;
+                }
+                default -> throw new IOException("Unexpected message from coordinator: " + message[0]);
+            }
+        }
+
+        // coordinator mati, tidak ada yang menerima hasil
+    }
+}
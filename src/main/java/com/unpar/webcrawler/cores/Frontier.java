@@ -1,25 +1,370 @@
 package com.unpar.webcrawler.cores;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import com.unpar.webcrawler.utils.FingerprintSet;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Antrian prioritas url webpage yang akan di crawl, dipisah per host.
+ *
+ * Setiap host memiliki antrian sendiri. next() mengambil url secara bergiliran
+ * (round-robin) dari host yang diizinkan oleh HostThrottle, sehingga satu host tidak
+ * dibanjiri request dan host yang sedang backoff tidak menahan host lain.
+ *
+ * Di dalam satu host, url dengan skor terkecil diambil lebih dulu (sama skornya: FIFO):
+ *
+ *   skor = depth * DEPTH_WEIGHT + (ada query string ? QUERY_PENALTY : 0) - log2(jumlah webpage yang menautkan)
+ *
+ * sehingga webpage dangkal dan yang banyak ditautkan didahulukan, dan url query string
+ * (filter, sort, faceted search) yang jumlahnya bisa tak terbatas dikerjakan belakangan.
+ * Jika crawl dihentikan budget, webpage yang tertinggal adalah yang paling tidak penting.
+ *
+ * Setiap url hanya masuk antrian satu kali; add() berikutnya untuk url yang masih menunggu
+ * menambah jumlah tautannya. Jumlah url di memori dibatasi; jika penuh, url berikutnya
+ * ditulis ke file segmen di disk (FrontierSpill) dan dibaca kembali (FIFO) saat antrian di
+ * memori tinggal sedikit. Prioritas hanya berlaku di antara url di memori, dan url di disk
+ * tidak menghitung tautan tambahan.
+ * Batas tersebut hanya untuk antrian: fingerprint setiap url yang pernah masuk (queued,
+ * sekitar 11-23 byte per url di heap) tetap disimpan sampai crawl selesai agar url tidak masuk
+ * dua kali, sehingga memorinya tumbuh sebanding jumlah url unik situs. Untuk situs dengan
+ * puluhan juta url, batasi crawl dengan budget (setMaxWebpages() pada Crawler).
+ * Semua method synchronized agar aman dipakai oleh banyak thread crawler.
+ */
 public class Frontier {
 
-    private final Deque<String> urls = new ArrayDeque<>();
+    private static final int DEFAULT_MAX_CONCURRENT_PER_HOST = 4;
+    private static final double DEFAULT_MAX_RATE_PER_HOST = 10;
+    private static final int DEFAULT_MAX_IN_MEMORY = 100_000;
+    private static final int DEPTH_WEIGHT = 4;              // satu tingkat depth = 16 kali lipat jumlah tautan
+    private static final int QUERY_PENALTY = 8;             // url query string diperlakukan dua tingkat lebih dalam
+    private static final int MAX_INLINK_BONUS = 6;          // tautan di atas 64 tidak menambah prioritas
+
+    private static final Comparator<Entry> BY_PRIORITY = Comparator.<Entry>comparingInt(e -> e.score).thenComparingLong(e -> e.sequence);
+
+    private final Map<String, PriorityQueue<Entry>> urls = new HashMap<>();     // antrian per host (bagian di memori)
+    private final Map<String, Entry> waiting = new HashMap<>();                 // url di memori -> entry yang berlaku
+    private final Map<String, Integer> taken = new HashMap<>();                 // url yang diambil lewat next() -> depth
+    private final Set<String> hosts = new LinkedHashSet<>();           // urutan giliran host
+    private final FingerprintSet queued;                               // url yang pernah masuk antrian, tidak dibatasi
+    private final HostThrottle throttle;
+    private final int maxInMemory;
+    private final Path spillDirectory;
+    private FrontierSpill spill;                                       // ekor antrian di disk, dibuat saat pertama dibutuhkan
+    private int size = 0;                                              // jumlah url di memori
+    private long sequence = 0;                                         // urutan masuk, untuk FIFO di antara skor yang sama
+
+    public Frontier() {
+        this(new HostThrottle(DEFAULT_MAX_CONCURRENT_PER_HOST, DEFAULT_MAX_RATE_PER_HOST));
+    }
+
+    public Frontier(HostThrottle throttle) {
+        this(throttle, DEFAULT_MAX_IN_MEMORY, null);
+    }
+
+    /**
+     * @param maxInMemory    jumlah url maksimum yang disimpan di memori
+     * @param spillDirectory direktori file segmen, null untuk direktori sementara
+     */
+    public Frontier(HostThrottle throttle, int maxInMemory, Path spillDirectory) {
+        if (maxInMemory < 1) {
+            throw new IllegalArgumentException("maxInMemory must be at least 1");
+        }
+
+        this.throttle = throttle;
+        this.maxInMemory = maxInMemory;
+        this.spillDirectory = spillDirectory;
+        this.queued = FingerprintSet.onHeap(maxInMemory);
+    }
+
+    /**
+     * Menambah url dengan depth 0 (seed).
+     *
+     * @return false jika url sudah pernah masuk antrian
+     */
+    public synchronized boolean add(String url) {
+        return add(url, 0);
+    }
+
+    /**
+     * Menambah url ke antrian. Jika url masih menunggu di memori, kemunculan ini dihitung
+     * sebagai tautan tambahan (dan depth yang lebih kecil dipakai).
+     *
+     * @param depth jumlah link dari seed sampai url ini
+     * @return false jika url sudah pernah masuk antrian
+     */
+    public synchronized boolean add(String url, int depth) {
+        if (!queued.add(url)) {
+            linkedAgain(url, depth);
+            return false;
+        }
+
+        offer(url, depth);
+
+        return true;
+    }
+
+    /**
+     * Menambah banyak url sekaligus (misalnya dari sitemap) dengan satu kali lock.
+     *
+     * @return url yang benar-benar ditambahkan, yaitu yang belum pernah masuk antrian
+     */
+    public synchronized List<String> addAll(Collection<String> urls, int depth) {
+        List<String> added = new ArrayList<>();
+
+        for (String url : urls) {
+            if (queued.add(url)) {
+                offer(url, depth);
+                added.add(url);
+            }
+        }
+
+        return added;
+    }
+
+    /**
+     * Memasukkan kembali url yang sudah pernah diambil (misalnya untuk dicoba lagi).
+     */
+    public synchronized void requeue(String url, int depth) {
+        queued.add(url);
+        offer(url, depth);
+    }
+
+    private void offer(String url, int depth) {
+        // selama masih ada ekor di disk, url baru harus di belakangnya agar urutan tetap FIFO
+        if (size < maxInMemory && (spill == null || spill.isEmpty())) {
+            addToMemory(url, depth);
+        } else {
+            spill().append(url, depth);
+        }
+    }
+
+    private void addToMemory(String url, int depth) {
+        Entry entry = new Entry(url, depth, 1, sequence++);
+        String host = hostOf(url);
+
+        this.waiting.put(url, entry);
+        this.urls.computeIfAbsent(host, h -> new PriorityQueue<>(BY_PRIORITY)).add(entry);
+        this.hosts.add(host);
+        this.size++;
+    }
+
+    /**
+     * Url yang masih menunggu ditautkan lagi. Jika skornya turun, entry baru dimasukkan
+     * dengan urutan masuk yang sama dan entry lama ditandai usang (dilewati oleh next()),
+     * karena PriorityQueue tidak dapat mengubah posisi elemen yang sudah ada.
+     */
+    private void linkedAgain(String url, int depth) {
+        Entry entry = waiting.get(url);
+
+        if (entry == null) {
+            return;                 // sudah diambil, sudah selesai, atau ada di disk
+        }
+
+        Entry updated = new Entry(url, Math.min(entry.depth, depth), entry.inlinks + 1, entry.sequence);
+
+        if (updated.score >= entry.score) {
+            entry.inlinks = updated.inlinks;
+            return;
+        }
+
+        entry.stale = true;
+        waiting.put(url, updated);
+        urls.get(hostOf(url)).add(updated);
+    }
+
+    /**
+     * Memindahkan segmen dari disk ke memori selama masih muat.
+     */
+    private void refill() {
+        while (spill != null && !spill.isEmpty() && size + spill.headCount() <= maxInMemory) {
+            spill.pollSegment(this::addToMemory);
+        }
+    }
+
+    private FrontierSpill spill() {
+        if (spill == null) {
+            try {
+                Path dir = spillDirectory;
 
-    public void add(String url) {
-        this.urls.addLast(url);
+                if (dir == null) {
+                    dir = Files.createTempDirectory("frontier-");
+                    dir.toFile().deleteOnExit();        // segmen dihapus setelah dibaca, direktori kosong dihapus saat JVM berhenti
+                }
+
+                spill = new FrontierSpill(dir, Math.max(1, maxInMemory / 4));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        return spill;
+    }
+
+    /**
+     * Mengambil url berikutnya dari host yang sedang diizinkan.
+     * Url yang dikembalikan sudah memegang slot host dan wajib diakhiri dengan done().
+     *
+     * @return url, atau null jika frontier kosong atau semua host sedang ditahan
+     */
+    public synchronized String next() {
+
+        refill();
+
+        if (size == 0) return null;
+
+        Iterator<String> it = hosts.iterator();
+
+        while (it.hasNext()) {
+            String host = it.next();
+
+            if (throttle.tryAcquire(host) != 0) {
+                continue;
+            }
+
+            it.remove();
+
+            PriorityQueue<Entry> queue = urls.get(host);
+            Entry entry = queue.poll();     // skor terkecil di host ini
+
+            while (entry.stale) {
+                entry = queue.poll();
+            }
+
+            waiting.remove(entry.url);
+            taken.put(entry.url, entry.depth);
+            size--;
+
+            dropStale(queue);
+
+            if (queue.isEmpty()) {
+                urls.remove(host);
+            } else {
+                hosts.add(host);            // pindah ke akhir giliran
+            }
+
+            return entry.url;
+        }
+
+        return null;
+    }
+
+    /**
+     * Membuang entry usang di kepala antrian, agar host tanpa url yang berlaku tidak
+     * tersisa di giliran.
+     */
+    private static void dropStale(PriorityQueue<Entry> queue) {
+        while (!queue.isEmpty() && queue.peek().stale) {
+            queue.poll();
+        }
+    }
+
+    /**
+     * Depth url yang sudah diambil lewat next() dan belum diakhiri dengan done() / cancel().
+     */
+    public synchronized int depthOf(String url) {
+        return taken.getOrDefault(url, 0);
+    }
+
+    /**
+     * Lama waktu (nanodetik) sampai salah satu host kembali diizinkan,
+     * atau HostThrottle.NOT_READY jika harus menunggu request lain selesai.
+     */
+    public synchronized long nanosUntilReady() {
+        refill();
+
+        long min = HostThrottle.NOT_READY;
+
+        for (String host : hosts) {
+            long wait = throttle.nanosUntilAvailable(host);
+
+            if (wait == 0) {
+                return 0;
+            }
+
+            min = Math.min(min, wait);
+        }
+
+        return min;
     }
 
-    public String next() {
+    /**
+     * Melepas slot host dari url yang diambil lewat next().
+     *
+     * @param statusCode status code respon (0 jika request gagal)
+     * @param retryAfter nilai header Retry-After, boleh null
+     */
+    public void done(String url, int statusCode, String retryAfter) {
+        synchronized (this) {
+            taken.remove(url);
+        }
+
+        throttle.release(hostOf(url), statusCode, retryAfter);
+    }
 
-        if (urls.isEmpty()) return null;
+    /**
+     * Melepas slot host dari url yang diambil lewat next() tetapi tidak jadi di-request.
+     */
+    public void cancel(String url) {
+        synchronized (this) {
+            taken.remove(url);
+        }
+
+        throttle.cancel(hostOf(url));
+    }
 
-        return this.urls.pollFirst(); // FIFO
+    public synchronized boolean isEmpty() {
+        return size == 0 && (spill == null || spill.isEmpty());
     }
 
+    /**
+     * Jumlah url yang menunggu di antrian, di memori maupun di disk.
+     */
+    public synchronized long size() {
+        return size + (spill == null ? 0 : spill.size());
+    }
+
+    /**
+     * Satu url di antrian memori. Skor dihitung sekali saat entry dibuat.
+     */
+    private static final class Entry {
+        final String url;
+        final int depth;
+        final long sequence;
+        final int score;
+        int inlinks;
+        boolean stale = false;              // sudah digantikan entry dengan skor lebih kecil
+
+        Entry(String url, int depth, int inlinks, long sequence) {
+            this.url = url;
+            this.depth = depth;
+            this.inlinks = inlinks;
+            this.sequence = sequence;
+            this.score = depth * DEPTH_WEIGHT
+                    + (url.indexOf('?') >= 0 ? QUERY_PENALTY : 0)
+                    - Math.min(MAX_INLINK_BONUS, 31 - Integer.numberOfLeadingZeros(inlinks));
+        }
+    }
 
-    public boolean isEmpty() {
-        return urls.isEmpty();
+    static String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host == null ? "" : host.toLowerCase();
+        } catch (Exception e) {
+            return "";
+        }
     }
 }
@@ -0,0 +1,155 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Ekor antrian Frontier yang disimpan di disk sebagai file segmen berurutan (FIFO).
+ *
+ * Url ditulis secara sekuensial lewat FileChannel dengan buffer, satu record berupa
+ * [depth int][panjang int][byte UTF-8]. Segmen yang sudah penuh ditutup, lalu saat dibutuhkan
+ * dibaca sekaligus melalui memory-map dan langsung dihapus.
+ * Class ini tidak thread-safe; dipanggil dari dalam method Frontier yang synchronized.
+ */
+class FrontierSpill {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentRecords;                           // jumlah url maksimum per segmen
+    private final Deque<Segment> segments = new ArrayDeque<>(); // segmen terurut, yang terakhir sedang ditulis
+    private final ByteBuffer writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+    private FileChannel writing;                                // channel segmen terakhir, null jika sudah ditutup
+    private long size = 0;
+    private int sequence = 0;
+
+    FrontierSpill(Path directory, int segmentRecords) {
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Jumlah url di segmen paling depan (yang akan dibaca berikutnya).
+     */
+    int headCount() {
+        return segments.isEmpty() ? 0 : segments.peekFirst().count;
+    }
+
+    void append(String url, int depth) {
+        try {
+            if (writing == null || segments.peekLast().count >= segmentRecords) {
+                openSegment();
+            }
+
+            byte[] bytes = url.getBytes(StandardCharsets.UTF_8);
+
+            int recordSize = 2 * Integer.BYTES + bytes.length;
+
+            if (writeBuffer.remaining() < recordSize) {
+                flush();
+            }
+
+            if (writeBuffer.remaining() < recordSize) {
+                // url lebih besar dari buffer, tulis langsung
+                ByteBuffer big = ByteBuffer.allocate(recordSize).putInt(depth).putInt(bytes.length).put(bytes).flip();
+                while (big.hasRemaining()) writing.write(big);
+            } else {
+                writeBuffer.putInt(depth).putInt(bytes.length).put(bytes);
+            }
+
+            segments.peekLast().count++;
+            size++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Membaca dan menghapus segmen paling depan, setiap url beserta depth-nya diberikan
+     * ke consumer sesuai urutan ditulis.
+     */
+    void pollSegment(ObjIntConsumer<String> consumer) {
+        Segment segment = segments.pollFirst();
+
+        if (segment == null) {
+            return;
+        }
+
+        try {
+            if (segments.isEmpty() && writing != null) {
+                closeWriting();     // segmen yang sedang ditulis ikut dibaca
+            }
+
+            try (FileChannel channel = FileChannel.open(segment.path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+                while (buffer.remaining() >= 2 * Integer.BYTES) {
+                    int depth = buffer.getInt();
+                    byte[] bytes = new byte[buffer.getInt()];
+                    buffer.get(bytes);
+                    consumer.accept(new String(bytes, StandardCharsets.UTF_8), depth);
+                }
+            }
+
+            Files.deleteIfExists(segment.path);
+            size -= segment.count;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        if (writing != null) {
+            closeWriting();
+        }
+
+        Files.createDirectories(directory);
+
+        Path path = directory.resolve(String.format("segment-%08d.bin", sequence++));
+        writing = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        segments.addLast(new Segment(path));
+    }
+
+    private void closeWriting() throws IOException {
+        flush();
+        writing.close();
+        writing = null;
+    }
+
+    private void flush() throws IOException {
+        writeBuffer.flip();
+
+        while (writeBuffer.hasRemaining()) {
+            writing.write(writeBuffer);
+        }
+
+        writeBuffer.clear();
+    }
+
+    private static final class Segment {
+        final Path path;
+        int count = 0;
+
+        Segment(Path path) {
+            this.path = path;
+        }
+    }
+}
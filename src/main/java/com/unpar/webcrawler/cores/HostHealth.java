@@ -0,0 +1,291 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.http.HttpTimeoutException;
+import java.nio.channels.UnresolvedAddressException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Kesehatan setiap host: timeout adaptif dan circuit breaker.
+ *
+ * Timeout adaptif: latency respon setiap host dihaluskan seperti RTO pada TCP
+ * (srtt + 4 * rttvar). Begitu host yang sudah dikenal (minimal MIN_SAMPLES respon) mulai
+ * gagal, timeout-nya menjadi TIMEOUT_FACTOR kali nilai itu, dibatasi antara MIN_TIMEOUT dan
+ * maxTimeout, sehingga host yang tiba-tiba mati cepat mencapai ambang breaker. Selama host
+ * sehat, url yang lambat tetap mendapat maxTimeout. Host yang belum dikenal memakai maxTimeout.
+ *
+ * Circuit breaker: setelah failureThreshold kegagalan koneksi / timeout berturut-turut,
+ * breaker terbuka dan request ke host tersebut langsung ditolak (CircuitOpenException)
+ * tanpa menunggu timeout. Setelah openDuration, satu request dibiarkan lewat sebagai
+ * percobaan (half-open): jika host menjawab breaker tertutup kembali, jika gagal breaker
+ * terbuka lagi dengan durasi dua kali lipat (maksimal MAX_OPEN_DURATION). Percobaan yang
+ * tidak pernah mencatat hasil (misalnya dibatalkan) kedaluwarsa setelah PROBE_TIMEOUT_FACTOR
+ * kali maxTimeout, lalu request berikutnya menjadi percobaan baru.
+ *
+ * Kegagalan request yang selama berjalan sempat melihat respon lain dari host yang sama
+ * tidak dihitung: host jelas hidup, hanya url itu yang lambat.
+ *
+ * Respon HTTP apa pun (termasuk 4xx/5xx) berarti host hidup. Error lain seperti SSL atau
+ * koneksi yang ditutup server juga menandakan host dapat dijangkau, sehingga tidak dihitung
+ * sebagai kegagalan.
+ *
+ * Crawl yang memeriksa link ke banyak domain dapat menyentuh ratusan ribu host. Di atas
+ * MAX_HOSTS, host yang paling lama tidak dipakai dilupakan (LRU), kecuali host yang
+ * breaker-nya masih menolak request. Host yang dilupakan kembali memakai maxTimeout.
+ */
+public class HostHealth {
+
+    public static final String CIRCUIT_OPEN = CircuitOpenException.class.getSimpleName();     // reason link yang tidak di-request
+
+    private static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    private static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+    private static final long MAX_OPEN_DURATION = Duration.ofMinutes(10).toNanos();
+    private static final long MIN_TIMEOUT = Duration.ofSeconds(2).toNanos();
+    private static final int MIN_SAMPLES = 8;                  // respon minimal sebelum timeout diturunkan
+    private static final int TIMEOUT_FACTOR = 4;
+    private static final int MAX_HOSTS = 10_000;               // host yang disimpan sebelum host terlama dilupakan
+    private static final int PROBE_TIMEOUT_FACTOR = 2;         // batas percobaan half-open, kali maxTimeout
+
+    private final long maxTimeout;
+    private final int failureThreshold;
+    private final long openDuration;
+    private final Map<String, HostState> hosts = new LinkedHashMap<>(256, 0.75f, true) {      // LRU
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HostState> eldest) {
+            if (size() <= MAX_HOSTS) {
+                return false;
+            }
+
+            // host yang breaker-nya masih menolak request dilewati
+            long now = System.nanoTime();
+            Iterator<HostState> it = values().iterator();
+
+            while (it.hasNext()) {
+                if (isIdle(it.next(), now)) {
+                    it.remove();
+                    break;
+                }
+            }
+
+            return false;
+        }
+    };
+
+    public HostHealth(Duration maxTimeout) {
+        this(maxTimeout, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION);
+    }
+
+    /**
+     * @param maxTimeout       timeout untuk host yang belum dikenal, sekaligus batas atas timeout adaptif
+     * @param failureThreshold jumlah kegagalan berturut-turut sebelum breaker terbuka
+     * @param openDuration     lama breaker terbuka sebelum percobaan pertama
+     */
+    public HostHealth(Duration maxTimeout, int failureThreshold, Duration openDuration) {
+        if (maxTimeout.isNegative() || maxTimeout.isZero() || failureThreshold < 1 || openDuration.isNegative()) {
+            throw new IllegalArgumentException("Invalid host health configuration");
+        }
+
+        this.maxTimeout = maxTimeout.toNanos();
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration.toNanos();
+    }
+
+    /**
+     * Menentukan apakah request ke host boleh dikirim. Jika breaker terbuka dan sudah
+     * waktunya, request ini menjadi percobaan half-open dan request lain tetap ditolak
+     * sampai hasilnya dicatat.
+     *
+     * @return false jika request harus ditolak tanpa dikirim
+     */
+    public synchronized boolean tryAcquire(String host) {
+        HostState state = hosts.get(host);
+
+        if (state == null || state.circuit == Circuit.CLOSED) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+
+        // percobaan pertama setelah openDuration, atau pengganti percobaan yang hasilnya tidak pernah dicatat
+        if (state.circuit == Circuit.OPEN && now - state.openUntil >= 0
+                || state.circuit == Circuit.HALF_OPEN && now - state.probeUntil >= 0) {
+            state.circuit = Circuit.HALF_OPEN;
+            state.probeUntil = now + maxTimeout * PROBE_TIMEOUT_FACTOR;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Timeout request untuk host: dari latency yang pernah diamati jika host sedang gagal,
+     * maxTimeout jika tidak.
+     */
+    public synchronized Duration timeout(String host) {
+        HostState state = hosts.get(host);
+
+        if (state == null || state.samples < MIN_SAMPLES || state.failures == 0) {
+            return Duration.ofNanos(maxTimeout);
+        }
+
+        long rto = (state.srtt + 4 * state.rttvar) * TIMEOUT_FACTOR;
+
+        return Duration.ofNanos(Math.min(maxTimeout, Math.max(Math.min(MIN_TIMEOUT, maxTimeout), rto)));
+    }
+
+    /**
+     * Mencatat respon HTTP dari host.
+     *
+     * @param latencyNanos waktu dari request dikirim sampai header diterima
+     */
+    public synchronized void succeeded(String host, long latencyNanos) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+
+        if (state.samples == 0) {
+            state.srtt = latencyNanos;
+            state.rttvar = latencyNanos / 2;
+        } else {
+            // RFC 6298: alpha = 1/8, beta = 1/4
+            state.rttvar += (Math.abs(state.srtt - latencyNanos) - state.rttvar) / 4;
+            state.srtt += (latencyNanos - state.srtt) / 8;
+        }
+
+        state.samples++;
+        state.lastSuccess = System.nanoTime();
+        close(state);
+    }
+
+    /**
+     * Mencatat request yang gagal tanpa respon HTTP. Hanya kegagalan koneksi dan timeout
+     * (isHostFailure) yang dihitung untuk breaker; error lain berarti host dapat dijangkau.
+     *
+     * @param startedAt waktu request dikirim (System.nanoTime())
+     */
+    public synchronized Failure failed(String host, Throwable error, long startedAt) {
+        HostState state = hosts.computeIfAbsent(host, h -> new HostState());
+
+        if (!isHostFailure(error)) {
+            close(state);
+            return Failure.NOT_COUNTED;
+        }
+
+        // host menjawab request lain selama request ini berjalan
+        if (state.samples > 0 && state.lastSuccess - startedAt > 0) {
+            return Failure.NOT_COUNTED;
+        }
+
+        state.failures++;
+
+        if (state.circuit == Circuit.HALF_OPEN) {
+            // percobaan gagal, buka lagi lebih lama
+            state.openLevel++;
+            open(state);
+            return Failure.OPENED;
+        }
+
+        if (state.circuit == Circuit.CLOSED && state.failures >= failureThreshold) {
+            open(state);
+            return Failure.OPENED;
+        }
+
+        return Failure.COUNTED;
+    }
+
+    private void open(HostState state) {
+        long duration = Math.min(MAX_OPEN_DURATION, openDuration << Math.min(state.openLevel, 16));
+
+        state.circuit = Circuit.OPEN;
+        state.openUntil = System.nanoTime() + duration;
+    }
+
+    /**
+     * Host yang aman dilupakan: breaker tertutup, terbuka dan sudah waktunya dicoba lagi,
+     * atau percobaan half-open-nya sudah kedaluwarsa.
+     */
+    private static boolean isIdle(HostState state, long now) {
+        return state.circuit == Circuit.CLOSED
+                || (state.circuit == Circuit.OPEN && now - state.openUntil >= 0)
+                || (state.circuit == Circuit.HALF_OPEN && now - state.probeUntil >= 0);
+    }
+
+    private static void close(HostState state) {
+        state.failures = 0;
+        state.openLevel = 0;
+        state.circuit = Circuit.CLOSED;
+    }
+
+    public synchronized boolean isOpen(String host) {
+        HostState state = hosts.get(host);
+
+        return state != null && state.circuit != Circuit.CLOSED;
+    }
+
+    /**
+     * Kegagalan yang menandakan host tidak dapat dijangkau: koneksi ditolak, host tidak
+     * ditemukan, tidak ada rute, connect timeout, atau tidak ada respon sampai timeout.
+     */
+    public static boolean isHostFailure(Throwable e) {
+        return hasCause(e, HttpTimeoutException.class, ConnectException.class,
+                NoRouteToHostException.class, UnresolvedAddressException.class);
+    }
+
+    /**
+     * Request atau koneksi tidak selesai dalam batas timeout.
+     */
+    public static boolean isTimeout(Throwable e) {
+        return hasCause(e, HttpTimeoutException.class);
+    }
+
+    @SafeVarargs
+    private static boolean hasCause(Throwable e, Class<? extends Throwable>... types) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            for (Class<? extends Throwable> type : types) {
+                if (type.isInstance(cause)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public Duration getMaxTimeout() {
+        return Duration.ofNanos(maxTimeout);
+    }
+
+    /**
+     * Request yang ditolak karena breaker host-nya terbuka.
+     */
+    public static class CircuitOpenException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public CircuitOpenException(String host) {
+            super("Circuit open for " + host);
+        }
+    }
+
+    public enum Failure {
+        NOT_COUNTED,        // host dapat dijangkau, atau sempat menjawab request lain
+        COUNTED,            // dihitung untuk breaker
+        OPENED              // kegagalan ini membuka breaker; request lain ke host tersebut sebaiknya dibatalkan
+    }
+
+    private enum Circuit {CLOSED, OPEN, HALF_OPEN}
+
+    private static final class HostState {
+        Circuit circuit = Circuit.CLOSED;
+        int failures = 0;           // kegagalan berturut-turut
+        int openLevel = 0;          // percobaan half-open yang gagal berturut-turut
+        long openUntil;
+        long probeUntil;            // batas percobaan half-open yang sedang berjalan
+        long lastSuccess;           // waktu respon berhasil terakhir
+        long srtt;                  // nanodetik
+        long rttvar;
+        int samples = 0;
+    }
+}
@@ -0,0 +1,261 @@
+package com.unpar.webcrawler.cores;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pengatur kesopanan (politeness) request per host.
+ *
+ * Setiap host memiliki:
+ * - batas jumlah request yang berjalan bersamaan
+ * - token bucket untuk membatasi laju request per detik
+ * - backoff adaptif: laju diturunkan setengahnya dan host ditahan sementara ketika
+ *   server membalas 429/503 atau mengirim header Retry-After, lalu laju dinaikkan
+ *   kembali sedikit demi sedikit setiap kali request berhasil (AIMD)
+ * - Crawl-delay dari robots.txt (setCrawlDelay()): satu request bersamaan dan laju
+ *   maksimum 1 / delay untuk host tersebut
+ *
+ * Throttle cek link menyentuh setiap host eksternal. Di atas MAX_HOSTS, host yang paling
+ * lama tidak dipakai dilupakan (LRU), kecuali host yang masih punya request berjalan,
+ * masih ditahan backoff atau Retry-After, lajunya belum pulih, atau memiliki Crawl-delay.
+ */
+public class HostThrottle {
+
+    public static final long NOT_READY = Long.MAX_VALUE;       // host penuh, tunggu sampai ada request yang selesai
+
+    private static final long INITIAL_BACKOFF = Duration.ofSeconds(1).toNanos();
+    private static final long MAX_BACKOFF = Duration.ofMinutes(2).toNanos();
+    private static final double MIN_RATE = 0.1;                // minimal 1 request per 10 detik
+    private static final int MAX_HOSTS = 10_000;               // host yang disimpan sebelum host terlama dilupakan
+
+    private final int maxConcurrentPerHost;
+    private final double maxRatePerSecond;
+    private final Map<String, HostState> hosts = new LinkedHashMap<>(256, 0.75f, true) {      // LRU
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, HostState> eldest) {
+            if (size() <= MAX_HOSTS) {
+                return false;
+            }
+
+            // host yang masih dibatasi dilewati
+            long now = System.nanoTime();
+            Iterator<HostState> it = values().iterator();
+
+            while (it.hasNext()) {
+                if (isIdle(it.next(), now)) {
+                    it.remove();
+                    break;
+                }
+            }
+
+            return false;
+        }
+    };
+
+    public HostThrottle(int maxConcurrentPerHost, double maxRatePerSecond) {
+        if (maxConcurrentPerHost < 1 || maxRatePerSecond <= 0) {
+            throw new IllegalArgumentException("Host limit must be positive");
+        }
+
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.maxRatePerSecond = maxRatePerSecond;
+    }
+
+    /**
+     * Mencoba mengambil slot request untuk host.
+     *
+     * @return 0 jika slot didapat, jumlah nanodetik yang harus ditunggu jika token atau
+     *         backoff belum tersedia, atau NOT_READY jika batas request bersamaan tercapai
+     */
+    public synchronized long tryAcquire(String host) {
+        long now = System.nanoTime();
+        HostState state = stateOf(host, now);
+        long wait = nanosUntilAvailable(state, now);
+
+        if (wait == 0) {
+            state.tokens -= 1;
+            state.inFlight++;
+        }
+
+        return wait;
+    }
+
+    /**
+     * Sama seperti tryAcquire() tetapi tanpa mengambil slot.
+     */
+    public synchronized long nanosUntilAvailable(String host) {
+        HostState state = hosts.get(host);
+
+        return state == null ? 0 : nanosUntilAvailable(state, System.nanoTime());
+    }
+
+    private HostState stateOf(String host, long now) {
+        return hosts.computeIfAbsent(host, h -> new HostState(maxConcurrentPerHost, maxRatePerSecond, now));
+    }
+
+    /**
+     * Menerapkan Crawl-delay host: request berikutnya baru diizinkan delay setelah request
+     * sebelumnya, dan hanya satu request berjalan bersamaan. Batas yang lebih ketat dari
+     * pengaturan host tetap dipakai; delay dibatasi maksimum 2 menit.
+     */
+    public synchronized void setCrawlDelay(String host, Duration delay) {
+        if (delay == null || delay.isZero() || delay.isNegative()) {
+            return;
+        }
+
+        long nanos = Math.min(delay.toNanos(), MAX_BACKOFF);
+        HostState state = stateOf(host, System.nanoTime());
+
+        state.maxConcurrent = 1;
+        state.maxRate = Math.min(state.maxRate, 1_000_000_000.0 / nanos);
+        state.rate = Math.min(state.rate, state.maxRate);
+        state.tokens = Math.min(state.tokens, 1);
+    }
+
+    /**
+     * Host yang aman dilupakan: host baru dengan nama yang sama akan mendapat state yang setara.
+     */
+    private boolean isIdle(HostState state, long now) {
+        return state.inFlight == 0
+                && now - state.blockedUntil >= 0
+                && state.rate >= state.maxRate
+                && state.maxRate >= maxRatePerSecond
+                && state.maxConcurrent == maxConcurrentPerHost;
+    }
+
+    private long nanosUntilAvailable(HostState state, long now) {
+        if (state.inFlight >= state.maxConcurrent) {
+            return NOT_READY;
+        }
+
+        if (now - state.blockedUntil < 0) {
+            return state.blockedUntil - now;
+        }
+
+        state.refill(now);
+
+        if (state.tokens < 1) {
+            return Math.max(1, (long) ((1 - state.tokens) / state.rate * 1_000_000_000L));
+        }
+
+        return 0;
+    }
+
+    /**
+     * Mengembalikan slot request dan menyesuaikan laju host berdasarkan respon server.
+     *
+     * @param statusCode status code respon (0 jika request gagal)
+     * @param retryAfter nilai header Retry-After, boleh null
+     */
+    public synchronized void release(String host, int statusCode, String retryAfter) {
+        HostState state = hosts.get(host);
+
+        if (state == null) {
+            return;
+        }
+
+        state.inFlight = Math.max(0, state.inFlight - 1);
+
+        long now = System.nanoTime();
+        Duration serverDelay = parseRetryAfter(retryAfter);
+
+        if (isThrottled(statusCode) || serverDelay != null) {
+            // multiplicative decrease
+            state.refill(now);
+            state.rate = Math.max(Math.min(MIN_RATE, state.maxRate), state.rate / 2);
+            state.tokens = Math.min(state.tokens, 0);
+
+            long delay = serverDelay != null
+                    ? serverDelay.toNanos()
+                    : Math.min(MAX_BACKOFF, INITIAL_BACKOFF << Math.min(state.backoffLevel, 16));
+
+            if (now + delay - state.blockedUntil > 0) {
+                state.blockedUntil = now + delay;
+            }
+            state.backoffLevel++;
+        } else if (statusCode > 0) {
+            // additive increase
+            state.refill(now);
+            state.rate = Math.min(state.maxRate, state.rate + state.maxRate / 20);
+            state.backoffLevel = 0;
+        }
+    }
+
+    /**
+     * Membatalkan slot yang sudah diambil tanpa request yang terkirim (token dikembalikan).
+     */
+    public synchronized void cancel(String host) {
+        HostState state = hosts.get(host);
+
+        if (state == null) {
+            return;
+        }
+
+        state.inFlight = Math.max(0, state.inFlight - 1);
+        state.tokens += 1;
+    }
+
+    public static boolean isThrottled(int statusCode) {
+        return statusCode == 429 || statusCode == 503;
+    }
+
+    /**
+     * Header Retry-After bisa berupa jumlah detik atau HTTP-date (RFC 9110).
+     */
+    static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+
+        value = value.trim();
+
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? null : Duration.ofSeconds(Math.min(seconds, MAX_BACKOFF / 1_000_000_000L));
+        } catch (NumberFormatException ignored) {
+            // bukan angka, coba sebagai HTTP-date
+        }
+
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration delay = Duration.between(ZonedDateTime.now(date.getZone()), date);
+
+            if (delay.isNegative()) {
+                return Duration.ZERO;
+            }
+
+            return delay.toNanos() > MAX_BACKOFF ? Duration.ofNanos(MAX_BACKOFF) : delay;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static final class HostState {
+        int inFlight = 0;
+        int maxConcurrent;
+        double maxRate;             // batas atas rate, bisa lebih rendah dari maxRatePerSecond karena Crawl-delay
+        double rate;                // token per detik
+        double tokens = 1;          // boleh langsung 1 request
+        long lastRefill;
+        long blockedUntil;
+        int backoffLevel = 0;
+
+        HostState(int maxConcurrent, double rate, long now) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxRate = rate;
+            this.rate = rate;
+            this.lastRefill = now;
+            this.blockedUntil = now;
+        }
+
+        void refill(long now) {
+            double elapsed = (now - lastRefill) / 1_000_000_000.0;
+            tokens = Math.min(Math.max(1, rate), tokens + elapsed * rate);   // kapasitas bucket = 1 detik
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Lapisan HTTP bersama untuk fetch webpage dan cek link.
+ *
+ * Semua request memakai satu HttpClient, sehingga koneksi ke host yang sama dipakai ulang
+ * oleh fetch webpage maupun cek link. Url https meminta HTTP/2 (dinegosiasikan lewat ALPN,
+ * turun ke HTTP/1.1 jika server tidak mendukung); url http tetap HTTP/1.1 agar tidak
+ * mengirim header upgrade h2c yang ditolak sebagian server.
+ *
+ * Body webpage diminta terkompresi (gzip/deflate) dan di-decode saat dibaca. Brotli
+ * tidak diminta karena JDK tidak punya decoder-nya.
+ *
+ * Redirect diikuti sendiri (bukan oleh HttpClient) dengan aturan yang sama seperti
+ * HttpClient.Redirect.NORMAL: maksimal 5 hop dan tidak turun dari https ke http.
+ * Dengan begitu setiap hop terlihat oleh pemanggil, misalnya untuk cache hop di LinkChecker.
+ */
+public class HttpFetcher {
+
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    private static final String ACCEPT_HTML = "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8";
+    static final int MAX_REDIRECTS = 5;                     // sama dengan batas bawaan HttpClient
+
+    private static final long MAX_DRAINED_BODY = 16 * 1024;  // body sekecil ini dibaca habis agar koneksi tetap dipakai ulang
+
+    /**
+     * Body handler untuk request yang hanya butuh header. Body kecil dengan Content-Length
+     * dibaca dan dibuang agar koneksi HTTP/1.1 tetap bisa dipakai ulang; body lain dibatalkan
+     * segera setelah header diterima (HTTP/1.1: koneksi ditutup, HTTP/2: stream di-reset).
+     */
+    static final HttpResponse.BodyHandler<Void> HEADERS_ONLY = info -> {
+        long length = info.headers().firstValueAsLong("Content-Length").orElse(-1);
+
+        return length >= 0 && length <= MAX_DRAINED_BODY
+                ? HttpResponse.BodySubscribers.discarding()
+                : new CancellingSubscriber();
+    };
+
+    private static class CancellingSubscriber implements HttpResponse.BodySubscriber<Void> {
+        @Override
+        public CompletionStage<Void> getBody() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.cancel();
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final String userAgent;
+    private final Duration timeout;
+
+    public HttpFetcher(String userAgent, Duration timeout) {
+        this.userAgent = userAgent;
+        this.timeout = timeout;
+        this.httpClient = HttpClient
+                .newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)     // redirect diikuti sendiri, lihat redirectTarget()
+                .connectTimeout(timeout)                        // mengatur koneksi ke server
+                .version(HttpClient.Version.HTTP_2)
+                .build();
+    }
+
+    /**
+     * Request dengan user agent, timeout, dan versi HTTP sesuai scheme url.
+     */
+    HttpRequest.Builder newRequest(String url) {
+        URI uri = URI.create(url);
+
+        return HttpRequest
+                .newBuilder(uri)
+                .header("User-Agent", userAgent)
+                .timeout(timeout)
+                .version("https".equalsIgnoreCase(uri.getScheme()) ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1);
+    }
+
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> handler) {
+        return httpClient.sendAsync(request, handler);
+    }
+
+    /**
+     * Tujuan redirect dari respon.
+     *
+     * @return url tujuan, atau null jika respon bukan redirect, tidak punya Location,
+     *         atau redirect turun dari https ke http (tidak diikuti, sama seperti NORMAL)
+     */
+    static URI redirectTarget(URI from, HttpResponse<?> res) {
+        int status = res.statusCode();
+
+        if (status != 301 && status != 302 && status != 303 && status != 307 && status != 308) {
+            return null;
+        }
+
+        String location = res.headers().firstValue("Location").orElse(null);
+
+        if (location == null) {
+            return null;
+        }
+
+        try {
+            URI target = from.resolve(location.trim());
+
+            if ("https".equalsIgnoreCase(from.getScheme()) && "http".equalsIgnoreCase(target.getScheme())) {
+                return null;
+            }
+
+            return target.getScheme() == null || target.getHost() == null ? null : target;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Koneksi keep-alive ditutup server saat dipakai ulang (IOException polos dari HttpClient,
+     * misalnya "header parser received no bytes"), bukan timeout, connect, atau SSL error.
+     * Request GET/HEAD yang gagal karena ini aman untuk dikirim ulang.
+     */
+    static boolean isConnectionClosed(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+        return cause.getClass() == IOException.class;
+    }
+
+    /**
+     * Mengambil webpage dengan GET. Method ini menunggu sampai header diterima; body dibaca
+     * dari Page.body(), sudah di-decode dan dipotong pada maxBodySize byte. Jika body belum
+     * selesai dibaca dalam batas timeout, stream ditutup sehingga pembacaan gagal.
+     */
+    public Page fetchPage(String url, int maxBodySize) throws IOException, InterruptedException {
+        return fetchPage(url, maxBodySize, null, null);
+    }
+
+    /**
+     * GET bersyarat: validator dari fetch sebelumnya dikirim sebagai If-None-Match dan
+     * If-Modified-Since (yang null tidak dikirim), hanya untuk url itu sendiri dan tidak
+     * untuk tujuan redirect-nya. Jika webpage tidak berubah, server menjawab 304 tanpa body.
+     */
+    public Page fetchPage(String url, int maxBodySize, String etag, String lastModified) throws IOException, InterruptedException {
+        String current = url;
+        HttpResponse<InputStream> res;
+
+        for (int hop = 0; ; hop++) {
+            // validator milik url awal, tujuan redirect di-fetch dengan GET biasa
+            res = hop == 0 ? sendPage(current, etag, lastModified) : sendPage(current, null, null);
+
+            URI target = redirectTarget(res.uri(), res);
+
+            if (target == null) {
+                break;
+            }
+
+            res.body().close();
+
+            if (hop == MAX_REDIRECTS) {
+                throw new IOException("Too many redirects");
+            }
+
+            current = target.toString();
+        }
+
+        InputStream raw = res.body();
+
+        // batas waktu membaca body (timeout request hanya berlaku sampai header diterima),
+        // dibatalkan saat body ditutup agar timer tidak menahan stream sampai timeout
+        CompletableFuture<Void> deadline = new CompletableFuture<Void>()
+                .completeOnTimeout(null, timeout.toMillis(), TimeUnit.MILLISECONDS);
+        deadline.thenRun(() -> closeQuietly(raw));
+
+        InputStream decoded;
+
+        try {
+            decoded = decode(raw, res.headers().firstValue("Content-Encoding").orElse(""));
+        } catch (IOException | RuntimeException e) {
+            deadline.cancel(false);
+            closeQuietly(raw);
+            throw e;
+        }
+
+        return new Page(res.statusCode(), res.uri().toString(), res.headers(),
+                new BufferedInputStream(new LimitedInputStream(new DeadlineInputStream(decoded, deadline), maxBodySize)));
+    }
+
+    private HttpResponse<InputStream> sendPage(String url, String etag, String lastModified) throws IOException, InterruptedException {
+        HttpRequest.Builder builder = newRequest(url)
+                .header("Accept", ACCEPT_HTML)
+                .header("Accept-Encoding", ACCEPT_ENCODING)
+                .GET();
+
+        if (etag != null) {
+            builder.header("If-None-Match", etag);
+        }
+
+        if (lastModified != null) {
+            builder.header("If-Modified-Since", lastModified);
+        }
+
+        HttpRequest request = builder.build();
+
+        try {
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (IOException e) {
+            if (!isConnectionClosed(e)) {
+                throw e;
+            }
+
+            return httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());     // coba sekali lagi dengan koneksi baru
+        }
+    }
+
+    private static InputStream decode(InputStream in, String contentEncoding) throws IOException {
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+
+        if (!gzip && !encoding.equals("deflate")) {
+            return in;
+        }
+
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int b0 = buffered.read();
+        int b1 = buffered.read();
+        buffered.reset();
+
+        // body kosong (misalnya 204 atau 304 dengan Content-Encoding) tidak punya header gzip/zlib
+        if (b0 < 0) {
+            return buffered;
+        }
+
+        if (gzip) {
+            return new GZIPInputStream(buffered);
+        }
+
+        // "deflate" seharusnya zlib, tetapi sebagian server mengirim deflate mentah
+        boolean zlib = b1 >= 0 && (b0 & 0x0F) == 8 && ((b0 << 8) | b1) % 31 == 0;
+
+        return new InflaterInputStream(buffered, new Inflater(!zlib));
+    }
+
+    private static void closeQuietly(Closeable c) {
+        try {
+            c.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Respon webpage. Body harus ditutup (try-with-resources) agar koneksi dapat dipakai ulang.
+     */
+    public record Page(int statusCode, String url, HttpHeaders headers, BufferedInputStream body) implements Closeable {
+
+        public String header(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+
+        public String contentType() {
+            return header("Content-Type");
+        }
+
+        /**
+         * Charset dari header Content-Type, null jika tidak ada.
+         */
+        public String charset() {
+            String contentType = contentType();
+
+            if (contentType == null) {
+                return null;
+            }
+
+            for (String param : contentType.split(";")) {
+                String p = param.trim();
+
+                if (p.regionMatches(true, 0, "charset=", 0, 8)) {
+                    return p.substring(8).replace("\"", "").replace("'", "").trim();
+                }
+            }
+
+            return null;
+        }
+
+        @Override
+        public void close() {
+            closeQuietly(body);
+        }
+    }
+
+    /**
+     * Membatalkan batas waktu membaca body saat stream ditutup.
+     */
+    private static class DeadlineInputStream extends FilterInputStream {
+        private final CompletableFuture<Void> deadline;
+
+        DeadlineInputStream(InputStream in, CompletableFuture<Void> deadline) {
+            super(in);
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deadline.cancel(false);
+            super.close();
+        }
+    }
+
+    /**
+     * Mengakhiri stream setelah limit byte, seperti maxBodySize pada Jsoup. Batas dihitung
+     * setelah decode agar body terkompresi tidak bisa mengembang tanpa batas.
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int b = super.read();
+
+            if (b >= 0) {
+                remaining--;
+            }
+
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+
+            if (n > 0) {
+                remaining -= n;
+            }
+
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
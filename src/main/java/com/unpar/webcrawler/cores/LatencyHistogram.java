@@ -0,0 +1,104 @@
+package com.unpar.webcrawler.cores;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latency dengan bucket log-linear dalam mikrodetik: setiap pangkat dua dibagi
+ * menjadi 4 bucket, sehingga error percentile paling besar sekitar 12%. Rentang 1 us
+ * sampai ~71 menit cukup dengan 128 bucket (1 KB). Aman dipakai banyak thread tanpa lock.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 4;
+    private static final int BUCKETS = 128;
+    private static final long MAX_MICROS = (1L << 32) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void record(long nanos, boolean error) {
+        long micros = Math.min(MAX_MICROS, Math.max(0, nanos / 1000));
+
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+
+        if (error) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);         // >= 2
+        int sub = (int) (micros >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+
+        return (exponent - 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Nilai tengah bucket dalam mikrodetik.
+     */
+    private static double middleOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + 1;
+        long width = 1L << (exponent - 2);
+        long lower = (SUB_BUCKETS + bucket % SUB_BUCKETS) * width;
+
+        return lower + width / 2.0;
+    }
+
+    /**
+     * @param p percentile antara 0 dan 1
+     * @return perkiraan latency dalam milidetik, 0 jika belum ada data
+     */
+    public double percentileMillis(double p) {
+        long total = count.get();
+
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+
+            if (seen >= rank) {
+                return Math.min(middleOf(i), maxMicros.get()) / 1000.0;
+            }
+        }
+
+        return maxMicros.get() / 1000.0;
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    public double getMeanMillis() {
+        long total = count.get();
+
+        return total == 0 ? 0 : totalMicros.get() / 1000.0 / total;
+    }
+
+    public double getMaxMillis() {
+        return maxMicros.get() / 1000.0;
+    }
+}
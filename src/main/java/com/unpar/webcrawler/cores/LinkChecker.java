@@ -0,0 +1,599 @@
+package com.unpar.webcrawler.cores;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tahap verifikasi link non-webpage secara non-blocking.
+ *
+ * Setiap link dicek dengan HttpClient.sendAsync(), sehingga thread pemanggil tidak
+ * pernah menunggu respon. Jumlah request yang berjalan dibatasi secara global, sedangkan
+ * batas per host (request bersamaan, laju, dan backoff 429/503) diatur oleh HostThrottle.
+ * Link yang belum mendapat slot disimpan di antrian per host dan dijalankan bergiliran.
+ *
+ * Host yang sebagian besar menolak HEAD (405/501/999 tetapi GET normal) langsung dicek
+ * dengan GET. GET hanya meminta byte pertama dan tidak mengunduh body yang besar. Redirect
+ * diikuti per hop; hasil akhir setiap hop disimpan agar hop yang sama tidak di-request lagi.
+ *
+ * Satu LinkChecker boleh dipakai beberapa Crawler sekaligus (lihat BatchCrawler): url yang
+ * sedang dicek tidak di-request lagi oleh pemanggil lain, dan dengan setRecentResults()
+ * hasil yang sudah selesai juga dipakai ulang.
+ *
+ * Jika HostHealth dipasang, timeout setiap request mengikuti latency host-nya dan link ke
+ * host yang breaker-nya terbuka langsung selesai dengan reason HostHealth.CIRCUIT_OPEN.
+ */
+public class LinkChecker {
+
+    private static final List<Integer> FALLBACK_STATUS_CODE = List.of(405, 501, 999);
+    private static final int MAX_RETRIES = 2;                       // percobaan ulang untuk respon 429/503 dan koneksi terputus
+    private static final int HEAD_UNSUPPORTED_MIN = 2;              // penolakan HEAD minimal sebelum host dianggap tidak mendukung HEAD
+    private static final int MAX_RESOLVED_HOPS = 10_000;
+    private static final int MAX_HEAD_STATS = 10_000;               // host yang statistik HEAD-nya disimpan (LRU)
+
+    private final HttpFetcher fetcher;
+    private final int maxInFlight;                                  // batas request bersamaan (global)
+    private final HostThrottle throttle;                            // batas dan backoff per host
+
+    private final Map<String, Queue<PendingCheck>> pending = new HashMap<>();   // link yang menunggu slot, per host
+    private final Set<String> waitingHosts = new LinkedHashSet<>();             // host yang punya antrian (round-robin)
+    private final Map<String, int[]> headStats = new LinkedHashMap<>(256, 0.75f, true) {     // per host: {HEAD dikirim, HEAD ditolak tetapi GET normal} (LRU)
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+            return size() > MAX_HEAD_STATS;
+        }
+    };
+    private final Map<String, LinkResponse> resolvedHops = new LinkedHashMap<>(16, 0.75f, true) {   // hop redirect -> hasil akhir (LRU)
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LinkResponse> eldest) {
+            return size() > MAX_RESOLVED_HOPS;
+        }
+    };
+    private volatile LinkStatusCache cache;                         // cache status lintas crawl, boleh null
+    private volatile CrawlMetrics metrics = new CrawlMetrics();     // nonaktif sampai diganti lewat setMetrics()
+    private volatile HostHealth health;                             // timeout adaptif dan circuit breaker, boleh null
+    private final Map<String, Set<CompletableFuture<?>>> sending = new ConcurrentHashMap<>();   // request berjalan per host, dibatalkan saat breaker terbuka
+    private final Map<String, CompletableFuture<LinkStatus>> checking = new ConcurrentHashMap<>();   // url yang sedang dicek
+    private Map<String, LinkStatus> recent;                         // hasil yang sudah selesai (LRU), boleh null
+    private int inFlight = 0;
+    private int pendingCount = 0;                                   // jumlah link di semua antrian host
+    private boolean wakeupScheduled = false;                        // dispatch() tertunda karena rate limit
+
+    public LinkChecker(HttpFetcher fetcher, int maxInFlight, HostThrottle throttle) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Concurrency limit must be at least 1");
+        }
+
+        this.fetcher = fetcher;
+        this.maxInFlight = maxInFlight;
+        this.throttle = throttle;
+    }
+
+    /**
+     * Mengaktifkan cache status lintas crawl. Link yang status-nya masih berlaku di cache
+     * tidak di-request lagi.
+     */
+    public void setCache(LinkStatusCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Mencatat waktu tunggu di antrian (LINK_QUEUE) dan waktu request (LINK_CHECK).
+     */
+    public void setMetrics(CrawlMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Mengaktifkan timeout adaptif dan circuit breaker per host. Tanpa HostHealth semua
+     * request memakai timeout HttpFetcher.
+     */
+    public void setHostHealth(HostHealth health) {
+        this.health = health;
+    }
+
+    /**
+     * Menyimpan hasil cek terakhir di memori (LRU), untuk LinkChecker yang dipakai beberapa
+     * Crawler: link yang sama dari situs lain tidak dicek ulang walaupun tanpa LinkStatusCache.
+     */
+    public synchronized void setRecentResults(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Recent results size must be at least 1");
+        }
+
+        this.recent = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, LinkStatus> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Batas per host yang dipakai cek link, misalnya untuk menerapkan Crawl-delay.
+     */
+    HostThrottle getThrottle() {
+        return throttle;
+    }
+
+    /**
+     * Jumlah link yang menunggu slot.
+     */
+    public synchronized int getPendingCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Jumlah request yang sedang berjalan.
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * Mendaftarkan url untuk dicek. Method ini langsung kembali; future selesai
+     * dengan status code (0 jika terjadi network error, SSL, timeout, dll.) dan reason-nya.
+     */
+    public CompletableFuture<LinkStatus> check(String url) {
+        return check(url, metrics);
+    }
+
+    /**
+     * Sama seperti check(String), dengan waktu antrian dan request dicatat ke metrics
+     * milik pemanggil (misalnya Crawler yang memakai LinkChecker bersama).
+     */
+    public CompletableFuture<LinkStatus> check(String url, CrawlMetrics metrics) {
+        LinkStatusCache cache = this.cache;
+
+        if (cache != null) {
+            LinkStatusCache.Entry cached = cache.get(url);
+
+            if (cached != null) {
+                return CompletableFuture.completedFuture(new LinkStatus(cached.statusCode(), cached.reason()));
+            }
+        }
+
+        synchronized (this) {
+            LinkStatus known = recent == null ? null : recent.get(url);
+
+            if (known != null) {
+                return CompletableFuture.completedFuture(known);
+            }
+        }
+
+        CompletableFuture<LinkStatus> result = new CompletableFuture<>();
+        CompletableFuture<LinkStatus> running = checking.putIfAbsent(url, result);
+
+        // url yang sama sedang dicek untuk pemanggil lain; jika pemanggil tersebut
+        // membatalkannya (lihat cancel()), url didaftarkan ulang
+        if (running != null) {
+            return running.exceptionallyCompose(e -> running.isCancelled()
+                    ? check(url, metrics)
+                    : CompletableFuture.failedFuture(e));
+        }
+
+        PendingCheck check = new PendingCheck(url, Frontier.hostOf(url), result, 0, metrics, metrics.begin());
+
+        enqueue(check);
+        dispatch();
+
+        return result;
+    }
+
+    /**
+     * Membatalkan cek yang masih antri milik pemanggil dengan metrics tersebut (lihat
+     * Crawler.cancel()). Request yang sudah dikirim tidak dibatalkan, karena hasilnya
+     * mungkin ditunggu pemanggil lain.
+     */
+    void cancel(CrawlMetrics owner) {
+        List<PendingCheck> cancelled = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<String, Queue<PendingCheck>>> hosts = pending.entrySet().iterator();
+
+            while (hosts.hasNext()) {
+                Map.Entry<String, Queue<PendingCheck>> entry = hosts.next();
+                entry.getValue().removeIf(check -> check.metrics == owner && cancelled.add(check));
+
+                if (entry.getValue().isEmpty()) {
+                    hosts.remove();
+                    waitingHosts.remove(entry.getKey());
+                }
+            }
+
+            pendingCount -= cancelled.size();
+        }
+
+        for (PendingCheck check : cancelled) {
+            checking.remove(check.url, check.result);
+            check.result.cancel(false);
+        }
+    }
+
+    private synchronized void enqueue(PendingCheck check) {
+        pending.computeIfAbsent(check.host, h -> new ArrayDeque<>()).add(check);
+        waitingHosts.add(check.host);
+        pendingCount++;
+    }
+
+    /**
+     * Menjalankan sebanyak mungkin link dari antrian selama slot global masih tersedia dan
+     * HostThrottle mengizinkan host-nya. Host diambil bergiliran agar satu host yang lambat
+     * atau sedang backoff tidak menahan link ke host lain.
+     */
+    private void dispatch() {
+        List<PendingCheck> ready = new ArrayList<>();
+
+        synchronized (this) {
+            long minWait = HostThrottle.NOT_READY;
+            boolean progress = true;
+
+            while (progress && inFlight < maxInFlight) {
+                progress = false;
+                minWait = HostThrottle.NOT_READY;
+
+                List<String> served = new ArrayList<>();
+                Iterator<String> hosts = waitingHosts.iterator();
+
+                while (inFlight < maxInFlight && hosts.hasNext()) {
+                    String host = hosts.next();
+                    long wait = throttle.tryAcquire(host);
+
+                    if (wait != 0) {
+                        minWait = Math.min(minWait, wait);
+                        continue;
+                    }
+
+                    hosts.remove();
+                    served.add(host);
+
+                    Queue<PendingCheck> queue = pending.get(host);
+                    ready.add(queue.poll());
+                    pendingCount--;
+
+                    if (queue.isEmpty()) {
+                        pending.remove(host);
+                    }
+
+                    inFlight++;
+                    progress = true;
+                }
+
+                // host yang baru dilayani masuk lagi ke akhir giliran
+                for (String host : served) {
+                    if (pending.containsKey(host)) {
+                        waitingHosts.add(host);
+                    }
+                }
+            }
+
+            // ada host yang hanya menunggu token / backoff, jadwalkan dispatch berikutnya
+            if (minWait != HostThrottle.NOT_READY && !wakeupScheduled) {
+                wakeupScheduled = true;
+
+                CompletableFuture
+                        .delayedExecutor(minWait, TimeUnit.NANOSECONDS)
+                        .execute(() -> {
+                            synchronized (this) {
+                                wakeupScheduled = false;
+                            }
+                            dispatch();
+                        });
+            }
+        }
+
+        // request dikirim di luar lock
+        for (PendingCheck check : ready) {
+            CrawlMetrics metrics = check.metrics;
+            metrics.end(CrawlMetrics.Phase.LINK_QUEUE, check.host, check.url, check.queuedAt);
+            long start = metrics.begin();
+
+            fetchUrl(check.url).whenComplete((res, e) -> {
+                LinkResponse response = e == null ? res : LinkResponse.failed(e);
+                int statusCode = response.statusCode;
+                String retryAfter = response.retryAfter;
+
+                metrics.end(CrawlMetrics.Phase.LINK_CHECK, check.host, check.url, start, statusCode);
+                throttle.release(check.host, statusCode, retryAfter);
+
+                synchronized (this) {
+                    inFlight--;
+                }
+
+                // jika server meminta crawler melambat, coba lagi setelah backoff;
+                // koneksi keep-alive yang ditutup server saat dipakai juga dicoba lagi
+                if ((HostThrottle.isThrottled(statusCode) || response.connectionClosed) && check.attempt < MAX_RETRIES) {
+                    metrics.retried();
+                    enqueue(new PendingCheck(check.url, check.host, check.result, check.attempt + 1, metrics, metrics.begin()));
+                } else {
+                    if (HostHealth.CIRCUIT_OPEN.equals(response.reason)) {
+                        metrics.shortCircuited();
+                    }
+
+                    LinkStatus status = new LinkStatus(statusCode, response.reason);
+
+                    store(check.url, response);
+                    remember(check.url, response, status);
+                    checking.remove(check.url, check.result);
+                    check.result.complete(status);
+                }
+
+                dispatch();
+            });
+        }
+    }
+
+    private CompletableFuture<LinkResponse> fetchUrl(String url) {
+        return follow(url, 0).exceptionally(LinkResponse::failed);
+    }
+
+    /**
+     * Mengecek satu hop dan mengikuti redirect-nya. Hop yang sudah pernah di-resolve
+     * (misalnya shortener yang sama dari link berbeda) diambil dari cache tanpa request.
+     */
+    private CompletableFuture<LinkResponse> follow(String url, int hops) {
+        LinkResponse cached;
+
+        synchronized (resolvedHops) {
+            cached = resolvedHops.get(url);     // LinkedHashMap access-order berubah saat get()
+        }
+
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        URI uri;
+
+        try {
+            uri = URI.create(url);
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(LinkResponse.failed(e));
+        }
+
+        return request(uri).thenCompose(res -> {
+            URI target = HttpFetcher.redirectTarget(uri, res);
+
+            if (target == null) {
+                return CompletableFuture.completedFuture(LinkResponse.of(res));
+            }
+
+            if (hops == HttpFetcher.MAX_REDIRECTS) {
+                return CompletableFuture.completedFuture(new LinkResponse(0, null, "TooManyRedirects", false));
+            }
+
+            String next = target.toString();
+
+            return follow(next, hops + 1).thenApply(result -> {
+                rememberHop(next, result);
+                return result;
+            });
+        });
+    }
+
+    /**
+     * HEAD, atau GET murah untuk host yang diketahui tidak mendukung HEAD. Jika HEAD dijawab
+     * 405/501/999, request diulang dengan GET dan host dicatat.
+     */
+    private CompletableFuture<HttpResponse<Void>> request(URI uri) {
+        String host = hostOf(uri);
+
+        if (isHeadUnsupported(host)) {
+            return get(uri, true);
+        }
+
+        countHead(host, false);
+
+        HttpRequest.Builder headReq = fetcher
+                .newRequest(uri.toString())                             // user agent, timeout, dan versi HTTP
+                .method("HEAD", HttpRequest.BodyPublishers.noBody());  // menggunakan method HEAD dan request tanpa body
+
+        return send(host, headReq, HttpResponse.BodyHandlers.discarding(), false)
+                .thenCompose(headRes -> {
+                    if (!FALLBACK_STATUS_CODE.contains(headRes.statusCode())) {
+                        return CompletableFuture.completedFuture(headRes);
+                    }
+
+                    return get(uri, true).thenApply(getRes -> {
+                        // GET berhasil dijawab normal, berarti host ini memang menolak HEAD
+                        if (!FALLBACK_STATUS_CODE.contains(getRes.statusCode())) {
+                            countHead(host, true);
+                        }
+
+                        return getRes;
+                    });
+                });
+    }
+
+    /**
+     * Host dianggap tidak mendukung HEAD jika minimal separuh HEAD-nya ditolak (dan minimal
+     * HEAD_UNSUPPORTED_MIN kali). Host yang hanya menolak HEAD di sebagian url tetap memakai HEAD.
+     */
+    private boolean isHeadUnsupported(String host) {
+        synchronized (headStats) {
+            int[] stats = headStats.get(host);     // LinkedHashMap access-order berubah saat get()
+
+            return stats != null && stats[1] >= HEAD_UNSUPPORTED_MIN && stats[1] * 2 >= stats[0];
+        }
+    }
+
+    private void countHead(String host, boolean rejected) {
+        synchronized (headStats) {
+            int[] stats = headStats.computeIfAbsent(host, h -> new int[2]);
+
+            if (rejected) {
+                stats[1]++;
+            } else {
+                stats[0]++;
+            }
+        }
+    }
+
+    /**
+     * GET yang hanya mengambil header: meminta byte pertama saja (Range: bytes=0-0) dan
+     * membatalkan body begitu header diterima, sehingga link ke file besar tidak diunduh.
+     * Jika server menolak range (416, misalnya file kosong), GET diulang tanpa range.
+     */
+    private CompletableFuture<HttpResponse<Void>> get(URI uri, boolean range) {
+        HttpRequest.Builder builder = fetcher
+                .newRequest(uri.toString())
+                .method("GET", HttpRequest.BodyPublishers.noBody());  // menggunakan method GET dan request tanpa body
+
+        if (range) {
+            builder.header("Range", "bytes=0-0");
+        }
+
+        return send(hostOf(uri), builder, HttpFetcher.HEADERS_ONLY, false)
+                .thenCompose(res -> range && res.statusCode() == 416
+                        ? get(uri, false)
+                        : CompletableFuture.completedFuture(res));
+    }
+
+    /**
+     * Mengirim request lewat HostHealth: ditolak tanpa dikirim jika breaker host terbuka,
+     * memakai timeout adaptif host, lalu mencatat hasilnya. Saat breaker terbuka, request lain
+     * ke host yang sama yang masih berjalan dibatalkan dan ikut dilaporkan CIRCUIT_OPEN.
+     *
+     * Timeout adaptif yang lebih pendek dari batas penuh bisa saja terlalu ketat untuk url
+     * yang lambat. Jika host sempat menjawab request lain selama request itu berjalan,
+     * request dikirim ulang sekali dengan timeout penuh.
+     */
+    private <T> CompletableFuture<HttpResponse<T>> send(String host, HttpRequest.Builder builder,
+                                                         HttpResponse.BodyHandler<T> handler, boolean fullTimeout) {
+        HostHealth health = this.health;
+
+        if (health == null) {
+            return fetcher.sendAsync(builder.build(), handler);
+        }
+
+        if (!health.tryAcquire(host)) {
+            return CompletableFuture.failedFuture(new HostHealth.CircuitOpenException(host));
+        }
+
+        Duration timeout = fullTimeout ? health.getMaxTimeout() : health.timeout(host);
+        long start = System.nanoTime();
+
+        CompletableFuture<HttpResponse<T>> request = fetcher.sendAsync(builder.timeout(timeout).build(), handler);
+        Set<CompletableFuture<?>> requests = sending.computeIfAbsent(host, h -> ConcurrentHashMap.newKeySet());
+        requests.add(request);
+
+        return request
+                .handle((res, e) -> {
+                    requests.remove(request);
+
+                    if (e == null) {
+                        health.succeeded(host, System.nanoTime() - start);
+                        return CompletableFuture.completedFuture(res);
+                    }
+
+                    // dibatalkan karena breaker dibuka oleh request lain; HttpClient bisa
+                    // menyelesaikan future dengan CancellationException yang dibungkus
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+
+                    if (cause instanceof CancellationException) {
+                        return CompletableFuture.<HttpResponse<T>>failedFuture(new HostHealth.CircuitOpenException(host));
+                    }
+
+                    HostHealth.Failure failure = health.failed(host, e, start);
+
+                    if (failure == HostHealth.Failure.OPENED) {
+                        for (CompletableFuture<?> other : requests) {
+                            other.cancel(true);
+                        }
+                    }
+
+                    if (failure == HostHealth.Failure.NOT_COUNTED && !fullTimeout
+                            && HostHealth.isTimeout(e) && timeout.compareTo(health.getMaxTimeout()) < 0) {
+                        return send(host, builder, handler, true);
+                    }
+
+                    return CompletableFuture.<HttpResponse<T>>failedFuture(e);
+                })
+                .thenCompose(f -> f);
+    }
+
+    private static String hostOf(URI uri) {
+        return uri.getHost() == null ? "" : uri.getHost().toLowerCase();
+    }
+
+    private void rememberHop(String url, LinkResponse response) {
+        // hanya hasil yang pasti; throttling, koneksi terputus, dan breaker terbuka tidak disimpan
+        if (!response.isFinal()) {
+            return;
+        }
+
+        synchronized (resolvedHops) {
+            resolvedHops.put(url, response);
+        }
+    }
+
+    private synchronized void remember(String url, LinkResponse response, LinkStatus status) {
+        if (recent != null && response.isFinal()) {
+            recent.put(url, status);
+        }
+    }
+
+    private void store(String url, LinkResponse response) {
+        LinkStatusCache cache = this.cache;
+
+        // status throttling dan link yang tidak di-request bukan status link yang sebenarnya, jangan disimpan
+        if (cache != null && !HostThrottle.isThrottled(response.statusCode) && !HostHealth.CIRCUIT_OPEN.equals(response.reason)) {
+            cache.put(url, response.statusCode, response.reason);
+        }
+    }
+
+    /**
+     * @param metrics  metrics milik pemanggil check()
+     * @param queuedAt waktu masuk antrian dari metrics.begin()
+     */
+    private record PendingCheck(String url, String host, CompletableFuture<LinkStatus> result, int attempt,
+                                CrawlMetrics metrics, long queuedAt) {
+    }
+
+    /**
+     * Hasil cek satu link.
+     *
+     * @param reason nama exception jika request gagal (statusCode 0), misalnya
+     *               HostHealth.CIRCUIT_OPEN untuk link yang tidak di-request karena host-nya mati;
+     *               kosong jika server menjawab
+     */
+    public record LinkStatus(int statusCode, String reason) {
+    }
+
+    /**
+     * @param connectionClosed koneksi ditutup server sebelum respon diterima,
+     *                         lihat HttpFetcher.isConnectionClosed()
+     */
+    private record LinkResponse(int statusCode, String retryAfter, String reason, boolean connectionClosed) {
+        static LinkResponse of(HttpResponse<?> res) {
+            // 206 dari GET dengan Range berarti resource ada
+            int statusCode = res.statusCode() == 206 ? 200 : res.statusCode();
+            return new LinkResponse(statusCode, res.headers().firstValue("Retry-After").orElse(null), "", false);
+        }
+
+        static LinkResponse failed(Throwable e) {
+            // CompletableFuture membungkus exception asli dalam CompletionException
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            return new LinkResponse(0, null, cause.getClass().getSimpleName(), HttpFetcher.isConnectionClosed(cause));
+        }
+
+        boolean isFinal() {
+            return !HostThrottle.isThrottled(statusCode) && !connectionClosed && !HostHealth.CIRCUIT_OPEN.equals(reason);
+        }
+    }
+}
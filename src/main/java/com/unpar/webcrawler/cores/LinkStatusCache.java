@@ -0,0 +1,429 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache status hasil pengecekan link yang disimpan di disk, sehingga link yang sama
+ * (CDN, media sosial, situs dokumentasi) tidak perlu dicek ulang di setiap crawl.
+ *
+ * - Key adalah url hasil URLCanonicalization.
+ * - Setiap entry menyimpan status code, waktu pengecekan, dan alasan kegagalan.
+ * - Entry berhasil (status 1..399) dan gagal memiliki TTL yang berbeda.
+ * - Data di disk dipecah ke beberapa shard (file TSV append-only). Saat pertama dipakai,
+ *   setiap shard dibaca sekali menjadi index key -> offset baris terbarunya, sehingga
+ *   pencarian berikutnya hanya membaca satu baris. Bagian yang sering dipakai (termasuk url
+ *   yang tidak ada di cache) disimpan di memori dengan batas jumlah entry (LRU).
+ * - Setiap shard memiliki satu appender yang tetap terbuka; isinya di-flush paling lambat
+ *   FLUSH_INTERVAL setelah entry pertama yang belum di-flush, atau dengan flush().
+ * - Shard dipadatkan saat dibuka jika lebih dari COMPACT_THRESHOLD, dan lagi setiap kali
+ *   ukurannya menjadi dua kali ukuran setelah pemadatan terakhir.
+ * - Satu direktori cache dipakai bersama oleh semua Crawler di JVM yang sama (lihat open()).
+ *
+ * Format satu baris shard: url \t statusCode \t checkedAtEpochMillis \t reason
+ */
+public class LinkStatusCache {
+
+    private static final int SHARDS = 256;
+    private static final long COMPACT_THRESHOLD = 1024 * 1024;     // shard > 1 MB dipadatkan
+    private static final long FLUSH_INTERVAL_NANOS = 1_000_000_000L;
+    private static final Entry MISSING = new Entry(-1, 0, "");      // url yang tidak ada di disk, hanya di LRU
+    private static final Map<Path, LinkStatusCache> OPENED = new ConcurrentHashMap<>();
+
+    private final long successTtlMillis;
+    private final long failureTtlMillis;
+    private final int maxHotEntries;
+    private final Map<String, Entry> hot;                           // LRU di memori
+    private final Shard[] shards = new Shard[SHARDS];
+
+    private LinkStatusCache(Path directory, Duration successTtl, Duration failureTtl, int maxHotEntries) {
+        this.successTtlMillis = successTtl.toMillis();
+        this.failureTtlMillis = failureTtl.toMillis();
+        this.maxHotEntries = maxHotEntries;
+        this.hot = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxHotEntries;
+            }
+        };
+
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard(directory.resolve(String.format("shard-%02x.tsv", i)));
+        }
+    }
+
+    /**
+     * Membuka (atau mengambil yang sudah terbuka) cache pada direktori tertentu.
+     * Pemanggilan berikutnya dengan direktori yang sama mengembalikan instance yang sama,
+     * dan harus memakai konfigurasi yang sama.
+     *
+     * @throws IllegalArgumentException jika direktori sudah dibuka dengan TTL atau
+     *                                  jumlah entry maksimum yang berbeda
+     */
+    public static LinkStatusCache open(Path directory, Duration successTtl, Duration failureTtl, int maxHotEntries) {
+        if (successTtl.isNegative() || failureTtl.isNegative() || maxHotEntries < 1) {
+            throw new IllegalArgumentException("Invalid cache configuration");
+        }
+
+        Path dir = directory.toAbsolutePath().normalize();
+
+        LinkStatusCache cache = OPENED.computeIfAbsent(dir, d -> {
+            try {
+                Files.createDirectories(d);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return new LinkStatusCache(d, successTtl, failureTtl, maxHotEntries);
+        });
+
+        if (cache.successTtlMillis != successTtl.toMillis()
+                || cache.failureTtlMillis != failureTtl.toMillis()
+                || cache.maxHotEntries != maxHotEntries) {
+            throw new IllegalArgumentException("Cache " + dir + " already opened with a different configuration");
+        }
+
+        return cache;
+    }
+
+    /**
+     * @return entry yang masih berlaku, atau null jika belum ada atau sudah kedaluwarsa
+     */
+    public Entry get(String url) {
+        String key = keyOf(url);
+
+        if (key == null) {
+            return null;
+        }
+
+        Entry entry;
+
+        synchronized (hot) {
+            entry = hot.get(key);
+        }
+
+        if (entry == null) {
+            entry = shards[shardOf(key)].read(key);
+
+            synchronized (hot) {
+                // put() yang berjalan bersamaan tidak boleh ditimpa hasil disk yang lebih lama
+                hot.putIfAbsent(key, entry != null ? entry : MISSING);
+            }
+        }
+
+        return entry != null && entry != MISSING && isFresh(entry, System.currentTimeMillis()) ? entry : null;
+    }
+
+    public void put(String url, int statusCode, String reason) {
+        String key = keyOf(url);
+
+        if (key == null) {
+            return;
+        }
+
+        Entry entry = new Entry(statusCode, System.currentTimeMillis(), sanitize(reason));
+
+        synchronized (hot) {
+            hot.put(key, entry);
+        }
+
+        shards[shardOf(key)].append(key, entry);
+    }
+
+    /**
+     * Menulis semua entry yang masih di buffer ke disk, misalnya sebelum JVM berhenti.
+     */
+    public void flush() {
+        for (Shard shard : shards) {
+            shard.flush();
+        }
+    }
+
+    /**
+     * Satu file shard beserta index dan appender-nya. Semua akses ke file di bawah lock
+     * objek ini; index dibangun saat shard pertama kali dibaca atau ditulis.
+     */
+    private final class Shard {
+
+        private final Path path;
+        private Map<String, Long> index;                            // key -> offset baris terbaru, null jika belum dibaca
+        private FileChannel reader;
+        private OutputStream writer;
+        private long size;                                          // ukuran file termasuk isi buffer writer
+        private long compactAt;                                     // ukuran yang memicu pemadatan berikutnya
+        private boolean dirty = false;                              // buffer writer berisi entry yang belum di-flush
+        private boolean flushScheduled = false;
+
+        Shard(Path path) {
+            this.path = path;
+        }
+
+        synchronized Entry read(String key) {
+            try {
+                load();
+
+                Long offset = index.get(key);
+
+                if (offset == null) {
+                    return null;
+                }
+
+                if (dirty) {
+                    writer.flush();
+                    dirty = false;
+                }
+
+                return parse(readLine(offset));
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        synchronized void append(String key, Entry entry) {
+            try {
+                load();
+
+                byte[] line = format(key, entry).getBytes(StandardCharsets.UTF_8);
+
+                writer.write(line);
+                index.put(key, size);
+                size += line.length;
+                dirty = true;
+
+                // entry ini paling lama menunggu satu interval di buffer
+                if (!flushScheduled) {
+                    flushScheduled = true;
+
+                    CompletableFuture
+                            .delayedExecutor(FLUSH_INTERVAL_NANOS, TimeUnit.NANOSECONDS)
+                            .execute(this::flush);
+                }
+
+                if (size > compactAt) {
+                    closeFiles();
+                    compact(path);
+                    index = null;
+                    load();
+                }
+            } catch (IOException ignored) {
+                // cache hanya optimasi, kegagalan menulis tidak boleh menghentikan crawl
+            }
+        }
+
+        synchronized void flush() {
+            flushScheduled = false;
+
+            if (!dirty) {
+                return;
+            }
+
+            try {
+                writer.flush();
+                dirty = false;
+            } catch (IOException ignored) {
+            }
+        }
+
+        /**
+         * Membangun index dari isi shard (dipadatkan lebih dulu jika terlalu besar) dan
+         * membuka file-nya untuk dibaca dan ditambah.
+         */
+        private void load() throws IOException {
+            if (index != null) {
+                return;
+            }
+
+            if (Files.exists(path) && Files.size(path) > COMPACT_THRESHOLD) {
+                compact(path);
+            }
+
+            Map<String, Long> loaded = new HashMap<>();
+            long offset = 0;
+            boolean truncated = false;
+
+            if (Files.exists(path)) {
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                    ByteArrayOutputStream key = new ByteArrayOutputStream(128);
+                    long lineStart = 0;
+                    boolean inKey = true;
+                    int b;
+
+                    while ((b = in.read()) >= 0) {
+                        offset++;
+
+                        if (b == '\n') {
+                            if (!inKey) {
+                                loaded.put(key.toString(StandardCharsets.UTF_8), lineStart);  // baris terakhir adalah yang terbaru
+                            }
+
+                            key.reset();
+                            lineStart = offset;
+                            inKey = true;
+                        } else if (inKey) {
+                            if (b == '\t') {
+                                inKey = false;
+                            } else {
+                                key.write(b);
+                            }
+                        }
+                    }
+
+                    truncated = lineStart < offset;
+                }
+            }
+
+            writer = new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+            reader = FileChannel.open(path, StandardOpenOption.READ);
+
+            // baris terakhir yang terpotong (crash saat menulis) ditutup agar tidak menyatu dengan baris baru
+            if (truncated) {
+                writer.write('\n');
+                offset++;
+                dirty = true;
+            }
+
+            index = loaded;
+            size = offset;
+            compactAt = Math.max(COMPACT_THRESHOLD, 2 * offset);
+        }
+
+        private String readLine(long offset) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            ByteBuffer buffer = ByteBuffer.allocate(512);
+
+            while (true) {
+                buffer.clear();
+                int n = reader.read(buffer, offset);
+
+                if (n <= 0) {
+                    break;
+                }
+
+                for (int i = 0; i < n; i++) {
+                    byte b = buffer.get(i);
+
+                    if (b == '\n') {
+                        return line.toString(StandardCharsets.UTF_8);
+                    }
+
+                    line.write(b);
+                }
+
+                offset += n;
+            }
+
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        private void closeFiles() throws IOException {
+            try {
+                writer.close();
+            } finally {
+                reader.close();
+                dirty = false;
+            }
+        }
+    }
+
+    /**
+     * Menulis ulang shard hanya dengan entry terbaru per url yang belum kedaluwarsa.
+     */
+    private void compact(Path path) throws IOException {
+        long now = System.currentTimeMillis();
+        Map<String, String> latest = new HashMap<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                Entry entry = parse(line);
+
+                if (tab > 0 && entry != null) {
+                    if (isFresh(entry, now)) {
+                        latest.put(line.substring(0, tab), line);
+                    } else {
+                        latest.remove(line.substring(0, tab));
+                    }
+                }
+            }
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (String line : latest.values()) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean isFresh(Entry entry, long now) {
+        long ttl = entry.isSuccess() ? successTtlMillis : failureTtlMillis;
+        return now - entry.checkedAt() < ttl;
+    }
+
+    private static int shardOf(String key) {
+        return Math.floorMod(key.hashCode(), SHARDS);     // String.hashCode stabil antar JVM
+    }
+
+    private static String keyOf(String url) {
+        return Crawler.URLCanonicalization(url);
+    }
+
+    private static String format(String key, Entry entry) {
+        return key + '\t' + entry.statusCode() + '\t' + entry.checkedAt() + '\t' + entry.reason() + '\n';
+    }
+
+    private static Entry parse(String line) {
+        String[] parts = line.split("\t", 4);
+
+        if (parts.length < 4) {
+            return null;
+        }
+
+        try {
+            return new Entry(Integer.parseInt(parts[1]), Long.parseLong(parts[2]), parts[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String sanitize(String reason) {
+        return reason == null ? "" : reason.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    /**
+     * @param statusCode status code hasil pengecekan (0 jika request gagal)
+     * @param checkedAt  waktu pengecekan (epoch millis)
+     * @param reason     alasan kegagalan, kosong jika tidak ada
+     */
+    public record Entry(int statusCode, long checkedAt, String reason) {
+        public boolean isSuccess() {
+            return statusCode > 0 && statusCode < 400;
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.unpar.webcrawler.cores;
+
+/**
+ * Hasil parse url absolut http/https dalam satu kali lintasan, disimpan sebagai posisi
+ * (offset) di string aslinya sehingga tidak ada substring yang dibuat saat parse.
+ *
+ * Objek ini dapat dipakai ulang: panggil parse() untuk url berikutnya. Tidak thread-safe.
+ *
+ * Parser ini sengaja hanya menerima bentuk url yang umum (lihat parse()). Url lain
+ * (userinfo, IPv6/IPv4, karakter non-ASCII, escape % di path, skema selain http/s, dll.)
+ * ditolak agar pemanggil memakai jalur java.net.URI, sehingga hasil kanonikalisasi
+ * selalu sama persis dengan implementasi berbasis URI.
+ */
+public final class ParsedUrl {
+
+    private static final long L_ALPHA = 0L;
+    private static final long H_ALPHA = rangeMask('A', 'Z', 64) | rangeMask('a', 'z', 64);
+    private static final long L_DIGIT = rangeMask('0', '9', 0);
+    private static final long L_UNRESERVED = L_DIGIT | charMask("-.!*'()", 0);
+    private static final long H_UNRESERVED = H_ALPHA | charMask("_~", 64);
+    private static final long L_PATH = L_UNRESERVED | charMask(":@&=+$,;/", 0);
+    private static final long H_PATH = H_UNRESERVED | charMask(":@&=+$,;/", 64);
+    private static final long L_URIC = L_UNRESERVED | charMask(";/?:@&=+$,[]", 0);
+    private static final long H_URIC = H_UNRESERVED | charMask(";/?:@&=+$,[]", 64);
+
+    // ekstensi file resource, dikelompokkan berdasarkan panjang (lookup table)
+    private static final String[][] RESOURCE_EXTENSIONS = {
+            {},
+            {},
+            {"js", "7z"},
+            {"jpg", "png", "gif", "svg", "css", "pdf", "zip", "rar", "mjs", "map"},
+            {"jpeg", "webp", "json"},
+    };
+
+    private static final int MAX_LABEL_LENGTH = 63;         // batas IDN.toASCII per label
+
+    private String source;
+    private boolean https;
+    private int hostStart, hostEnd;
+    private int port;                                       // -1 jika tidak ada
+    private int portStart;                                  // posisi ':' sebelum port, -1 jika tidak ada
+    private int pathStart, pathEnd;
+    private int queryStart;                                 // posisi setelah '?', -1 jika tidak ada
+    private int queryEnd;
+    private boolean pathEscaped;                            // path berisi escape %XX
+    private boolean queryEscaped;                           // query berisi escape %XX
+    private boolean hasFragment;
+    private boolean lowerCase;                              // skema dan host sudah huruf kecil
+
+    /**
+     * Mem-parse url absolut yang sudah di-trim.
+     *
+     * Bentuk yang diterima: http|https "://" hostname [":" port] path ["?" query] ["#" fragment]
+     * dengan hostname berupa label alfanumerik ASCII (label terakhir diawali huruf),
+     * path tanpa escape %, dan semua karakter legal menurut java.net.URI.
+     *
+     * @return false jika url tidak berbentuk seperti di atas (pemanggil harus memakai java.net.URI)
+     */
+    public boolean parse(String url) {
+        this.source = url;
+
+        int n = url.length();
+        int i = 0;
+
+        /** ==================================================================
+         * SCHEME : hanya http atau https
+         */
+
+        while (i < n && i < 6 && url.charAt(i) != ':') i++;
+
+        if (i == 4 && url.regionMatches(true, 0, "http", 0, 4)) {
+            https = false;
+        } else if (i == 5 && url.regionMatches(true, 0, "https", 0, 5)) {
+            https = true;
+        } else {
+            return false;
+        }
+
+        if (i >= n || !url.startsWith("//", i + 1)) {
+            return false;
+        }
+
+        lowerCase = url.startsWith(https ? "https" : "http");
+
+        /** ==================================================================
+         * HOST : label alfanumerik dengan '-' di tengah, dipisah '.'
+         */
+
+        hostStart = i + 3;
+        i = hostStart;
+
+        int labelStart = i;
+        int lastLabelStart = i;
+
+        while (i < n) {
+            char c = url.charAt(i);
+
+            if (c == '.') {
+                if (i == labelStart || url.charAt(i - 1) == '-' || i - labelStart > MAX_LABEL_LENGTH) return false;
+                labelStart = i + 1;
+                lastLabelStart = labelStart;
+            } else if (c == '/' || c == '?' || c == '#' || c == ':') {
+                break;
+            } else if (c == '-') {
+                if (i == labelStart) return false;
+            } else if (c >= 'A' && c <= 'Z') {
+                lowerCase = false;
+            } else if (!(c >= 'a' && c <= 'z') && !(c >= '0' && c <= '9')) {
+                return false;
+            }
+
+            i++;
+        }
+
+        hostEnd = i;
+
+        // label terakhir tidak boleh kosong (termasuk host diakhiri '.') dan harus diawali huruf
+        if (i == labelStart || url.charAt(i - 1) == '-' || i - labelStart > MAX_LABEL_LENGTH) return false;
+        if (!isAlpha(url.charAt(lastLabelStart))) return false;
+
+        /** ==================================================================
+         * PORT : 1 sampai 5 digit
+         */
+
+        port = -1;
+        portStart = -1;
+
+        if (i < n && url.charAt(i) == ':') {
+            portStart = i;
+            int digitsStart = ++i;
+
+            while (i < n && url.charAt(i) >= '0' && url.charAt(i) <= '9') i++;
+
+            if (i == digitsStart || i - digitsStart > 5) return false;
+
+            port = Integer.parseInt(url, digitsStart, i, 10);
+
+            if (i < n && url.charAt(i) != '/' && url.charAt(i) != '?' && url.charAt(i) != '#') return false;
+        }
+
+        /** ==================================================================
+         * PATH, QUERY, FRAGMENT
+         */
+
+        pathStart = i;
+        pathEscaped = false;
+
+        while (i < n) {
+            char c = url.charAt(i);
+
+            if (c == '?' || c == '#') break;
+
+            if (c == '%') {
+                return false;       // path di-decode oleh URI.getPath(), serahkan ke URI
+            }
+
+            if (!match(c, L_PATH, H_PATH)) return false;
+
+            i++;
+        }
+
+        pathEnd = i;
+        queryStart = -1;
+        queryEnd = -1;
+        queryEscaped = false;
+
+        if (i < n && url.charAt(i) == '?') {
+            queryStart = ++i;
+            i = scanUric(url, i, n, true);
+
+            if (i < 0) return false;
+
+            queryEnd = i;
+        }
+
+        hasFragment = i < n;
+
+        if (hasFragment) {
+            // url.charAt(i) == '#'
+            if (scanUric(url, i + 1, n, false) != n) return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Membentuk url kanonik, sama persis dengan hasil URLCanonicalization berbasis URI:
+     * skema dan host huruf kecil, port default dihapus, fragment dihapus, dan '%' di query
+     * di-escape menjadi "%25" (perilaku konstruktor multi-argumen java.net.URI).
+     * Jika url sudah kanonik, string aslinya dikembalikan tanpa alokasi baru.
+     */
+    public String canonical() {
+        boolean defaultPort = port == (https ? 443 : 80);
+
+        if (lowerCase && portStart < 0 && !queryEscaped && !hasFragment) {
+            return source;
+        }
+
+        StringBuilder sb = new StringBuilder(source.length() + 8);
+
+        sb.append(https ? "https://" : "http://");
+
+        for (int i = hostStart; i < hostEnd; i++) {
+            char c = source.charAt(i);
+            sb.append(c >= 'A' && c <= 'Z' ? (char) (c + 32) : c);
+        }
+
+        if (port >= 0 && !defaultPort) {
+            sb.append(':').append(port);
+        }
+
+        sb.append(source, pathStart, pathEnd);
+
+        if (queryStart >= 0) {
+            sb.append('?');
+
+            for (int i = queryStart; i < queryEnd; i++) {
+                char c = source.charAt(i);
+
+                if (c == '%') {
+                    sb.append("%25");
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    public boolean hostEqualsIgnoreCase(String host) {
+        return host.length() == hostEnd - hostStart && source.regionMatches(true, hostStart, host, 0, host.length());
+    }
+
+    /**
+     * Path berakhiran ekstensi file resource (gambar, css, js, arsip, dll.).
+     */
+    public boolean isFileResource() {
+        for (int length = 2; length < RESOURCE_EXTENSIONS.length; length++) {
+            int dot = pathEnd - length - 1;
+
+            if (dot < pathStart || source.charAt(dot) != '.') {
+                continue;
+            }
+
+            for (String ext : RESOURCE_EXTENSIONS[length]) {
+                if (source.regionMatches(true, dot + 1, ext, 0, length)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    // ===================== Helper =====================
+
+    /**
+     * @return posisi akhir, atau -1 jika ada karakter yang tidak legal
+     */
+    private int scanUric(String url, int i, int n, boolean query) {
+        while (i < n) {
+            char c = url.charAt(i);
+
+            if (query && c == '#') break;
+
+            if (c == '%') {
+                if (i + 2 >= n || !isHex(url.charAt(i + 1)) || !isHex(url.charAt(i + 2))) return -1;
+                if (query) queryEscaped = true;
+                i += 3;
+                continue;
+            }
+
+            if (!match(c, L_URIC, H_URIC)) return -1;
+
+            i++;
+        }
+
+        return i;
+    }
+
+    private static boolean match(char c, long low, long high) {
+        if (c < 64) return ((1L << c) & low) != 0;
+        if (c < 128) return ((1L << (c - 64)) & high) != 0;
+        return false;
+    }
+
+    private static boolean isAlpha(char c) {
+        return match(c, L_ALPHA, H_ALPHA);
+    }
+
+    private static boolean isHex(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static long rangeMask(char first, char last, int offset) {
+        long mask = 0;
+        for (char c = first; c <= last; c++) mask |= 1L << (c - offset);
+        return mask;
+    }
+
+    private static long charMask(String chars, int offset) {
+        long mask = 0;
+        for (char c : chars.toCharArray()) {
+            if (c >= offset && c < offset + 64) mask |= 1L << (c - offset);
+        }
+        return mask;
+    }
+}
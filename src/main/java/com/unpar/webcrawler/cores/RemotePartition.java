@@ -0,0 +1,124 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+
+import java.util.function.Consumer;
+
+/**
+ * Bagian Crawler untuk crawl terdistribusi (lihat Crawler.setRemote() dan CrawlWorker):
+ * Crawler hanya memproses partisi url milik worker-nya.
+ *
+ * Link yang ditemukan dan url yang selesai diteruskan ke coordinator. Url kiriman
+ * coordinator masuk lewat accept() dan diproses Crawler (webpage ke frontier, link lain
+ * dicek). Jumlah url kiriman yang sudah diproses dilaporkan lewat idle() setiap kali
+ * Crawler kehabisan pekerjaan, sehingga coordinator tahu kapan semua worker selesai.
+ *
+ * State dijaga monitor milik Crawler (lock), karena laporan idle harus konsisten dengan
+ * frontier dan jumlah task yang sedang berjalan.
+ */
+final class RemotePartition {
+
+    /**
+     * Penghubung ke coordinator. Semua method dipanggil tanpa menunggu jaringan.
+     */
+    interface Coordinator {
+
+        /**
+         * true jika url termasuk partisi milik worker ini.
+         */
+        boolean owns(String url);
+
+        /**
+         * Link yang ditemukan di webpage webpageUrl.
+         *
+         * @param depth depth link, yaitu depth webpageUrl + 1
+         */
+        void discovered(Crawler.ExtractedLink link, String webpageUrl, int depth);
+
+        /**
+         * Webpage (setelah semua link-nya dikirim) atau link selesai diproses.
+         */
+        void done(String url);
+
+        /**
+         * Frontier kosong dan tidak ada task berjalan setelah memproses sebanyak received url dari accept().
+         */
+        void idle(long received);
+    }
+
+    private final Coordinator coordinator;
+    private final Crawler crawler;
+    private final Object lock;                      // monitor Crawler
+    private Consumer<BrokenLink> sink;              // sink broken link untuk link kiriman coordinator, terisi saat crawl() berjalan
+    private long received = 0;                      // jumlah url kiriman coordinator yang sudah diproses
+    private long reportedReceived = -1;             // nilai received pada laporan idle terakhir
+
+    RemotePartition(Coordinator coordinator, Crawler crawler, Object lock) {
+        this.coordinator = coordinator;
+        this.crawler = crawler;
+        this.lock = lock;
+    }
+
+    boolean owns(String url) {
+        return coordinator.owns(url);
+    }
+
+    void discovered(Crawler.ExtractedLink link, String webpageUrl, int depth) {
+        coordinator.discovered(link, webpageUrl, depth);
+    }
+
+    void done(String url) {
+        coordinator.done(url);
+    }
+
+    /**
+     * Dipanggil crawl() saat mulai; accept() yang sudah menunggu dilanjutkan.
+     */
+    void start(Consumer<BrokenLink> sink) {
+        synchronized (lock) {
+            this.sink = sink;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Melapor idle jika ada url kiriman yang diproses sejak laporan terakhir. Dipanggil
+     * sambil memegang lock, saat frontier kosong dan tidak ada task berjalan.
+     */
+    void idle() {
+        if (received != reportedReceived) {
+            coordinator.idle(received);
+            reportedReceived = received;
+        }
+    }
+
+    /**
+     * Memproses url kiriman coordinator, lihat Crawler.received(). Url dari partisi yang
+     * sudah tidak dimiliki worker ini diabaikan. Dipanggil dari satu thread, boleh sebelum
+     * crawl() dimulai (menunggu sampai crawl() berjalan).
+     *
+     * @param webpageUrl webpage tempat url ditemukan
+     * @param depth      depth url, dihitung dari seed (depth 0)
+     */
+    void accept(String url, String anchorText, String webpageUrl, int depth) throws InterruptedException {
+        Consumer<BrokenLink> sink;
+
+        synchronized (lock) {
+            while (this.sink == null && !crawler.isStopped()) {
+                lock.wait();
+            }
+
+            sink = this.sink;
+        }
+
+        // frontier atau inFlight sudah naik sebelum received, agar idle tidak dilaporkan terlalu awal
+        if (!crawler.isStopped() && coordinator.owns(url)) {
+            crawler.received(url, anchorText, webpageUrl, depth, sink);
+        }
+
+        synchronized (lock) {
+            received++;
+            lock.notifyAll();
+        }
+    }
+}
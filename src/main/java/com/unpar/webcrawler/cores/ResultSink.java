@@ -0,0 +1,225 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memindahkan hasil crawl dari thread crawler ke satu thread penulis.
+ *
+ * webpage() dan broken() hanya memasukkan hasil ke antrian berkapasitas tetap; thread
+ * penulis mengambil hasil per batch, menulisnya dengan ResultWriter, lalu flush sekali
+ * per batch. Jika penulis tertinggal dan antrian penuh, pemanggil menunggu (backpressure),
+ * sehingga memori tidak tumbuh tanpa batas. Hasil tidak disimpan; yang tersisa hanya
+ * counter ringkasan (summary()).
+ *
+ * Pemakaian dengan Crawler:
+ *   try (ResultSink sink = new ResultSink(ResultWriter.open(path))) {
+ *       crawler.crawl(sink::webpage, sink::broken);
+ *   }
+ */
+public class ResultSink implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final int MAX_BATCH = 1024;
+    private static final Object END = new Object();         // penanda akhir antrian
+
+    private final ResultWriter writer;
+    private final BlockingQueue<Object> queue;
+    private final Thread thread;
+
+    private final AtomicLong blockedNanos = new AtomicLong();       // total waktu pemanggil menunggu antrian
+    private final Map<Integer, Long> brokenByStatus = new TreeMap<>();  // hanya diubah thread penulis, dibaca dengan lock this
+    private long webpages = 0;
+    private long brokenLinks = 0;
+    private long brokenSources = 0;
+    private long batches = 0;
+    private long bytesWritten = 0;
+    private IOException failure;
+    private boolean closed = false;
+
+    public ResultSink(ResultWriter writer) {
+        this(writer, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity jumlah hasil maksimum yang menunggu ditulis
+     */
+    public ResultSink(ResultWriter writer, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.thread = Thread.ofPlatform().daemon().name("result-sink").start(this::drain);
+    }
+
+    public void webpage(WebpageLink wl) {
+        put(wl);
+    }
+
+    public void broken(BrokenLink bl) {
+        put(bl);
+    }
+
+    private void put(Object result) {
+        if (queue.offer(result)) {
+            return;
+        }
+
+        // antrian penuh: tunggu penulis
+        long start = System.nanoTime();
+
+        try {
+            queue.put(result);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();         // hasil ini hilang, crawl sedang dihentikan
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH);
+
+        try {
+            while (true) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+
+                boolean end = write(batch);
+                batch.clear();
+
+                if (end) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return true jika batch berisi penanda akhir
+     */
+    private boolean write(List<Object> batch) {
+        boolean end = false;
+
+        for (Object result : batch) {
+            if (result == END) {
+                end = true;
+            } else {
+                writeQuietly(result);
+            }
+        }
+
+        if (failure == null) {
+            try {
+                writer.flush();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        // counter diubah setelah batch ditulis, summary() tidak menunggu I/O
+        synchronized (this) {
+            for (Object result : batch) {
+                if (result instanceof WebpageLink) {
+                    webpages++;
+                } else if (result instanceof BrokenLink bl) {
+                    brokenLinks++;
+                    brokenSources += bl.getSourceCount();
+                    brokenByStatus.merge(bl.getStatusCode(), 1L, Long::sum);
+                }
+            }
+
+            batches++;
+            bytesWritten = writer.getBytesWritten();
+        }
+
+        return end;
+    }
+
+    /**
+     * Setelah penulis gagal, hasil tetap diambil dari antrian (dan dihitung) agar crawler
+     * tidak menunggu selamanya; kegagalannya dilempar oleh close().
+     */
+    private void writeQuietly(Object result) {
+        if (failure != null) {
+            return;
+        }
+
+        try {
+            if (result instanceof WebpageLink wl) {
+                writer.webpage(wl);
+            } else {
+                writer.broken((BrokenLink) result);
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Counter hasil yang sudah ditulis. Aman dipanggil selama crawl berjalan.
+     */
+    public synchronized Summary summary() {
+        return new Summary(webpages, brokenLinks, brokenSources, new TreeMap<>(brokenByStatus), batches, bytesWritten,
+                queue.size(), blockedNanos.get());
+    }
+
+    /**
+     * Menunggu semua hasil di antrian ditulis, lalu menutup writer.
+     *
+     * @throws IOException jika menulis hasil gagal, termasuk kegagalan di tengah crawl
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+
+            closed = true;
+        }
+
+        put(END);
+
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * @param brokenSources  jumlah pasangan broken link - webpage sumber yang ditulis
+     * @param brokenByStatus jumlah broken link per status code (0 untuk request yang gagal tanpa respon)
+     * @param pending        hasil yang masih menunggu di antrian
+     * @param blockedNanos   total waktu thread crawler menunggu karena antrian penuh
+     */
+    public record Summary(long webpages, long brokenLinks, long brokenSources, Map<Integer, Long> brokenByStatus, long batches,
+                          long bytesWritten, int pending, long blockedNanos) {
+    }
+}
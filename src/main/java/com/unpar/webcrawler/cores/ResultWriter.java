@@ -0,0 +1,448 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+import com.unpar.webcrawler.utils.UrlDictionary;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Menulis hasil crawl ke file dalam satu format. Record di-encode ke buffer dan baru
+ * ditulis ke channel saat buffer penuh atau flush() dipanggil, sehingga satu batch
+ * menjadi satu system call. Tidak thread-safe, dipakai dari satu thread (lihat ResultSink).
+ *
+ * Broken link ditulis beserta semua webpage sumber yang tercatat saat broken() dipanggil
+ * (lihat Crawler.getBrokenLinks()).
+ *
+ * Format:
+ * - NDJSON: satu objek JSON per baris, field "type" bernilai "webpage" atau "broken";
+ *   sumber broken link ada di array "webpageUrls"
+ * - CSV: header lalu satu baris per hasil, quoting RFC 4180; kolom webpageUrls berisi
+ *   sumber broken link dipisah spasi (url hasil normalisasi tidak mengandung spasi)
+ * - binary: ringkas, dibaca kembali dengan readBinary(). Diawali magic "BLC" + versi,
+ *   lalu record bertag 'W' / 'B' / 'U'; angka sebagai varint, string sebagai panjang (varint) + UTF-8.
+ *   Url webpage sumber ditulis sekali sebagai record 'U' (id berurutan mulai 0 per file),
+ *   record 'B' hanya memuat id-nya
+ */
+public abstract class ResultWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] BINARY_MAGIC = {'B', 'L', 'C', 2};
+
+    private final WritableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long bytesWritten = 0;
+
+    protected ResultWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    // ===================== Factory =====================
+
+    /**
+     * Memilih format dari ekstensi file: .csv, .bin, selain itu NDJSON.
+     */
+    public static ResultWriter open(Path path) throws IOException {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+
+        if (name.endsWith(".csv")) {
+            return csv(path);
+        }
+
+        if (name.endsWith(".bin")) {
+            return binary(path);
+        }
+
+        return ndjson(path);
+    }
+
+    public static ResultWriter ndjson(Path path) throws IOException {
+        return new Ndjson(channelOf(path));
+    }
+
+    public static ResultWriter csv(Path path) throws IOException {
+        Csv writer = new Csv(channelOf(path));
+        writer.write("type,url,statusCode,reason,linkCount,accessTime,anchorText,webpageUrls\n");
+
+        return writer;
+    }
+
+    public static ResultWriter binary(Path path) throws IOException {
+        Binary writer = new Binary(channelOf(path));
+        writer.write(BINARY_MAGIC);
+
+        return writer;
+    }
+
+    private static FileChannel channelOf(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+    }
+
+    // ===================== Menulis =====================
+
+    public abstract void webpage(WebpageLink wl) throws IOException;
+
+    public abstract void broken(BrokenLink bl) throws IOException;
+
+    protected void write(String s) throws IOException {
+        write(s.getBytes(StandardCharsets.UTF_8));
+    }
+
+    protected void write(byte[] bytes) throws IOException {
+        reserve(bytes.length);
+        buffer.put(bytes);
+    }
+
+    protected void writeByte(int b) throws IOException {
+        reserve(1);
+        buffer.put((byte) b);
+    }
+
+    protected void writeVarLong(long value) throws IOException {
+        reserve(10);
+
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private void reserve(int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            return;
+        }
+
+        flush();
+
+        if (buffer.capacity() < length) {
+            buffer = ByteBuffer.allocate(length);       // record yang lebih besar dari buffer
+        }
+    }
+
+    /**
+     * Menulis isi buffer ke channel.
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    // ===================== Format =====================
+
+    private static final class Ndjson extends ResultWriter {
+        private final StringBuilder sb = new StringBuilder(256);
+
+        Ndjson(WritableByteChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void webpage(WebpageLink wl) throws IOException {
+            sb.setLength(0);
+            sb.append("{\"type\":\"webpage\",\"url\":");
+            quote(wl.getUrl());
+            sb.append(",\"statusCode\":").append(wl.getStatusCode());
+            sb.append(",\"linkCount\":").append(wl.getLinkCount());
+            sb.append(",\"accessTime\":");
+            quote(String.valueOf(wl.getAccessTime()));
+            sb.append("}\n");
+
+            write(sb.toString());
+        }
+
+        @Override
+        public void broken(BrokenLink bl) throws IOException {
+            sb.setLength(0);
+            sb.append("{\"type\":\"broken\",\"url\":");
+            quote(bl.getUrl());
+            sb.append(",\"statusCode\":").append(bl.getStatusCode());
+            sb.append(",\"reason\":");
+            quote(bl.getReason());
+            sb.append(",\"anchorText\":");
+            quote(bl.getAnchorText());
+            sb.append(",\"webpageUrls\":[");
+
+            UrlDictionary urls = bl.getUrlDictionary();
+            int[] sources = bl.getSources();
+
+            for (int i = 0; i < sources.length; i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+
+                quote(urls.get(sources[i]));
+            }
+
+            sb.append("]}\n");
+
+            write(sb.toString());
+        }
+
+        private void quote(String value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+
+            sb.append('"');
+
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                    }
+                }
+            }
+
+            sb.append('"');
+        }
+    }
+
+    private static final class Csv extends ResultWriter {
+        private final StringBuilder sb = new StringBuilder(256);
+
+        Csv(WritableByteChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void webpage(WebpageLink wl) throws IOException {
+            sb.setLength(0);
+            sb.append("webpage,");
+            field(wl.getUrl());
+            sb.append(',').append(wl.getStatusCode()).append(",,");
+            sb.append(wl.getLinkCount()).append(',');
+            field(String.valueOf(wl.getAccessTime()));
+            sb.append(",,\n");
+
+            write(sb.toString());
+        }
+
+        @Override
+        public void broken(BrokenLink bl) throws IOException {
+            sb.setLength(0);
+            sb.append("broken,");
+            field(bl.getUrl());
+            sb.append(',').append(bl.getStatusCode()).append(',');
+            field(bl.getReason());
+            sb.append(",,,");
+            field(bl.getAnchorText());
+            sb.append(',');
+            field(String.join(" ", bl.getWebpageUrls()));
+            sb.append('\n');
+
+            write(sb.toString());
+        }
+
+        private void field(String value) {
+            if (value == null) {
+                return;
+            }
+
+            boolean quoted = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+
+            if (!quoted) {
+                sb.append(value);
+                return;
+            }
+
+            sb.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    private static final class Binary extends ResultWriter {
+        private final UrlDictionary sourceIds = new UrlDictionary();     // url webpage sumber yang sudah ditulis sebagai record 'U'
+
+        Binary(WritableByteChannel channel) {
+            super(channel);
+        }
+
+        @Override
+        public void webpage(WebpageLink wl) throws IOException {
+            writeByte('W');
+            string(wl.getUrl());
+            writeVarLong(wl.getStatusCode());
+            writeVarLong(wl.getLinkCount());
+            writeVarLong(wl.getAccessTime() == null ? 0 : wl.getAccessTime().toEpochMilli());
+        }
+
+        @Override
+        public void broken(BrokenLink bl) throws IOException {
+            UrlDictionary urls = bl.getUrlDictionary();
+            int[] sources = bl.getSources();
+
+            // id sumber di file ini; url yang belum pernah ditulis didefinisikan dulu dengan record 'U'
+            for (int i = 0; i < sources.length; i++) {
+                String url = urls.get(sources[i]);
+                int before = sourceIds.size();
+
+                sources[i] = sourceIds.intern(url);
+
+                if (sources[i] == before) {
+                    writeByte('U');
+                    string(url);
+                }
+            }
+
+            writeByte('B');
+            string(bl.getUrl());
+            writeVarLong(bl.getStatusCode());
+            string(bl.getReason());
+            string(bl.getAnchorText());
+            writeVarLong(sources.length);
+
+            for (int id : sources) {
+                writeVarLong(id);
+            }
+        }
+
+        private void string(String value) throws IOException {
+            byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+
+            writeVarLong(bytes.length);
+            write(bytes);
+        }
+    }
+
+    // ===================== Membaca format binary =====================
+
+    /**
+     * Membaca file hasil dalam format binary. Record terakhir yang terpotong diabaikan.
+     * Semua BrokenLink dari satu file memakai satu UrlDictionary.
+     */
+    public static void readBinary(Path path, Consumer<WebpageLink> webpageLink, Consumer<BrokenLink> brokenLink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE))) {
+            byte[] magic = new byte[BINARY_MAGIC.length];
+            in.readFully(magic);
+
+            if (!Arrays.equals(magic, BINARY_MAGIC)) {
+                throw new IOException("Not a binary result file: " + path);
+            }
+
+            UrlDictionary urls = new UrlDictionary();
+            int[] sourceIds = new int[64];      // id sumber di file -> id di urls
+            int sourceCount = 0;
+            int tag;
+
+            while ((tag = in.read()) >= 0) {
+                try {
+                    if (tag == 'W') {
+                        String url = readString(in);
+                        int statusCode = (int) readVarLong(in);
+                        int linkCount = (int) readVarLong(in);
+                        Instant accessTime = Instant.ofEpochMilli(readVarLong(in));
+
+                        webpageLink.accept(new WebpageLink(url, statusCode, linkCount, accessTime));
+                    } else if (tag == 'U') {
+                        if (sourceCount == sourceIds.length) {
+                            sourceIds = Arrays.copyOf(sourceIds, sourceCount * 2);
+                        }
+
+                        sourceIds[sourceCount++] = urls.intern(readString(in));
+                    } else if (tag == 'B') {
+                        String url = readString(in);
+                        int statusCode = (int) readVarLong(in);
+                        String reason = readString(in);
+                        BrokenLink bl = new BrokenLink(urls, url, statusCode, reason, readString(in), null);
+
+                        for (long i = readVarLong(in); i > 0; i--) {
+                            int id = (int) readVarLong(in);
+
+                            if (id >= sourceCount) {
+                                throw new IOException("Corrupt binary result file: " + path);
+                            }
+
+                            bl.addSource(sourceIds[id]);
+                        }
+
+                        brokenLink.accept(bl);
+                    } else {
+                        throw new IOException("Corrupt binary result file: " + path);
+                    }
+                } catch (EOFException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+
+            if (b < 0) {
+                throw new EOFException();
+            }
+
+            value |= (long) (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint");
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(in)];
+        in.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,98 @@
+package com.unpar.webcrawler.cores;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * robots.txt setiap origin untuk satu crawl.
+ *
+ * robots.txt di-fetch sekali per origin; thread lain yang meminta origin yang sama menunggu
+ * hasil fetch pertama. Crawl-delay dari robots.txt diterapkan ke setiap HostThrottle yang
+ * diberikan (fetch webpage dan cek link) untuk host tersebut.
+ */
+final class RobotsCache {
+
+    private final Map<String, CompletableFuture<RobotsTxt>> robots = new ConcurrentHashMap<>();    // origin -> robots.txt
+    private final HttpFetcher fetcher;
+    private final String userAgent;
+    private final HostThrottle[] throttles;
+
+    /**
+     * @param userAgent user agent crawler, menentukan grup aturan yang dipakai
+     * @param throttles throttle yang menerima Crawl-delay
+     */
+    RobotsCache(HttpFetcher fetcher, String userAgent, HostThrottle... throttles) {
+        this.fetcher = fetcher;
+        this.userAgent = userAgent;
+        this.throttles = throttles;
+    }
+
+    /**
+     * robots.txt origin url.
+     */
+    RobotsTxt of(String url) {
+        String origin = originOf(url);
+        CompletableFuture<RobotsTxt> created = new CompletableFuture<>();
+        CompletableFuture<RobotsTxt> existing = robots.putIfAbsent(origin, created);
+
+        if (existing != null) {
+            return existing.join();
+        }
+
+        RobotsTxt robotsTxt = fetch(origin);
+        created.complete(robotsTxt);
+
+        if (robotsTxt.getCrawlDelay() != null) {
+            String host = Frontier.hostOf(url);
+
+            for (HostThrottle throttle : throttles) {
+                throttle.setCrawlDelay(host, robotsTxt.getCrawlDelay());
+            }
+        }
+
+        return robotsTxt;
+    }
+
+    /**
+     * Status robots.txt mengikuti RFC 9309: 4xx berarti tidak ada larangan, 5xx (dan 429)
+     * berarti seluruh situs dilarang. Jika request gagal tanpa respon, crawl tetap berjalan
+     * agar kegagalan yang sama muncul sebagai broken link pada seed.
+     */
+    RobotsTxt fetch(String origin) {
+        try (HttpFetcher.Page res = fetcher.fetchPage(origin + "/robots.txt", RobotsTxt.MAX_SIZE)) {
+            int statusCode = res.statusCode();
+
+            if (statusCode >= 500 || statusCode == 429) {
+                return RobotsTxt.DISALLOW_ALL;
+            }
+
+            if (statusCode >= 400) {
+                return RobotsTxt.ALLOW_ALL;
+            }
+
+            Charset charset = Crawler.charsetOf(res.charset());
+            String content = new String(res.body().readAllBytes(), charset != null ? charset : StandardCharsets.UTF_8);
+
+            return RobotsTxt.parse(content, userAgent);
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+
+            return RobotsTxt.ALLOW_ALL;
+        }
+    }
+
+    static String originOf(String url) {
+        try {
+            URI uri = URI.create(url);
+            return uri.getScheme() + "://" + uri.getRawAuthority();
+        } catch (Exception e) {
+            return "";
+        }
+    }
+}
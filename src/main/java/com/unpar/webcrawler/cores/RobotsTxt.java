@@ -0,0 +1,243 @@
+package com.unpar.webcrawler.cores;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aturan robots.txt satu origin untuk user agent crawler ini (RFC 9309).
+ *
+ * - Grup dipilih dari product token user agent (teks sebelum '/'), tanpa membedakan huruf
+ *   besar-kecil; jika tidak ada grup yang cocok, dipakai grup "*". Beberapa grup yang
+ *   cocok digabung.
+ * - Aturan Allow / Disallow mendukung wildcard '*' dan '$' (akhir path). Aturan dengan
+ *   pola terpanjang yang cocok menang; jika sama panjang, Allow menang.
+ * - Crawl-delay (bukan bagian RFC, tetapi umum dipakai) diambil dari grup yang dipilih.
+ * - Baris Sitemap berlaku global, tidak bergantung grup.
+ */
+public final class RobotsTxt {
+
+    static final int MAX_SIZE = 500 * 1024;         // RFC 9309: minimal 500 KiB pertama harus di-parse
+
+    public static final RobotsTxt ALLOW_ALL = new RobotsTxt(List.of(), null, List.of());
+    public static final RobotsTxt DISALLOW_ALL = new RobotsTxt(List.of(new Rule("/", false)), null, List.of());
+
+    private final List<Rule> rules;
+    private final Duration crawlDelay;
+    private final List<String> sitemaps;
+
+    private RobotsTxt(List<Rule> rules, Duration crawlDelay, List<String> sitemaps) {
+        this.rules = rules;
+        this.crawlDelay = crawlDelay;
+        this.sitemaps = sitemaps;
+    }
+
+    /**
+     * @param userAgent nilai header User-Agent crawler, misalnya "BrokenLinkChecker/1.0 (...)"
+     */
+    public static RobotsTxt parse(String content, String userAgent) {
+        String token = productToken(userAgent);
+
+        List<Rule> matched = new ArrayList<>();         // aturan grup yang menyebut token crawler ini
+        List<Rule> wildcard = new ArrayList<>();        // aturan grup "*"
+        Duration matchedDelay = null;
+        Duration wildcardDelay = null;
+        boolean anyMatched = false;
+        List<String> sitemaps = new ArrayList<>();
+
+        boolean inAgents = false;           // baris sebelumnya user-agent (grup yang sama)
+        boolean groupMatched = false;
+        boolean groupWildcard = false;
+
+        for (String rawLine : content.split("\r\n|\r|\n")) {
+            int hash = rawLine.indexOf('#');
+            String line = (hash >= 0 ? rawLine.substring(0, hash) : rawLine).trim();
+            int colon = line.indexOf(':');
+
+            if (colon <= 0) {
+                continue;
+            }
+
+            String field = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            switch (field) {
+                case "user-agent" -> {
+                    if (!inAgents) {
+                        groupMatched = false;       // grup baru dimulai
+                        groupWildcard = false;
+                    }
+
+                    inAgents = true;
+
+                    if (value.equals("*")) {
+                        groupWildcard = true;
+                    } else if (productToken(value).equalsIgnoreCase(token)) {
+                        groupMatched = true;
+                        anyMatched = true;
+                    }
+                }
+                case "allow", "disallow" -> {
+                    inAgents = false;
+
+                    if (value.isEmpty()) {
+                        continue;                   // "Disallow:" kosong berarti tidak ada larangan
+                    }
+
+                    Rule rule = new Rule(value, field.equals("allow"));
+
+                    if (groupMatched) {
+                        matched.add(rule);
+                    }
+                    if (groupWildcard) {
+                        wildcard.add(rule);
+                    }
+                }
+                case "crawl-delay" -> {
+                    inAgents = false;
+                    Duration delay = parseDelay(value);
+
+                    if (groupMatched && delay != null) {
+                        matchedDelay = delay;
+                    }
+                    if (groupWildcard && delay != null) {
+                        wildcardDelay = delay;
+                    }
+                }
+                case "sitemap" -> {
+                    if (!value.isEmpty()) {
+                        sitemaps.add(value);
+                    }
+                }
+                default -> inAgents = false;
+            }
+        }
+
+        return anyMatched
+                ? new RobotsTxt(matched, matchedDelay, sitemaps)
+                : new RobotsTxt(wildcard, wildcardDelay, sitemaps);
+    }
+
+    private static String productToken(String userAgent) {
+        String token = userAgent.trim();
+        int end = 0;
+
+        while (end < token.length() && token.charAt(end) != '/' && !Character.isWhitespace(token.charAt(end))) {
+            end++;
+        }
+
+        return token.substring(0, end);
+    }
+
+    private static Duration parseDelay(String value) {
+        try {
+            double seconds = Double.parseDouble(value);
+            return seconds > 0 && Double.isFinite(seconds) ? Duration.ofMillis((long) (seconds * 1000)) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @param pathAndQuery path beserta query url, misalnya "/search?q=x"
+     */
+    public boolean isAllowed(String pathAndQuery) {
+        if (pathAndQuery.isEmpty()) {
+            pathAndQuery = "/";
+        }
+
+        if (pathAndQuery.equals("/robots.txt")) {
+            return true;
+        }
+
+        Rule best = null;
+
+        for (Rule rule : rules) {
+            if (rule.matches(pathAndQuery)
+                    && (best == null || rule.pattern.length() > best.pattern.length()
+                        || rule.pattern.length() == best.pattern.length() && rule.allow)) {
+                best = rule;
+            }
+        }
+
+        return best == null || best.allow;
+    }
+
+    /**
+     * Sama seperti isAllowed(String) untuk url absolut.
+     */
+    public boolean isAllowedUrl(String url) {
+        int scheme = url.indexOf("://");
+        int path = scheme < 0 ? -1 : url.indexOf('/', scheme + 3);
+
+        if (path < 0) {
+            int query = scheme < 0 ? -1 : url.indexOf('?', scheme + 3);
+            return isAllowed(query < 0 ? "/" : "/" + url.substring(query));
+        }
+
+        int fragment = url.indexOf('#', path);
+
+        return isAllowed(fragment < 0 ? url.substring(path) : url.substring(path, fragment));
+    }
+
+    /**
+     * Jeda minimum antar request ke host ini, null jika tidak ditentukan.
+     */
+    public Duration getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    public List<String> getSitemaps() {
+        return sitemaps;
+    }
+
+    /**
+     * Satu aturan Allow / Disallow.
+     */
+    private record Rule(String pattern, boolean allow) {
+
+        /**
+         * Pola cocok dengan awal path, '*' cocok dengan teks apa pun dan '$' di akhir pola
+         * berarti path harus berakhir di situ. Pencocokan dua pointer: setiap '*' hanya
+         * diulang dari posisi terakhirnya, tanpa backtracking eksponensial.
+         */
+        boolean matches(String path) {
+            boolean anchored = pattern.endsWith("$");
+            int end = anchored ? pattern.length() - 1 : pattern.length();
+            int p = 0;
+            int s = 0;
+            int starP = -1;
+            int starS = 0;
+
+            while (true) {
+                if (!anchored && p == end) {
+                    return true;                // pola habis: awal path cocok
+                }
+
+                if (s == path.length()) {
+                    break;
+                }
+
+                if (p < end && pattern.charAt(p) == '*') {
+                    starP = p++;
+                    starS = s;
+                } else if (p < end && pattern.charAt(p) == path.charAt(s)) {
+                    p++;
+                    s++;
+                } else if (starP >= 0) {
+                    p = starP + 1;
+                    s = ++starS;
+                } else {
+                    return false;
+                }
+            }
+
+            while (p < end && pattern.charAt(p) == '*') {
+                p++;
+            }
+
+            return p == end;
+        }
+    }
+}
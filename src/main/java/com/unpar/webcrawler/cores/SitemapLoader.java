@@ -0,0 +1,82 @@
+package com.unpar.webcrawler.cores;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Mengisi frontier dari sitemap situs saat crawl dimulai.
+ *
+ * Sitemap yang dibaca adalah yang disebut robots.txt, atau /sitemap.xml jika tidak ada,
+ * termasuk anak dari sitemap index (rekursif, paling banyak MAX_SITEMAPS file). Url
+ * webpage diberikan per batch SITEMAP_BATCH url, sehingga penerima cukup mengambil lock
+ * frontier sekali per batch. Sitemap yang tidak ada atau rusak diabaikan; url yang sudah
+ * terbaca sebelum kerusakan tetap dipakai.
+ */
+final class SitemapLoader {
+
+    private static final int MAX_SITEMAPS = 1000;                     // file sitemap (termasuk anak sitemap index) per crawl
+    private static final int MAX_SITEMAP_URLS = 50_000;               // loc per file sitemap (sitemaps.org)
+    private static final int MAX_SITEMAP_SIZE = 50 * 1024 * 1024;     // 50 MB per file sitemap (sitemaps.org)
+    private static final int SITEMAP_BATCH = 1000;                    // url sitemap diberikan per batch
+
+    private final HttpFetcher fetcher;
+
+    SitemapLoader(HttpFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
+
+    /**
+     * Membaca semua sitemap situs seed. Berhenti lebih awal jika stop bernilai true
+     * (crawl dihentikan atau budget habis) atau thread di-interrupt.
+     *
+     * @param robotsTxt robots.txt seed, sumber daftar sitemap
+     * @param batches   penerima url webpage per batch, url belum dinormalisasi
+     */
+    void load(String seedUrl, RobotsTxt robotsTxt, Consumer<List<String>> batches, BooleanSupplier stop) {
+        Deque<String> pending = new ArrayDeque<>(robotsTxt.getSitemaps());
+        Set<String> visited = new HashSet<>();
+
+        if (pending.isEmpty()) {
+            pending.add(RobotsCache.originOf(seedUrl) + "/sitemap.xml");
+        }
+
+        while (!pending.isEmpty() && visited.size() < MAX_SITEMAPS && !stop.getAsBoolean()) {
+            String sitemapUrl = pending.poll();
+
+            if (!visited.add(sitemapUrl)) {
+                continue;
+            }
+
+            List<String> batch = new ArrayList<>(SITEMAP_BATCH);
+
+            try (HttpFetcher.Page res = fetcher.fetchPage(sitemapUrl, MAX_SITEMAP_SIZE)) {
+                if (res.statusCode() >= 400) {
+                    continue;
+                }
+
+                SitemapReader.read(res.body(), url -> {
+                    batch.add(url);
+
+                    if (batch.size() == SITEMAP_BATCH) {
+                        batches.accept(batch);
+                        batch.clear();
+                    }
+                }, pending::add, MAX_SITEMAP_URLS);
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                // sitemap tidak dapat dibaca, url yang sudah terbaca tetap dipakai
+            }
+
+            batches.accept(batch);
+        }
+    }
+}
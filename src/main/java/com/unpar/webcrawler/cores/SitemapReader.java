@@ -0,0 +1,176 @@
+package com.unpar.webcrawler.cores;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Membaca sitemap (sitemaps.org) secara streaming dengan StAX, tanpa membangun DOM:
+ * - urlset: setiap &lt;url&gt;&lt;loc&gt; diberikan ke pageUrl
+ * - sitemapindex: setiap &lt;sitemap&gt;&lt;loc&gt; diberikan ke childSitemap
+ * - sitemap teks: satu url per baris
+ *
+ * Body gzip (misalnya sitemap.xml.gz yang dikirim tanpa Content-Encoding) dikenali dari
+ * magic byte-nya. DTD dan entity eksternal dimatikan.
+ */
+final class SitemapReader {
+
+    private static final XMLInputFactory FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        FACTORY.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, false);
+    }
+
+    private SitemapReader() {
+    }
+
+    /**
+     * @param maxUrls jumlah loc maksimum yang dibaca dari satu file (sitemaps.org: 50.000);
+     *                sisanya diabaikan, sekaligus membatasi kerja untuk gzip yang mengembang besar
+     * @return jumlah loc yang dibaca
+     */
+    static int read(InputStream body, Consumer<String> pageUrl, Consumer<String> childSitemap, int maxUrls) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(body);
+
+        if (startsWith(in, 0x1f, 0x8b)) {
+            in = new BufferedInputStream(new GZIPInputStream(in));
+        }
+
+        if (!isXml(in)) {
+            return readText(in, pageUrl, maxUrls);
+        }
+
+        int count = 0;
+        XMLStreamReader xml = null;
+
+        try {
+            xml = FACTORY.createXMLStreamReader(in);
+
+            String parent = null;           // "url" atau "sitemap" yang sedang dibaca
+            boolean inLoc = false;
+            StringBuilder loc = new StringBuilder();
+
+            while (xml.hasNext() && count < maxUrls) {
+                switch (xml.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        String name = localName(xml.getLocalName());
+
+                        if (name.equals("url") || name.equals("sitemap")) {
+                            parent = name;
+                        } else if (name.equals("loc") && parent != null) {
+                            inLoc = true;
+                            loc.setLength(0);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (inLoc) {
+                            loc.append(xml.getText());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        String name = localName(xml.getLocalName());
+
+                        if (name.equals("loc") && inLoc) {
+                            inLoc = false;
+                            String url = loc.toString().trim();
+
+                            if (!url.isEmpty()) {
+                                (parent.equals("url") ? pageUrl : childSitemap).accept(url);
+                                count++;
+                            }
+                        } else if (name.equals(parent)) {
+                            parent = null;
+                        }
+                    }
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            // xml rusak atau terpotong: url yang sudah terbaca tetap dipakai
+        } finally {
+            if (xml != null) {
+                try {
+                    xml.close();
+                } catch (XMLStreamException ignored) {
+                }
+            }
+        }
+
+        return count;
+    }
+
+    private static int readText(InputStream in, Consumer<String> pageUrl, int maxUrls) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        int count = 0;
+        String line;
+
+        while (count < maxUrls && (line = reader.readLine()) != null) {
+            // BOM di awal file tidak dihapus oleh trim()
+            String url = (line.startsWith("\uFEFF") ? line.substring(1) : line).trim();
+
+            if (url.startsWith("http://") || url.startsWith("https://")) {
+                pageUrl.accept(url);
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Tanpa namespace-aware, nama elemen ber-prefix (misalnya "sm:loc") tetap mengandung prefix.
+     */
+    private static String localName(String name) {
+        int colon = name.indexOf(':');
+        return colon < 0 ? name : name.substring(colon + 1);
+    }
+
+    private static boolean startsWith(BufferedInputStream in, int b0, int b1) throws IOException {
+        in.mark(2);
+        boolean result = in.read() == b0 && in.read() == b1;
+        in.reset();
+
+        return result;
+    }
+
+    /**
+     * Karakter pertama selain spasi (dan BOM) adalah '&lt;'.
+     */
+    private static boolean isXml(BufferedInputStream in) throws IOException {
+        in.mark(1024);
+
+        try {
+            for (int i = 0; i < 1024; i++) {
+                int b = in.read();
+
+                if (b < 0) {
+                    return false;
+                }
+
+                if (b == '<') {
+                    return true;
+                }
+
+                if (!Character.isWhitespace(b) && b != 0xEF && b != 0xBB && b != 0xBF) {
+                    return false;
+                }
+            }
+
+            return false;
+        } finally {
+            in.reset();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.unpar.webcrawler.cores;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hasil fetch webpage dari crawl sebelumnya, untuk re-crawl inkremental satu situs.
+ *
+ * Setiap entry menyimpan validator HTTP (ETag, Last-Modified), hash body, dan link hasil
+ * extractLinks. Crawl berikutnya mengirim If-None-Match / If-Modified-Since; jika server
+ * menjawab 304, link diambil dari entry dan webpage tidak di-parse lagi. Body yang dikirim
+ * ulang tetap di-parse sambil di-hash (tidak dibaca utuh ke memori); jika hash-nya sama,
+ * webpage dihitung tidak berubah dan entry tidak ditulis ulang. Link tetap dicek seperti
+ * biasa, sehingga laporan broken link tetap lengkap.
+ *
+ * Satu file per seed, append-only: setiap record diawali panjangnya, sehingga saat dibuka
+ * cukup url dan posisi record yang dibaca ke memori (indeks). get() membaca record dari
+ * disk sesuai posisinya. Record lama untuk url yang sama menjadi sampah dan dibuang saat
+ * file dibuka jika jumlahnya lebih dari separuh isi file. Record terakhir yang terpotong
+ * (crash saat menulis) diabaikan.
+ *
+ * Format record: [panjang int][url][statusCode int][etag][lastModified][hash long]
+ *                [jumlah link int]([url][anchorText])*, string ditulis dengan writeUTF.
+ */
+public class WebpageCache implements AutoCloseable {
+
+    private static final Map<Path, WebpageCache> OPENED = new ConcurrentHashMap<>();
+    private static final long COMPACT_MIN_SIZE = 1024 * 1024;          // file lebih kecil tidak perlu dipadatkan
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Map<String, Long> index = new ConcurrentHashMap<>();    // url -> posisi record terbaru
+    private long end;                                                     // posisi record berikutnya
+
+    private WebpageCache(Path path) throws IOException {
+        this.path = path;
+
+        long live = load();
+
+        if (Files.exists(path) && Files.size(path) > COMPACT_MIN_SIZE && live * 2 < Files.size(path)) {
+            compact();
+        }
+
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.end = channel.size();
+    }
+
+    /**
+     * Membuka (atau mengambil yang sudah terbuka) cache untuk seed tertentu di dalam direktori.
+     */
+    public static WebpageCache open(Path directory, String seedUrl) {
+        Path path = directory.toAbsolutePath().normalize().resolve(fileNameOf(seedUrl));
+
+        return OPENED.computeIfAbsent(path, p -> {
+            try {
+                Files.createDirectories(p.getParent());
+                return new WebpageCache(p);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @return entry terakhir untuk url, atau null jika belum ada atau tidak dapat dibaca
+     */
+    Entry get(String url) {
+        Long position = index.get(url);
+
+        if (position == null) {
+            return null;
+        }
+
+        try {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            readFully(length, position);
+
+            ByteBuffer record = ByteBuffer.allocate(length.flip().getInt());
+            readFully(record, position + Integer.BYTES);
+
+            return decode(record.array());
+        } catch (IOException | RuntimeException e) {
+            return null;                // cache hanya optimasi, record rusak dianggap tidak ada
+        }
+    }
+
+    /**
+     * Menyimpan hasil fetch webpage. etag dan lastModified boleh null.
+     */
+    void put(String url, int statusCode, String etag, String lastModified, long bodyHash, List<Crawler.ExtractedLink> links) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + links.size() * 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+
+            out.writeInt(0);            // panjang, diisi di bawah
+            out.writeUTF(url);
+            out.writeInt(statusCode);
+            out.writeUTF(etag == null ? "" : etag);
+            out.writeUTF(lastModified == null ? "" : lastModified);
+            out.writeLong(bodyHash);
+            out.writeInt(links.size());
+
+            for (Crawler.ExtractedLink link : links) {
+                out.writeUTF(link.url());
+                out.writeUTF(truncate(link.anchorText()));
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(bytes.toByteArray());
+            record.putInt(0, record.limit() - Integer.BYTES);
+
+            synchronized (this) {
+                long position = end;
+
+                while (record.hasRemaining()) {
+                    channel.write(record, position + record.position());
+                }
+
+                end += record.limit();
+                index.put(url, position);
+            }
+        } catch (IOException ignored) {
+            // kegagalan menulis tidak boleh menghentikan crawl
+        }
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    @Override
+    public void close() {
+        OPENED.remove(path);
+
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Menghitung hash body webpage (64 bit pertama SHA-256) sambil body dibaca parser,
+     * sehingga body tetap di-stream. close() dari parser tidak menutup body (body ditutup
+     * oleh pemiliknya), agar sisa body yang tidak dibaca parser ikut di-hash oleh finish().
+     */
+    static final class BodyHasher extends FilterInputStream {
+        private final MessageDigest digest;
+
+        BodyHasher(InputStream body) {
+            this(body, newDigest());
+        }
+
+        private BodyHasher(InputStream body, MessageDigest digest) {
+            super(new DigestInputStream(body, digest));
+            this.digest = digest;
+        }
+
+        @Override
+        public void close() {
+        }
+
+        /**
+         * Membaca sisa body lalu mengembalikan hash-nya, dibandingkan dengan hash pada entry.
+         */
+        long finish() throws IOException {
+            in.transferTo(OutputStream.nullOutputStream());
+
+            return ByteBuffer.wrap(digest.digest()).getLong();
+        }
+
+        private static MessageDigest newDigest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /** ===== Isi file ===== */
+
+    /**
+     * Membangun indeks dari file.
+     *
+     * @return jumlah byte record yang masih berlaku
+     */
+    private long load() throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        Map<String, Integer> sizes = new HashMap<>();
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            ByteBuffer head = ByteBuffer.allocate(Integer.BYTES + 2 + 65535);     // panjang record + url terpanjang
+
+            while (position + Integer.BYTES <= size) {
+                head.clear().limit((int) Math.min(head.capacity(), size - position));
+                in.read(head, position);
+                head.flip();
+
+                int length = head.getInt();
+
+                if (length < 2 || position + Integer.BYTES + length > size) {
+                    break;              // record terakhir terpotong
+                }
+
+                String url = new DataInputStream(new ByteArrayInputStream(head.array(), Integer.BYTES, head.limit() - Integer.BYTES)).readUTF();
+                index.put(url, position);
+                sizes.put(url, Integer.BYTES + length);
+                position += Integer.BYTES + length;
+            }
+
+            if (position < size) {
+                in.truncate(position);
+            }
+        }
+
+        long live = 0;
+
+        for (int size : sizes.values()) {
+            live += size;
+        }
+
+        return live;
+    }
+
+    /**
+     * Menulis ulang file hanya dengan record terbaru setiap url.
+     */
+    private void compact() throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Map<String, Long> compacted = new ConcurrentHashMap<>();
+
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+
+            for (Map.Entry<String, Long> e : index.entrySet()) {
+                in.read(length.clear(), e.getValue());
+                int size = Integer.BYTES + length.flip().getInt();
+
+                compacted.put(e.getKey(), out.position());
+                in.transferTo(e.getValue(), size, out);
+            }
+        }
+
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        index.clear();
+        index.putAll(compacted);
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated record");
+            }
+        }
+    }
+
+    private static Entry decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+
+        in.readUTF();                   // url
+        int statusCode = in.readInt();
+        String etag = in.readUTF();
+        String lastModified = in.readUTF();
+        long hash = in.readLong();
+        int count = in.readInt();
+
+        List<Crawler.ExtractedLink> links = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            links.add(new Crawler.ExtractedLink(in.readUTF(), in.readUTF()));
+        }
+
+        return new Entry(statusCode, etag.isEmpty() ? null : etag, lastModified.isEmpty() ? null : lastModified, hash, links);
+    }
+
+    /**
+     * writeUTF menerima paling banyak 65535 byte; anchor text panjang dipotong.
+     */
+    private static String truncate(String text) {
+        return text.length() > 16_000 ? text.substring(0, 16_000) : text;
+    }
+
+    private static String fileNameOf(String seedUrl) {
+        String host = Frontier.hostOf(seedUrl).replaceAll("[^a-z0-9.-]", "_");
+        return host + "-" + Integer.toHexString(seedUrl.hashCode()) + ".pages";
+    }
+
+    /**
+     * @param statusCode   status code saat webpage terakhir di-fetch dengan body
+     * @param etag         header ETag, null jika tidak ada
+     * @param lastModified header Last-Modified, null jika tidak ada
+     * @param bodyHash     lihat BodyHasher
+     * @param links        hasil extractLinks dari body tersebut
+     */
+    record Entry(int statusCode, String etag, String lastModified, long bodyHash, List<Crawler.ExtractedLink> links) {
+    }
+}
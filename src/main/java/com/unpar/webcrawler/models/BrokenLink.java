@@ -1,32 +1,104 @@
 package com.unpar.webcrawler.models;
 
+import com.unpar.webcrawler.utils.UrlDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Satu record per broken link unik. Url broken link dan semua webpage yang menautkannya
+ * disimpan sebagai id di UrlDictionary milik crawl, sehingga webpage yang menautkan banyak
+ * broken link tidak disimpan berulang kali. Webpage sumber bisa bertambah setelah record
+ * dibuat (link yang sama ditemukan lagi di webpage lain), karena itu aksesnya synchronized.
+ */
 public final class BrokenLink extends Link {
-    private String anchorText;
-    private String webpageUrl;
+    private final UrlDictionary urls;
+    private final int url;              // id url di urls
+    private final String anchorText;    // anchor text di webpage sumber pertama
+    private int[] sources;              // id webpage yang menautkan link ini, sesuai urutan ditemukan
+    private int sourceCount = 0;
 
-    public BrokenLink(String url, int code, String anchorText, String webpageUrl) {
-        super(url, code);
+    /**
+     * @param webpageUrl webpage sumber pertama, kosong / null jika tidak diketahui (misalnya seed)
+     */
+    public BrokenLink(UrlDictionary urls, String url, int statusCode, String reason, String anchorText, String webpageUrl) {
+        super(statusCode, reason);
+        this.urls = urls;
+        this.url = urls.intern(url);
         this.anchorText = anchorText;
-        this.webpageUrl = webpageUrl;
+
+        if (webpageUrl != null && !webpageUrl.isEmpty()) {
+            addSource(urls.intern(webpageUrl));
+        }
+    }
+
+    // ===================== Getter url =====================
+
+    @Override
+    public String getUrl() {
+        return urls.get(url);
+    }
+
+    public int getUrlId() {
+        return url;
+    }
+
+    public UrlDictionary getUrlDictionary() {
+        return urls;
     }
 
-    // ===================== Getter & Setter anchorText =====================
+    // ===================== Getter anchorText =====================
 
     public String getAnchorText() {
         return anchorText;
     }
 
-    public void setAnchorText(String value) {
-        this.anchorText = value;
+    // ===================== Webpage sumber =====================
+
+    /**
+     * @param webpageId id webpage di getUrlDictionary()
+     */
+    public synchronized void addSource(int webpageId) {
+        if (sources == null) {
+            sources = new int[1];
+        } else if (sourceCount == sources.length) {
+            sources = Arrays.copyOf(sources, sourceCount < 8 ? sourceCount * 2 : sourceCount + (sourceCount >> 1));
+        }
+
+        sources[sourceCount++] = webpageId;
     }
 
-    // ===================== Getter & Setter webpageUrl =====================
+    public void addSource(String webpageUrl) {
+        addSource(urls.intern(webpageUrl));
+    }
+
+    public synchronized int getSourceCount() {
+        return sourceCount;
+    }
 
-    public String getWebpageUrl() {
-        return webpageUrl;
+    /**
+     * @return salinan id webpage sumber
+     */
+    public synchronized int[] getSources() {
+        return sources == null ? new int[0] : Arrays.copyOf(sources, sourceCount);
     }
 
-    public void setWebpageUrl(String value) {
-        this.webpageUrl = value;
+    /**
+     * Webpage sumber pertama, kosong jika tidak diketahui.
+     */
+    public synchronized String getWebpageUrl() {
+        return sourceCount == 0 ? "" : urls.get(sources[0]);
+    }
+
+    public List<String> getWebpageUrls() {
+        int[] ids = getSources();
+        List<String> result = new ArrayList<>(ids.length);
+
+        for (int id : ids) {
+            result.add(urls.get(id));
+        }
+
+        return result;
     }
 }
@@ -3,31 +3,43 @@ package com.unpar.webcrawler.models;
 import com.unpar.webcrawler.utils.HttpStatus;
 
 public abstract class Link {
-    private String url;
-    private String statusCode;
+    private final int statusCode;
+    private final String reason;        // alasan kegagalan untuk status 0 (nama exception), selain itu null
 
-    protected Link(String url, int statusCode) {
-        this.url = url;
-        this.statusCode = HttpStatus.getStatus(statusCode);
+    protected Link(int statusCode) {
+        this(statusCode, null);
     }
 
-    // ===================== Getter & Setter url =====================
-
-    public String getUrl() {
-        return url;
+    /**
+     * @param reason alasan kegagalan untuk status 0, lihat HttpStatus.getStatus(int, String)
+     */
+    protected Link(int statusCode, String reason) {
+        this.statusCode = statusCode;
+        this.reason = statusCode == 0 && reason != null && !reason.isBlank() ? reason : null;
     }
 
-    public void setUrl(String value) {
-        this.url = value;
-    }
+    // ===================== Getter url =====================
+
+    public abstract String getUrl();
 
-    // ===================== Getter & Setter statusCode =====================
+    // ===================== Getter statusCode =====================
 
-    public String getStatusCode() {
+    public int getStatusCode() {
         return statusCode;
     }
 
-    public void setStatusCode(int value) {
-        this.statusCode = HttpStatus.getStatus(value);
+    /**
+     * Kode status beserta reason phrase, misalnya "404 Not Found" atau "0 HttpConnectTimeoutException".
+     * Dibentuk saat dipanggil, tidak disimpan.
+     */
+    public String getStatus() {
+        return HttpStatus.getStatus(statusCode, reason);
+    }
+
+    /**
+     * Teks setelah kode pada getStatus(), kosong jika tidak ada.
+     */
+    public String getReason() {
+        return reason != null ? reason : HttpStatus.getReason(statusCode);
     }
 }
@@ -4,15 +4,28 @@ import java.time.Instant;
 
 public final class WebpageLink extends Link {
 
+    private String url;
     private int linkCount;
     private Instant accessTime;
 
     public WebpageLink(String url, int statusCode, int linkCount, Instant accessTime) {
-        super(url, statusCode);
+        super(statusCode);
+        this.url = url;
         this.linkCount = linkCount;
         this.accessTime = accessTime;
     }
 
+    // ===================== Getter & Setter url =====================
+
+    @Override
+    public String getUrl() {
+        return url;
+    }
+
+    public void setUrl(String value) {
+        this.url = value;
+    }
+
     // ===================== Getter & Setter linkCount =====================
 
     public int getLinkCount() {
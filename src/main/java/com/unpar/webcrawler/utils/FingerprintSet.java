@@ -0,0 +1,406 @@
+package com.unpar.webcrawler.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Himpunan url yang sudah pernah dilihat, disimpan sebagai fingerprint 64-bit di tabel
+ * open-addressing (linear probing) bertipe long[], bukan sebagai String di HashSet.
+ *
+ * Memori per url:
+ * - HashSet<String> : objek String + byte[] + HashMap.Node + slot tabel, sekitar 100 byte + panjang url
+ * - onHeap()        : 8 byte per slot dengan load factor maksimum 0.7, sekitar 11-23 byte per url
+ * - mapped()        : 8 byte per slot di file yang di-map ke memori (off-heap, tidak membebani GC)
+ *
+ * Probabilitas tabrakan: dua url berbeda dianggap sama jika fingerprint-nya sama. Dengan
+ * n url dan hash 64-bit yang terdistribusi merata, peluang terjadi minimal satu tabrakan
+ * kira-kira n^2 / 2^65, misalnya 1 juta url ~ 2.7e-8 dan 100 juta url ~ 2.7e-4. Akibat
+ * tabrakan hanyalah satu url tidak di-crawl / dicek.
+ *
+ * Kedua varian aman dipakai oleh banyak thread: onHeap() dipecah menjadi beberapa stripe
+ * yang masing-masing memiliki lock sendiri, mapped() memakai compare-and-set per slot dan
+ * hanya berhenti sejenak saat tabelnya diperbesar.
+ */
+public abstract class FingerprintSet {
+
+    private static final long EMPTY = 0L;                   // slot kosong, fingerprint 0 dipetakan ke 1
+    private static final double MAX_LOAD = 0.7;
+
+    /**
+     * @return true jika url belum pernah ditambahkan
+     */
+    public boolean add(String url) {
+        return addFingerprint(fingerprint(url));
+    }
+
+    public boolean contains(String url) {
+        return containsFingerprint(fingerprint(url));
+    }
+
+    public abstract long size();
+
+    protected abstract boolean addFingerprint(long fp);
+
+    protected abstract boolean containsFingerprint(long fp);
+
+    /**
+     * Tabel di heap yang bisa membesar sendiri, dipecah menjadi stripe agar thread yang
+     * menambah url berbeda jarang saling menunggu.
+     */
+    public static FingerprintSet onHeap(int expectedSize) {
+        return new Striped(expectedSize, 64);
+    }
+
+    /**
+     * Tabel off-heap di file yang di-map ke memori (kapasitas awal dibulatkan ke pangkat dua).
+     * Jika terisi lebih dari load factor maksimum, isinya dipindah ke file dua kali lebih
+     * besar, sampai 2^27 slot = 1 GB; setelah itu url berikutnya disimpan di heap seperti
+     * onHeap(). Isi file lama ditimpa.
+     */
+    public static FingerprintSet mapped(Path file, long expectedSize) {
+        return new Mapped(file, expectedSize);
+    }
+
+    /**
+     * Hash 64-bit ala MurmurHash3: empat karakter UTF-16 digabung menjadi satu long per
+     * langkah, lalu hasil akhirnya diaduk dengan fmix64 agar bit atas dan bawah sama-sama acak.
+     */
+    public static long fingerprint(String url) {
+        int n = url.length();
+        long h = 0x9e3779b97f4a7c15L ^ n;
+        int i = 0;
+
+        for (; i + 4 <= n; i += 4) {
+            long k = url.charAt(i)
+                    | (long) url.charAt(i + 1) << 16
+                    | (long) url.charAt(i + 2) << 32
+                    | (long) url.charAt(i + 3) << 48;
+
+            h = Long.rotateLeft(h ^ mixK(k), 27) * 5 + 0x52dce729;
+        }
+
+        long k = 0;
+
+        for (int shift = 0; i < n; i++, shift += 16) {
+            k |= (long) url.charAt(i) << shift;
+        }
+
+        h ^= mixK(k);
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h == EMPTY ? 1 : h;
+    }
+
+    private static long mixK(long k) {
+        k *= 0x87c37b91114253d5L;
+        k = Long.rotateLeft(k, 31);
+        return k * 0x4cf5ad432745937fL;
+    }
+
+    private static int tableSizeFor(long expected, int max) {
+        long needed = Math.max(16, (long) Math.ceil(expected / MAX_LOAD));
+        long size = Long.highestOneBit(needed - 1) << 1;
+
+        if (size > max) {
+            throw new IllegalArgumentException("Expected size too large: " + expected);
+        }
+
+        return (int) size;
+    }
+
+    // ===================== On-heap, striped =====================
+
+    private static final class Striped extends FingerprintSet {
+        private final Stripe[] stripes;
+        private final int stripeMask;
+
+        Striped(int expectedSize, int stripeCount) {
+            this.stripes = new Stripe[stripeCount];
+            this.stripeMask = stripeCount - 1;
+
+            int perStripe = Math.max(1, expectedSize / stripeCount);
+
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stripe(tableSizeFor(perStripe, 1 << 30));
+            }
+        }
+
+        @Override
+        protected boolean addFingerprint(long fp) {
+            return stripes[(int) (fp >>> 40) & stripeMask].add(fp);     // bit atas memilih stripe, bit bawah memilih slot
+        }
+
+        @Override
+        protected boolean containsFingerprint(long fp) {
+            return stripes[(int) (fp >>> 40) & stripeMask].contains(fp);
+        }
+
+        @Override
+        public long size() {
+            long total = 0;
+
+            for (Stripe stripe : stripes) {
+                total += stripe.size();
+            }
+
+            return total;
+        }
+    }
+
+    private static final class Stripe {
+        private long[] table;
+        private int size = 0;
+
+        Stripe(int capacity) {
+            this.table = new long[capacity];
+        }
+
+        synchronized boolean add(long fp) {
+            if (!insert(table, fp)) {
+                return false;
+            }
+
+            if (++size > table.length * MAX_LOAD) {
+                resize();
+            }
+
+            return true;
+        }
+
+        synchronized boolean contains(long fp) {
+            int mask = table.length - 1;
+
+            for (int i = (int) fp & mask; ; i = (i + 1) & mask) {
+                long slot = table[i];
+
+                if (slot == fp) return true;
+                if (slot == EMPTY) return false;
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        private void resize() {
+            long[] bigger = new long[table.length << 1];
+
+            for (long fp : table) {
+                if (fp != EMPTY) {
+                    insert(bigger, fp);
+                }
+            }
+
+            table = bigger;
+        }
+
+        private static boolean insert(long[] table, long fp) {
+            int mask = table.length - 1;
+
+            for (int i = (int) fp & mask; ; i = (i + 1) & mask) {
+                long slot = table[i];
+
+                if (slot == fp) return false;
+
+                if (slot == EMPTY) {
+                    table[i] = fp;
+                    return true;
+                }
+            }
+        }
+    }
+
+    // ===================== Off-heap, memory-mapped =====================
+
+    private static final class Mapped extends FingerprintSet {
+        private static final VarHandle SLOT = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+        private static final int MAX_CAPACITY = 1 << 27;                // offset slot masih muat di int (1 GB)
+
+        private final Path file;
+        private final StampedLock resize = new StampedLock();           // add / contains: read lock, grow(): write lock
+        private final AtomicLong size = new AtomicLong();               // jumlah fingerprint di buffer
+        private MappedByteBuffer buffer;                                // field di bawah ini hanya diganti dengan write lock
+        private int mask;
+        private long maxSize;
+        private FingerprintSet overflow;                                // fingerprint setelah tabel tidak dapat membesar, null sebelumnya
+
+        Mapped(Path file, long expectedSize) {
+            int capacity = tableSizeFor(expectedSize, MAX_CAPACITY);
+
+            try {
+                this.buffer = map(file, capacity);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            this.file = file;
+            this.mask = capacity - 1;
+            this.maxSize = (long) (capacity * MAX_LOAD);
+        }
+
+        @Override
+        protected boolean addFingerprint(long fp) {
+            boolean full;
+            long stamp = resize.readLock();
+
+            try {
+                if (overflow != null) {
+                    return !contains(buffer, mask, fp) && overflow.addFingerprint(fp);
+                }
+
+                if (!insert(fp)) {
+                    return false;
+                }
+
+                full = size.incrementAndGet() > maxSize;
+            } finally {
+                resize.unlockRead(stamp);
+            }
+
+            if (full) {
+                grow();
+            }
+
+            return true;
+        }
+
+        @Override
+        protected boolean containsFingerprint(long fp) {
+            long stamp = resize.readLock();
+
+            try {
+                return contains(buffer, mask, fp) || overflow != null && overflow.containsFingerprint(fp);
+            } finally {
+                resize.unlockRead(stamp);
+            }
+        }
+
+        @Override
+        public long size() {
+            long stamp = resize.readLock();
+
+            try {
+                return size.get() + (overflow != null ? overflow.size() : 0);
+            } finally {
+                resize.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Bebas lock antar thread penambah (compare-and-set per slot); read lock hanya
+         * menahan grow().
+         */
+        private boolean insert(long fp) {
+            for (int i = (int) fp & mask; ; i = (i + 1) & mask) {
+                int offset = i << 3;
+                long slot = (long) SLOT.getVolatile(buffer, offset);
+
+                if (slot == fp) return false;
+
+                if (slot == EMPTY) {
+                    if (SLOT.compareAndSet(buffer, offset, EMPTY, fp)) {
+                        return true;
+                    }
+
+                    // slot diambil thread lain, periksa ulang slot yang sama
+                    i = (i - 1) & mask;
+                }
+            }
+        }
+
+        private static boolean contains(MappedByteBuffer buffer, int mask, long fp) {
+            for (int i = (int) fp & mask; ; i = (i + 1) & mask) {
+                long slot = (long) SLOT.getVolatile(buffer, i << 3);
+
+                if (slot == fp) return true;
+                if (slot == EMPTY) return false;
+            }
+        }
+
+        /**
+         * Memindahkan isi tabel ke file dua kali lebih besar yang menggantikan file lama.
+         * Jika tabel sudah MAX_CAPACITY atau file baru tidak dapat dibuat (misalnya disk
+         * penuh), isi tabel tetap dan fingerprint berikutnya disimpan di onHeap().
+         */
+        private void grow() {
+            long stamp = resize.writeLock();
+
+            try {
+                // sudah diperbesar oleh thread lain
+                if (overflow != null || size.get() <= maxSize) {
+                    return;
+                }
+
+                int capacity = mask + 1;
+
+                if (capacity == MAX_CAPACITY) {
+                    overflow = onHeap((int) Math.min(Integer.MAX_VALUE, size.get()));
+                    return;
+                }
+
+                Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+                try {
+                    int biggerMask = (capacity << 1) - 1;
+                    MappedByteBuffer bigger = map(tmp, capacity << 1);
+
+                    for (int i = 0; i < capacity; i++) {
+                        long fp = (long) SLOT.get(buffer, i << 3);
+
+                        if (fp == EMPTY) {
+                            continue;
+                        }
+
+                        int j = (int) fp & biggerMask;
+
+                        while ((long) SLOT.get(bigger, j << 3) != EMPTY) {
+                            j = (j + 1) & biggerMask;
+                        }
+
+                        SLOT.set(bigger, j << 3, fp);
+                    }
+
+                    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                    buffer = bigger;
+                    mask = biggerMask;
+                    maxSize = (long) ((capacity << 1) * MAX_LOAD);
+                } catch (IOException | UncheckedIOException e) {
+                    try {
+                        Files.deleteIfExists(tmp);
+                    } catch (IOException ignored) {
+                    }
+
+                    overflow = onHeap((int) Math.min(Integer.MAX_VALUE, size.get()));
+                }
+            } finally {
+                resize.unlockWrite(stamp);
+            }
+        }
+
+        private static MappedByteBuffer map(Path file, int capacity) throws IOException {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+                return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacity * Long.BYTES);
+            }
+        }
+    }
+}
@@ -59,4 +59,49 @@ public class HttpStatus {
     public static String getStatus(int statusCode) {
         return STATUS_MAP.getOrDefault(statusCode, String.valueOf(statusCode));
     }
+
+    /**
+     * Sama seperti getStatus(), tetapi request yang gagal tanpa respon (status 0) diberi
+     * alasannya, misalnya "0 HttpConnectTimeoutException" atau "0 CircuitOpenException".
+     */
+    public static String getStatus(int statusCode, String reason) {
+        if (statusCode != 0 || reason == null || reason.isBlank()) {
+            return getStatus(statusCode);
+        }
+
+        return statusCode + " " + reason;
+    }
+
+    /**
+     * Reason phrase kode status, misalnya "Not Found" untuk 404; kosong jika tidak dikenal.
+     */
+    public static String getReason(int statusCode) {
+        return getReason(getStatus(statusCode));
+    }
+
+    /**
+     * Teks setelah kode pada hasil getStatus(), kosong jika tidak ada.
+     */
+    public static String getReason(String status) {
+        if (status == null) return "";
+
+        int end = status.indexOf(' ');
+
+        return end < 0 ? "" : status.substring(end + 1);
+    }
+
+    /**
+     * Kebalikan dari getStatus(): mengambil kode status dari teks "404 Not Found" atau "0".
+     */
+    public static int getCode(String status) {
+        if (status == null) return 0;
+
+        int end = status.indexOf(' ');
+
+        try {
+            return Integer.parseInt(end < 0 ? status : status.substring(0, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
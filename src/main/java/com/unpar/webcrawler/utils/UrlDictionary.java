@@ -0,0 +1,113 @@
+package com.unpar.webcrawler.utils;
+
+import java.util.Arrays;
+
+/**
+ * Kamus url: setiap url disimpan satu kali dan diwakili id int (0, 1, 2, ... sesuai urutan
+ * intern()), sehingga hasil crawl yang menyebut url yang sama (misalnya webpage sumber dari
+ * ribuan broken link) cukup menyimpan id 4 byte, bukan String sendiri-sendiri.
+ *
+ * Memori per url: String-nya + 4 byte di array id -> url + slot tabel int[] open-addressing
+ * dengan load factor maksimum 0.7 (sekitar 6-12 byte). Bandingkan dengan HashMap<String, Integer>
+ * yang memerlukan HashMap.Node + Integer, sekitar 50 byte per url.
+ *
+ * Thread-safe. Url tidak pernah dihapus; kamus hidup selama hasil crawl yang memakainya.
+ */
+public final class UrlDictionary {
+
+    private static final int EMPTY = 0;                     // slot kosong, slot berisi id + 1
+    private static final double MAX_LOAD = 0.7;
+
+    private String[] urls = new String[16];
+    private int[] table = new int[32];
+    private int size = 0;
+
+    /**
+     * @return id url, url yang belum ada ditambahkan lebih dulu
+     */
+    public synchronized int intern(String url) {
+        int slot = slotOf(url);
+
+        if (table[slot] != EMPTY) {
+            return table[slot] - 1;
+        }
+
+        if (size == urls.length) {
+            urls = Arrays.copyOf(urls, size * 2);
+        }
+
+        int id = size++;
+        urls[id] = url;
+        table[slot] = id + 1;
+
+        if (size > table.length * MAX_LOAD) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    /**
+     * @return id url, atau -1 jika url belum pernah di-intern
+     */
+    public synchronized int find(String url) {
+        int slot = slotOf(url);
+
+        return table[slot] - 1;
+    }
+
+    /**
+     * @return url dengan id tersebut
+     */
+    public synchronized String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("Unknown url id: " + id);
+        }
+
+        return urls[id];
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Slot url di tabel: slot berisi url tersebut, atau slot kosong tempat url seharusnya disimpan.
+     */
+    private int slotOf(String url) {
+        int mask = table.length - 1;
+        int slot = mix(url.hashCode()) & mask;
+
+        while (table[slot] != EMPTY && !urls[table[slot] - 1].equals(url)) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void rehash() {
+        int[] bigger = new int[table.length * 2];
+        int mask = bigger.length - 1;
+
+        for (int id = 0; id < size; id++) {
+            int slot = mix(urls[id].hashCode()) & mask;
+
+            while (bigger[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+
+            bigger[slot] = id + 1;
+        }
+
+        table = bigger;
+    }
+
+    /**
+     * String.hashCode() url dengan awalan sama berbeda di bit bawah saja; diaduk agar
+     * linear probing tidak membentuk cluster panjang.
+     */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -1,9 +1,13 @@
 module com.unpar.webcrawler {
     requires org.jsoup;
     requires java.net.http;
+    requires java.xml;
+    requires java.management;
+    requires jdk.jfr;
     requires javafx.controls;
     requires javafx.fxml;
 
     exports com.unpar.webcrawler;
+    exports com.unpar.webcrawler.cores to java.management;     // MXBean CrawlMetrics
     opens com.unpar.webcrawler to javafx.fxml;
 }
@@ -0,0 +1,206 @@
+package com.unpar.webcrawler;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crawl batch yang dibunuh di tengah jalan (proses JVM terpisah, Application.main) harus
+ * dilanjutkan oleh run berikutnya dengan seed yang sama: webpage yang sudah selesai tidak
+ * di-fetch lagi, dan file hasil run kedua tetap berisi setiap webpage tepat satu kali.
+ */
+class ApplicationResumeTest {
+
+    private static final int PAGES = 60;
+    private static final long PAGE_DELAY_MILLIS = 100;
+    private static final int DONE_BEFORE_KILL = 10;
+
+    @TempDir
+    Path home;                                              // user.home proses crawl: journal dan cache di sini
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void killedBatchCrawlResumesFromJournal() throws Exception {
+        Path output = home.resolve("results.ndjson");
+        Path journalDirectory = home.resolve(".brokenlinkchecker").resolve("journal");
+
+        // run pertama dibunuh setelah beberapa webpage tercatat selesai
+        Process first = start(output);
+
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+
+            while (doneUrls(journalDirectory).size() < DONE_BEFORE_KILL) {
+                assertTrue(first.isAlive(), "crawl selesai sebelum sempat dibunuh");
+                assertTrue(System.nanoTime() < deadline, "journal tidak pernah mencatat webpage selesai");
+                Thread.sleep(50);
+            }
+        } finally {
+            first.destroyForcibly().waitFor();
+        }
+
+        Set<String> doneBeforeKill = doneUrls(journalDirectory);
+        assertTrue(doneBeforeKill.size() < PAGES);
+
+        // run kedua melanjutkan crawl sampai selesai
+        fetches.clear();
+        Process second = start(output);
+
+        assertTrue(second.waitFor(60, TimeUnit.SECONDS), "crawl yang dilanjutkan tidak selesai");
+        assertEquals(0, second.exitValue());
+
+        for (String url : doneBeforeKill) {
+            assertNull(fetches.get(pathOf(url)), url + " di-fetch ulang");
+        }
+
+        Map<String, Integer> webpages = new HashMap<>();
+
+        for (String line : Files.readAllLines(output)) {
+            if (line.startsWith("{\"type\":\"webpage\"")) {
+                String url = line.substring(line.indexOf("\"url\":\"") + 7, line.indexOf("\",\"statusCode\""));
+                webpages.merge(pathOf(url), 1, Integer::sum);
+            }
+        }
+
+        assertEquals(PAGES, webpages.size());
+        webpages.forEach((path, count) -> assertEquals(1, (int) count, path));
+
+        // crawl yang selesai normal menghapus journal-nya
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            assertFalse(files.anyMatch(f -> f.toString().endsWith(".journal")));
+        }
+    }
+
+    private Process start(Path output) throws IOException {
+        String seed = "http://127.0.0.1:" + server.getAddress().getPort() + "/page/0";
+
+        return new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Duser.home=" + home,
+                "-cp", System.getProperty("java.class.path"),
+                Application.class.getName(),
+                "--output", output.toString(),
+                seed)
+                .redirectErrorStream(true)
+                .redirectOutput(home.resolve("crawl.log").toFile())
+                .start();
+    }
+
+    /**
+     * Url yang tercatat selesai (record D) di journal yang sedang ditulis.
+     */
+    private static Set<String> doneUrls(Path journalDirectory) throws IOException {
+        if (!Files.isDirectory(journalDirectory)) {
+            return Set.of();
+        }
+
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            List<Path> journals = files.filter(f -> f.toString().endsWith(".journal")).toList();
+            Set<String> done = new HashSet<>();
+
+            for (Path journal : journals) {
+                for (String line : Files.readAllLines(journal, StandardCharsets.UTF_8)) {
+                    if (line.startsWith("D\t") && line.contains("/page/")) {
+                        done.add(line.substring(2));
+                    }
+                }
+            }
+
+            return done;
+        }
+    }
+
+    private static String pathOf(String url) {
+        return url.substring(url.indexOf("/page/"));
+    }
+
+    // ===================== Situs =====================
+
+    /**
+     * Webpage /page/{i} menautkan /page/{2i+1}, /page/{2i+2}, dan /page/0, sehingga semua
+     * webpage terjangkau dari seed. Url lain (robots.txt, sitemap) dijawab 404.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+
+            if (!path.matches("/page/\\d+")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            int page = Integer.parseInt(path.substring("/page/".length()));
+
+            if (exchange.getRequestMethod().equals("GET")) {
+                fetches.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            }
+
+            StringBuilder html = new StringBuilder("<html><body><a href='/page/0'>home</a>");
+
+            for (int child = 2 * page + 1; child <= 2 * page + 2 && child < PAGES; child++) {
+                html.append("<a href='/page/").append(child).append("'>page ").append(child).append("</a>");
+            }
+
+            html.append("</body></html>");
+
+            Thread.sleep(PAGE_DELAY_MILLIS);
+
+            byte[] body = html.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.unpar.webcrawler.cores;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Crawl terdistribusi dengan dua worker: depth url ikut dikirim lewat coordinator, sehingga
+ * setMaxDepth() berlaku seperti pada crawl satu proses.
+ */
+class CrawlCoordinatorTest {
+
+    private static final int PAGES = 6;
+
+    private HttpServer server;
+    private final Set<String> fetched = new TreeSet<>();       // path yang di-GET
+    private final Set<String> checked = new TreeSet<>();       // path yang di-HEAD
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void maxDepthAppliesAcrossWorkers() throws Exception {
+        String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+        Set<String> crawled = new TreeSet<>();
+
+        try (CrawlCoordinator coordinator = new CrawlCoordinator(0)) {
+            coordinator.setMaxDepth(2);
+
+            List<Thread> workers = new ArrayList<>();
+
+            for (int i = 0; i < 2; i++) {
+                workers.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        new CrawlWorker("127.0.0.1", coordinator.getPort()).run();
+                    } catch (IOException | InterruptedException ignored) {
+                    }
+                }));
+            }
+
+            coordinator.crawl(origin + "/page/0", wl -> crawled.add(wl.getUrl().substring(origin.length())), bl -> {
+            });
+
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        }
+
+        // webpage terdalam (depth 3) hanya dicek, webpage setelahnya tidak pernah ditemukan
+        assertEquals(Set.of("/page/0", "/page/1", "/page/2"), crawled);
+
+        synchronized (fetched) {
+            assertEquals(Set.of("/page/0", "/page/1", "/page/2"), fetched);
+            assertTrue(checked.contains("/page/3"));
+            assertFalse(checked.contains("/page/4"));
+        }
+    }
+
+    /**
+     * Rantai webpage: /page/{i} hanya menautkan /page/{i+1}. Url lain dijawab 404.
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+
+            if (!path.matches("/page/\\d+")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            int page = Integer.parseInt(path.substring("/page/".length()));
+
+            synchronized (fetched) {
+                (exchange.getRequestMethod().equals("GET") ? fetched : checked).add(path);
+            }
+
+            String link = page + 1 < PAGES ? "<a href='/page/" + (page + 1) + "'>next</a>" : "";
+            byte[] body = ("<html><body>" + link + "</body></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.unpar.webcrawler.cores;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.unpar.webcrawler.models.WebpageLink;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Log yang terpotong di tengah record (crash saat flush) harus dilanjutkan tanpa record
+ * terakhir itu: baris tanpa '\n' dibuang walaupun jumlah field-nya lengkap.
+ */
+class CrawlJournalTest {
+
+    private static final String SEED = "https://example.org/";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void dropsRecordCutInsideDepthField() throws IOException {
+        CrawlJournal journal = CrawlJournal.open(directory, SEED);
+        journal.frontier(SEED, 0);
+        journal.frontier(SEED + "a", 12);
+        journal.close();
+
+        // "F\t...a\t12\n" terpotong menjadi "F\t...a\t1"
+        truncate(journalFile(), 2);
+
+        Recorder replayed = replay();
+
+        assertEquals(List.of(SEED + " 0"), replayed.pending);
+        assertTrue(replayed.resumed);
+        assertTrue(Files.readString(journalFile()).endsWith("\n"));
+    }
+
+    @Test
+    void dropsRecordCutInsideUrl() throws IOException {
+        CrawlJournal journal = CrawlJournal.open(directory, SEED);
+        journal.frontier(SEED, 0);
+        journal.frontier(SEED + "page", 1);
+        journal.done(SEED);
+        journal.done(SEED + "page");
+        journal.close();
+
+        // "D\t...page\n" terpotong menjadi "D\t...pa"
+        truncate(journalFile(), 3);
+
+        Recorder replayed = replay();
+
+        assertEquals(List.of(SEED), replayed.done);
+        assertEquals(List.of(SEED + "page 1"), replayed.pending);
+    }
+
+    @Test
+    void ignoresFrontierRecordWithoutDepth() throws IOException {
+        Files.writeString(journalFile(), "F\t" + SEED + "\t0\nF\t" + SEED + "old\n", StandardCharsets.UTF_8);
+
+        assertEquals(List.of(SEED + " 0"), replay().pending);
+    }
+
+    @Test
+    void journalWithOnlyPartialLineStartsOver() throws IOException {
+        Files.writeString(journalFile(), "F\t" + SEED + "\t0", StandardCharsets.UTF_8);
+
+        Recorder replayed = replay();
+
+        assertFalse(replayed.resumed);
+        assertEquals(List.of(), replayed.pending);
+    }
+
+    /**
+     * Journal crawl sebelumnya: seed sudah selesai, /a dan /b masih di frontier, dan record D
+     * untuk /a terpotong. Crawl yang dilanjutkan tidak mem-fetch seed lagi, tetapi /a tetap
+     * di-crawl karena record D-nya tidak lengkap.
+     */
+    @Test
+    void crawlResumesFromJournalCutMidRecord() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+        server.createContext("/", exchange -> serve(exchange, fetches));
+        server.start();
+
+        try {
+            String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+            String seed = origin + "/";
+
+            CrawlJournal previous = CrawlJournal.open(directory, seed);
+            previous.frontier(seed, 0);
+            previous.frontier(origin + "/a", 1);
+            previous.frontier(origin + "/b", 1);
+            previous.webpage(seed, 200, 2, Instant.EPOCH.toString());
+            previous.done(seed);
+            previous.done(origin + "/a");
+            previous.close();
+
+            truncate(journalFile(seed), 1);
+
+            Crawler crawler = new Crawler(seed);
+            crawler.setJournal(CrawlJournal.open(directory, seed));
+            Set<String> crawled = new TreeSet<>();
+
+            crawler.crawl(wl -> crawled.add(pathOf(wl, origin)), bl -> {
+            });
+
+            assertEquals(Set.of("/", "/a", "/b"), crawled);
+            assertNull(fetches.get("/"));
+            assertEquals(1, fetches.get("/a").get());
+            assertEquals(1, fetches.get("/b").get());
+
+            // crawl yang selesai normal menghapus journal-nya
+            try (Stream<Path> files = Files.list(directory)) {
+                assertFalse(files.anyMatch(f -> f.toString().endsWith(".journal")));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void serve(HttpExchange exchange, Map<String, AtomicInteger> fetches) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+
+            if (!path.equals("/") && !path.equals("/a") && !path.equals("/b")) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            if (exchange.getRequestMethod().equals("GET")) {
+                fetches.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+            }
+
+            byte[] body = "<html><body><a href='/a'>a</a><a href='/b'>b</a></body></html>".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String pathOf(WebpageLink wl, String origin) {
+        String path = wl.getUrl().substring(origin.length());
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private static final class Recorder implements CrawlJournal.Replay {
+        final List<String> done = new ArrayList<>();
+        final List<String> pending = new ArrayList<>();
+        boolean resumed;
+
+        @Override
+        public void done(String url) {
+            done.add(url);
+        }
+
+        @Override
+        public void pending(String url, int depth) {
+            pending.add(url + " " + depth);
+        }
+
+        @Override
+        public void result(String[] record) {
+        }
+    }
+
+    private Recorder replay() {
+        Recorder recorder = new Recorder();
+
+        try (CrawlJournal journal = CrawlJournal.open(directory, SEED)) {
+            recorder.resumed = journal.replay(recorder);
+        }
+
+        return recorder;
+    }
+
+    private Path journalFile() {
+        return journalFile(SEED);
+    }
+
+    private Path journalFile(String seed) {
+        return directory.resolve(CrawlJournal.fileNameOf(seed));
+    }
+
+    private static void truncate(Path file, int bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - bytes);
+        }
+    }
+}
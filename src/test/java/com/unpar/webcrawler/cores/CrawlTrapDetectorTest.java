@@ -0,0 +1,151 @@
+package com.unpar.webcrawler.cores;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pola url, aturan tetap, dan pola trap yang dipelajari dari webpage near-duplicate.
+ */
+class CrawlTrapDetectorTest {
+
+    private static final String ORIGIN = "https://example.org";
+
+    @Test
+    void patternReplacesNumbersAndIds() {
+        assertEquals("example.org/calendar/#/#?month&year",
+                CrawlTrapDetector.patternOf(ORIGIN + "/calendar/2024/05?year=2024&month=5"));
+        assertEquals("example.org/item/#",
+                CrawlTrapDetector.patternOf(ORIGIN + "/item/3f2a9c1b-7d4e-4f60-a1b2-0c9d8e7f6a5b"));
+        assertEquals("example.org/page#-v#.html",
+                CrawlTrapDetector.patternOf(ORIGIN + "/page12-v3.html"));
+        assertEquals(CrawlTrapDetector.patternOf(ORIGIN + "/news?b=1&a=2"),
+                CrawlTrapDetector.patternOf(ORIGIN + "/news?a=9&b=8"));
+    }
+
+    @Test
+    void normalizeDropsSessionAndSortsParameters() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+        String plain = ORIGIN + "/a?x=1";
+
+        assertEquals(ORIGIN + "/list?a=1&b=2", detector.normalize(ORIGIN + "/list?b=2&PHPSESSID=abc&a=1"));
+        assertEquals(ORIGIN + "/list", detector.normalize(ORIGIN + "/list;jsessionid=ABC123?sid=42"));
+        assertSame(plain, detector.normalize(plain));
+    }
+
+    @Test
+    void fixedRules() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+        detector.setMaxPathDepth(4);
+
+        assertEquals(CrawlTrapDetector.Reason.URL_TOO_LONG, detector.check(ORIGIN + "/" + "a".repeat(2048), "", false));
+        assertEquals(CrawlTrapDetector.Reason.PATH_TOO_DEEP, detector.check(ORIGIN + "/a/b/c/d/e", "", false));
+        assertEquals(CrawlTrapDetector.Reason.REPEATED_SEGMENT, detector.check(ORIGIN + "/a/b/a/a", "", false));
+        assertNull(detector.check(ORIGIN + "/a/b/a/c", "", false));
+    }
+
+    /**
+     * Kalender tanpa batas: setiap bulan memiliki navigasi yang sama dan link ke bulan
+     * berikutnya. Setelah MIN_PATTERN_PAGES bulan, polanya menjadi trap. Bulan ada di path
+     * agar tidak ada parameter yang dipelajari tidak berpengaruh (lihat learnsIgnorableParameter()).
+     */
+    @Test
+    void learnsCalendarTrap() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+        String pattern = CrawlTrapDetector.patternOf(calendar(0));
+
+        assertFalse(detector.observe(calendar(0), pattern, calendarLinks(0)));
+
+        for (int month = 1; month < 49; month++) {
+            assertTrue(detector.observe(calendar(month), pattern, calendarLinks(month)));
+            assertEquals(CrawlTrapDetector.Reason.NEAR_DUPLICATE, detector.check(calendar(month + 1), pattern, true));
+        }
+
+        assertEquals(Set.of(), detector.getTrapPatterns());
+
+        // webpage ke-50, 49 di antaranya near-duplicate
+        assertTrue(detector.observe(calendar(49), pattern, calendarLinks(49)));
+        assertEquals(Set.of(pattern), detector.getTrapPatterns());
+        assertEquals(CrawlTrapDetector.Reason.TRAP_PATTERN, detector.check(calendar(1000), "", false));
+
+        // link lain dari webpage near-duplicate tetap di-crawl
+        assertNull(detector.check(ORIGIN + "/about", pattern, true));
+    }
+
+    @Test
+    void distinctContentIsNotNearDuplicate() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+        String pattern = CrawlTrapDetector.patternOf(ORIGIN + "/article/1");
+
+        for (int i = 0; i < 60; i++) {
+            List<Crawler.ExtractedLink> links = new ArrayList<>();
+
+            for (int j = 0; j < 10; j++) {
+                links.add(new Crawler.ExtractedLink(ORIGIN + "/topic-" + i + "-" + j, ""));
+            }
+
+            assertFalse(detector.observe(ORIGIN + "/article/" + i, pattern, links));
+        }
+
+        assertEquals(Set.of(), detector.getTrapPatterns());
+    }
+
+    /**
+     * Webpage yang hanya berbeda nilai parameter "ref" memberi suara; setelah IGNORABLE_VOTES
+     * suara, parameter itu dibuang oleh normalize().
+     */
+    @Test
+    void learnsIgnorableParameter() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+        String pattern = CrawlTrapDetector.patternOf(ORIGIN + "/list?id=1&ref=a");
+
+        for (int i = 0; i < 4; i++) {
+            detector.observe(ORIGIN + "/list?id=1&ref=r" + i, pattern, navigation());
+        }
+
+        assertEquals(Map.of("example.org", Set.of("ref")), detector.getIgnorableParameters());
+        assertEquals(ORIGIN + "/list?id=1", detector.normalize(ORIGIN + "/list?ref=zz&id=1"));
+    }
+
+    @Test
+    void skippedUrlsAreCountedOncePerPattern() {
+        CrawlTrapDetector detector = new CrawlTrapDetector();
+
+        assertTrue(detector.skipped(calendar(1), CrawlTrapDetector.Reason.TRAP_PATTERN));
+        assertTrue(detector.skipped(calendar(2), CrawlTrapDetector.Reason.TRAP_PATTERN));
+        assertFalse(detector.skipped(calendar(1), CrawlTrapDetector.Reason.TRAP_PATTERN));
+
+        assertEquals(List.of(new CrawlTrapDetector.Skipped(CrawlTrapDetector.Reason.TRAP_PATTERN,
+                CrawlTrapDetector.patternOf(calendar(1)), 2, calendar(1))), detector.getSkipped());
+    }
+
+    private static String calendar(int month) {
+        return ORIGIN + "/calendar/" + (2000 + month / 12) + "/" + (month % 12 + 1);
+    }
+
+    private static List<Crawler.ExtractedLink> calendarLinks(int month) {
+        List<Crawler.ExtractedLink> links = navigation();
+        links.add(new Crawler.ExtractedLink(calendar(month + 1), "next"));
+
+        return links;
+    }
+
+    private static List<Crawler.ExtractedLink> navigation() {
+        List<Crawler.ExtractedLink> links = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            links.add(new Crawler.ExtractedLink(ORIGIN + "/section-" + i, "section"));
+        }
+
+        return links;
+    }
+}
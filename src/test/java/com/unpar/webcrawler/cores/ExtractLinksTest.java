@@ -0,0 +1,146 @@
+package com.unpar.webcrawler.cores;
+
+import org.jsoup.Jsoup;
+import org.jsoup.parser.Parser;
+import org.jsoup.parser.StreamParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Ekstraksi link streaming (StreamParser) harus memberi hasil yang sama dengan ekstraksi
+ * dari DOM lengkap: url, anchor text, dan urutannya. Untuk html yang salah tutup tag dan
+ * dipindah parser (adoption agency), hanya isinya yang dibandingkan, tanpa urutan.
+ */
+class ExtractLinksTest {
+
+    private static final String BASE_URI = "https://informatika.unpar.ac.id/berita/";
+
+    // ===================== Html valid =====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "<a href='/a'>A</a> <a href='b?x=1#top'>B <b>bold</b></a> <a href='https://other.example/'>ext</a>",
+            "<head><base href='https://informatika.unpar.ac.id/arsip/'></head><a href='x'>x</a><a href='../y'>y</a>",
+            "<a href=''>empty</a> <a>no href</a> <a href='mailto:a@b.c'>mail</a> <a href='javascript:void(0)'>js</a>",
+            "<a href='/a'>text <img alt='img'> more <br> line</a>",
+            "<ul><li><a href='/1'>one</a></li><li><a href='/2'>two</a></li></ul><svg><a href='/svg'>svg</a></svg>",
+            "<template><a href='/t'>template</a></template><noscript><a href='/n'>noscript</a></noscript>",
+            "<a href='/a%20b'>percent</a> <a href='/A/./b/../c'>dots</a> <a href='HTTP://INFORMATIKA.UNPAR.AC.ID:80/'>case</a>",
+    })
+    void sameAsDomForValidHtml(String html) throws IOException {
+        assertEquals(dom(html), stream(html));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "<a href='/t'><table><tr><td>cell 1</td><td>cell 2</td></tr></table></a>",
+            "<a href='/d'><div><p>para one</p><p>para two</p></div></a>",
+            "<a href='/l'><ul><li>one</li><li>two</li></ul></a><a href='/s'><span>after</span></a>",
+            "<a href='/x'>x<table><tr><td>c</td></tr></table>y</a>",
+    })
+    void sameAsDomForAnchorWrappingBlocks(String html) throws IOException {
+        assertEquals(dom(html), stream(html));
+    }
+
+    // ===================== Html tidak valid =====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // anchor di dalam anchor lewat tabel: tetap bersarang di DOM
+            "<a href='/outer'><table><tr><td><a href='/inner'>in cell</a></td></tr></table></a>",
+            "<a href='/outer'>before<table><tr><td><a href='/inner'>in</a> cell</td></tr></table>after</a><a href='/next'>n</a>",
+            // anchor baru menutup anchor yang masih terbuka
+            "<a href='/a'>outer <a href='/b'>inner</a> tail</a>",
+            "<a href='/a'>unclosed",
+            "<div><a href='/a'>one</div><a href='/b'>two</a>",
+            // foster parenting: anchor di tabel di luar sel dipindah ke depan tabel
+            "<table><tr><a href='/foster'>foster</a><td>cell</td></tr></table>",
+            "<a href='/a'><b>bo<i>it</a>after</i></b>",
+    })
+    void sameAsDomForNestedAndUnclosedAnchors(String html) throws IOException {
+        assertEquals(dom(html), stream(html));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            // adoption agency: anchor dipecah menjadi anchor asli dan salinannya
+            "<div><a href='/a'><p>text <a href='/b'>b</a></div>",
+            "<p><a href='/a'>one<p>two</a>",
+            "<a href='/a'><div>block</a> after</div>",
+    })
+    void sameLinksAsDomForMisnestedAnchors(String html) throws IOException {
+        assertEquals(sorted(dom(html)), sorted(stream(html)));
+    }
+
+    /**
+     * Tag soup acak dengan seed tetap: kombinasi tag yang memicu aturan khusus parser html
+     * (tabel, formatting element, template, svg, select). Tanpa frameset: frameset di awal
+     * body membuang isi body dari DOM, sedangkan link-nya sudah terambil saat streaming.
+     */
+    @Test
+    void sameLinksAsDomForRandomTagSoup() throws IOException {
+        String[] tags = {
+                "a href=/x%d", "a", "/a", "table", "/table", "tr", "/tr", "td", "/td", "div", "/div", "p", "/p",
+                "b", "/b", "i", "/i", "span", "/span", "ul", "li", "/ul", "svg", "/svg", "template", "/template",
+                "noscript", "/noscript", "select", "option", "/select", "form", "/form", "button", "/button",
+                "h1", "/h1", "nobr", "/nobr", "font", "/font", "th", "caption", "/caption", "tbody", "colgroup",
+                "math", "/math", "textarea", "/textarea", "title", "/title", "script", "/script",
+        };
+        Random random = new Random(1);
+
+        for (int n = 0; n < 5000; n++) {
+            StringBuilder html = new StringBuilder();
+            int length = 5 + random.nextInt(40);
+
+            for (int i = 0; i < length; i++) {
+                if (random.nextInt(3) == 0) {
+                    html.append(" t").append(i).append(' ');
+                } else {
+                    html.append('<').append(String.format(tags[random.nextInt(tags.length)], i)).append('>');
+                }
+            }
+
+            assertEquals(sorted(dom(html.toString())), sorted(stream(html.toString())), html::toString);
+        }
+    }
+
+    // ===================== Corpus benchmark =====================
+
+    @ParameterizedTest
+    @ValueSource(strings = {"small", "medium", "large"})
+    void sameLinksAsDomForCorpus(String name) throws IOException {
+        String html = Files.readString(Path.of("src/jmh/resources/corpus", name + ".html"));
+        List<Crawler.ExtractedLink> expected = dom(html);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(sorted(expected), sorted(stream(html)));
+    }
+
+    private static List<Crawler.ExtractedLink> dom(String html) {
+        return Crawler.extractLinks(Jsoup.parse(html, BASE_URI));
+    }
+
+    private static List<Crawler.ExtractedLink> stream(String html) throws IOException {
+        return Crawler.extractLinks(new StreamParser(Parser.htmlParser()).parse(new StringReader(html), BASE_URI));
+    }
+
+    private static List<Crawler.ExtractedLink> sorted(List<Crawler.ExtractedLink> links) {
+        List<Crawler.ExtractedLink> result = new ArrayList<>(links);
+        result.sort(Comparator.comparing(Crawler.ExtractedLink::url).thenComparing(Crawler.ExtractedLink::anchorText));
+
+        return result;
+    }
+}
@@ -0,0 +1,98 @@
+package com.unpar.webcrawler.cores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Url dan depth yang ditulis ke segmen dibaca kembali utuh dan dalam urutan FIFO.
+ */
+class FrontierSpillTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripsAcrossSegments() throws IOException {
+        FrontierSpill spill = new FrontierSpill(directory, 10);
+        List<String> written = new ArrayList<>();
+
+        for (int i = 0; i < 25; i++) {
+            spill.append(url(i), i % 4);
+            written.add(url(i) + " " + i % 4);
+        }
+
+        assertEquals(25, spill.size());
+        assertEquals(3, segmentFiles());
+        assertEquals(10, spill.headCount());
+
+        List<String> read = drain(spill);
+
+        assertEquals(written, read);
+        assertTrue(spill.isEmpty());
+        assertEquals(0, segmentFiles());
+    }
+
+    /**
+     * Segmen terakhir yang masih ditulis ikut dibaca; url berikutnya masuk ke segmen baru.
+     */
+    @Test
+    void appendsAfterReadingSegmentBeingWritten() {
+        FrontierSpill spill = new FrontierSpill(directory, 10);
+
+        spill.append(url(0), 1);
+        spill.append(url(1), 2);
+
+        List<String> first = new ArrayList<>();
+        spill.pollSegment((url, depth) -> first.add(url + " " + depth));
+
+        spill.append(url(2), 3);
+
+        assertEquals(List.of(url(0) + " 1", url(1) + " 2"), first);
+        assertEquals(1, spill.size());
+        assertEquals(List.of(url(2) + " 3"), drain(spill));
+    }
+
+    @Test
+    void keepsNonAsciiAndOversizedUrls() {
+        FrontierSpill spill = new FrontierSpill(directory, 10);
+        String unicode = "https://例え.jp/パス?q=ü";
+        String huge = "https://example.org/" + "a".repeat(100_000);      // lebih besar dari buffer tulis
+
+        spill.append(url(0), 0);
+        spill.append(unicode, 1);
+        spill.append(huge, 2);
+        spill.append(url(1), 3);
+
+        assertEquals(List.of(url(0) + " 0", unicode + " 1", huge + " 2", url(1) + " 3"), drain(spill));
+    }
+
+    private static List<String> drain(FrontierSpill spill) {
+        List<String> read = new ArrayList<>();
+
+        while (!spill.isEmpty()) {
+            spill.pollSegment((url, depth) -> read.add(url + " " + depth));
+        }
+
+        return read;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static String url(int i) {
+        return "https://example.org/page/" + i;
+    }
+}
@@ -0,0 +1,138 @@
+package com.unpar.webcrawler.cores;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Transisi circuit breaker (closed -> open -> half-open -> closed / open) dan timeout
+ * adaptif per host.
+ */
+class HostHealthTest {
+
+    private static final String HOST = "example.org";
+    private static final Duration MAX_TIMEOUT = Duration.ofMillis(50);
+
+    @Test
+    void opensAfterConsecutiveHostFailures() {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 3, Duration.ofMinutes(1));
+
+        assertEquals(HostHealth.Failure.COUNTED, fail(health));
+        assertEquals(HostHealth.Failure.COUNTED, fail(health));
+        assertTrue(health.tryAcquire(HOST));
+
+        assertEquals(HostHealth.Failure.OPENED, fail(health));
+        assertTrue(health.isOpen(HOST));
+        assertFalse(health.tryAcquire(HOST));
+        assertTrue(health.tryAcquire("other.org"));
+    }
+
+    @Test
+    void successResetsFailureCount() {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 2, Duration.ofMinutes(1));
+
+        fail(health);
+        health.succeeded(HOST, 1_000_000);
+
+        assertEquals(HostHealth.Failure.COUNTED, fail(health));
+        assertFalse(health.isOpen(HOST));
+    }
+
+    @Test
+    void otherErrorsDoNotCount() {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 1, Duration.ofMinutes(1));
+
+        assertEquals(HostHealth.Failure.NOT_COUNTED, health.failed(HOST, new IOException("reset"), System.nanoTime()));
+        assertFalse(health.isOpen(HOST));
+    }
+
+    @Test
+    void failureOverlappingResponseDoesNotCount() {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 1, Duration.ofMinutes(1));
+        long startedAt = System.nanoTime();
+
+        health.succeeded(HOST, 1_000_000);
+
+        assertEquals(HostHealth.Failure.NOT_COUNTED, health.failed(HOST, new HttpTimeoutException("timeout"), startedAt));
+        assertFalse(health.isOpen(HOST));
+    }
+
+    @Test
+    void halfOpenProbeClosesBreakerOnSuccess() {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 1, Duration.ZERO);
+        fail(health);
+
+        // hanya satu percobaan yang dibiarkan lewat
+        assertTrue(health.tryAcquire(HOST));
+        assertFalse(health.tryAcquire(HOST));
+
+        health.succeeded(HOST, 1_000_000);
+
+        assertFalse(health.isOpen(HOST));
+        assertTrue(health.tryAcquire(HOST));
+        assertTrue(health.tryAcquire(HOST));
+    }
+
+    @Test
+    void failedProbeReopensForTwiceAsLong() throws InterruptedException {
+        HostHealth health = new HostHealth(Duration.ofSeconds(5), 1, Duration.ofMillis(100));
+        fail(health);
+
+        Thread.sleep(150);
+        assertTrue(health.tryAcquire(HOST));
+        assertEquals(HostHealth.Failure.OPENED, fail(health));
+
+        Thread.sleep(120);
+        assertFalse(health.tryAcquire(HOST));
+
+        Thread.sleep(150);
+        assertTrue(health.tryAcquire(HOST));
+    }
+
+    /**
+     * Percobaan yang tidak pernah mencatat hasil (misalnya dibatalkan) tidak boleh membuat
+     * breaker menolak request selamanya.
+     */
+    @Test
+    void abandonedProbeExpires() throws InterruptedException {
+        HostHealth health = new HostHealth(MAX_TIMEOUT, 1, Duration.ZERO);
+        fail(health);
+
+        assertTrue(health.tryAcquire(HOST));
+        assertFalse(health.tryAcquire(HOST));
+
+        // PROBE_TIMEOUT_FACTOR * maxTimeout = 100 ms
+        Thread.sleep(150);
+
+        assertTrue(health.tryAcquire(HOST));
+        assertFalse(health.tryAcquire(HOST));
+    }
+
+    @Test
+    void timeoutShrinksOnlyForFailingKnownHost() {
+        HostHealth health = new HostHealth(Duration.ofSeconds(30), 100, Duration.ofMinutes(1));
+
+        for (int i = 0; i < 8; i++) {
+            health.succeeded(HOST, Duration.ofMillis(100).toNanos());
+        }
+
+        assertEquals(Duration.ofSeconds(30), health.timeout(HOST));
+        assertEquals(Duration.ofSeconds(30), health.timeout("unknown.org"));
+
+        fail(health);
+
+        // latency stabil 100 ms, dinaikkan ke MIN_TIMEOUT
+        assertEquals(Duration.ofSeconds(2), health.timeout(HOST));
+    }
+
+    private static HostHealth.Failure fail(HostHealth health) {
+        return health.failed(HOST, new ConnectException("refused"), System.nanoTime());
+    }
+}
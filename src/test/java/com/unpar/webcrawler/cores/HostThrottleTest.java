@@ -0,0 +1,132 @@
+package com.unpar.webcrawler.cores;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retry-After (detik dan HTTP-date) serta backoff AIMD per host. Waktu tunggu dibaca dari
+ * nanosUntilAvailable() tanpa sleep, sehingga batasnya diberi toleransi kecil.
+ */
+class HostThrottleTest {
+
+    private static final String HOST = "example.org";
+    private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+    @Test
+    void parsesRetryAfterSeconds() {
+        assertEquals(Duration.ofSeconds(120), HostThrottle.parseRetryAfter("120"));
+        assertEquals(Duration.ZERO, HostThrottle.parseRetryAfter(" 0 "));
+        assertEquals(Duration.ofMinutes(2), HostThrottle.parseRetryAfter("86400"));     // dibatasi MAX_BACKOFF
+    }
+
+    @Test
+    void ignoresInvalidRetryAfter() {
+        assertNull(HostThrottle.parseRetryAfter(null));
+        assertNull(HostThrottle.parseRetryAfter("  "));
+        assertNull(HostThrottle.parseRetryAfter("-5"));
+        assertNull(HostThrottle.parseRetryAfter("soon"));
+    }
+
+    @Test
+    void parsesRetryAfterHttpDate() {
+        Duration past = HostThrottle.parseRetryAfter(httpDate(-60));
+        Duration soon = HostThrottle.parseRetryAfter(httpDate(30));
+        Duration far = HostThrottle.parseRetryAfter(httpDate(3600));
+
+        assertEquals(Duration.ZERO, past);
+        assertTrue(soon.compareTo(Duration.ofSeconds(28)) >= 0 && soon.compareTo(Duration.ofSeconds(30)) <= 0, soon.toString());
+        assertEquals(Duration.ofMinutes(2), far);
+    }
+
+    @Test
+    void limitsConcurrentRequestsPerHost() {
+        HostThrottle throttle = new HostThrottle(1, 1000);
+
+        assertEquals(0, throttle.tryAcquire(HOST));
+        assertEquals(HostThrottle.NOT_READY, throttle.tryAcquire(HOST));
+        assertEquals(0, throttle.tryAcquire("other.org"));
+
+        throttle.release(HOST, 200, null);
+
+        assertTrue(throttle.nanosUntilAvailable(HOST) != HostThrottle.NOT_READY);
+    }
+
+    @Test
+    void throttledResponseDoublesBackoff() {
+        HostThrottle throttle = new HostThrottle(4, 1000);
+        throttle.tryAcquire(HOST);
+
+        throttle.release(HOST, 429, null);
+        long first = throttle.nanosUntilAvailable(HOST);
+
+        throttle.release(HOST, 503, null);
+        long second = throttle.nanosUntilAvailable(HOST);
+
+        assertTrue(first > SECOND * 9 / 10 && first <= SECOND, String.valueOf(first));
+        assertTrue(second > SECOND * 19 / 10 && second <= 2 * SECOND, String.valueOf(second));
+    }
+
+    @Test
+    void retryAfterOverridesBackoff() {
+        HostThrottle throttle = new HostThrottle(4, 1000);
+        throttle.tryAcquire(HOST);
+
+        throttle.release(HOST, 200, "30");
+        long wait = throttle.nanosUntilAvailable(HOST);
+
+        assertTrue(wait > 29 * SECOND && wait <= 30 * SECOND, String.valueOf(wait));
+    }
+
+    /**
+     * Retry-After: 0 tidak menahan host, sehingga yang terlihat hanya laju token: laju turun
+     * setengah (multiplicative decrease), naik maxRate / 20 setiap respon sukses (additive
+     * increase), dan tidak pernah turun di bawah 1 request per 10 detik.
+     */
+    @Test
+    void rateFollowsAimd() {
+        HostThrottle throttle = new HostThrottle(4, 1.0);
+        throttle.tryAcquire(HOST);
+
+        throttle.release(HOST, 200, "0");
+        assertWaitNear(throttle, 1 / 0.5);
+
+        throttle.release(HOST, 200, null);
+        assertWaitNear(throttle, 1 / 0.55);
+
+        for (int i = 0; i < 10; i++) {
+            throttle.release(HOST, 200, "0");
+        }
+        assertWaitNear(throttle, 1 / 0.1);
+    }
+
+    @Test
+    void crawlDelayLimitsRate() {
+        HostThrottle throttle = new HostThrottle(4, 1000);
+        throttle.setCrawlDelay(HOST, Duration.ofSeconds(5));
+
+        assertEquals(0, throttle.tryAcquire(HOST));
+        assertEquals(HostThrottle.NOT_READY, throttle.tryAcquire(HOST));
+
+        throttle.release(HOST, 200, null);
+        assertWaitNear(throttle, 5);
+    }
+
+    private static void assertWaitNear(HostThrottle throttle, double seconds) {
+        long wait = throttle.nanosUntilAvailable(HOST);
+        long expected = (long) (seconds * SECOND);
+
+        assertTrue(wait <= expected && wait > expected - SECOND / 10, wait + " vs " + expected);
+    }
+
+    private static String httpDate(long secondsFromNow) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(secondsFromNow));
+    }
+}
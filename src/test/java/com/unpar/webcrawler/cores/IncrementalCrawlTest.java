@@ -0,0 +1,146 @@
+package com.unpar.webcrawler.cores;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Re-crawl inkremental dengan WebpageCache: GET bersyarat hanya untuk url yang di-cache
+ * (tidak untuk tujuan redirect-nya), dan body yang dikirim ulang tanpa perubahan dikenali
+ * dari hash yang dihitung sambil body di-parse.
+ */
+class IncrementalCrawlTest {
+
+    @TempDir
+    Path directory;
+
+    private HttpServer server;
+    private final Map<String, String> validators = new ConcurrentHashMap<>();   // path -> If-None-Match terakhir
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void secondCrawlRecognisesUnchangedWebpages() {
+        Set<String> first = new TreeSet<>();
+        Set<String> second = new TreeSet<>();
+
+        assertEquals(0, crawl(first).unchanged());
+        CrawlMetrics.Snapshot recrawl = crawl(second);
+
+        assertEquals(first, second);
+        assertEquals(3, first.size());
+
+        // seed menjawab 304, /same dan /target dikirim ulang dengan body yang sama
+        assertEquals(3, recrawl.unchanged());
+        assertEquals("\"root\"", validators.get("/"));
+    }
+
+    @Test
+    void redirectTargetIsFetchedWithoutValidatorsOfOriginalUrl() {
+        crawl(new TreeSet<>());
+
+        validators.clear();
+        crawl(new TreeSet<>());
+
+        assertEquals("\"target\"", validators.get("/moved"));
+        assertNull(validators.get("/target"));
+    }
+
+    private CrawlMetrics.Snapshot crawl(Set<String> crawled) {
+        Crawler crawler = new Crawler(origin() + "/");
+
+        try (WebpageCache cache = WebpageCache.open(directory, origin() + "/")) {
+            crawler.setWebpageCache(cache);
+            crawler.crawl(wl -> crawled.add(wl.getUrl()), bl -> {
+            });
+        }
+
+        return crawler.snapshot();
+    }
+
+    /**
+     * / (ETag "root", menjawab 304 jika cocok), /same (ETag selalu baru, body selalu sama),
+     * /moved (redirect ke /target), dan /target (ETag "target", menjawab 304 jika cocok).
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+
+            if (ifNoneMatch != null) {
+                validators.put(path, ifNoneMatch);
+            }
+
+            String etag = switch (path) {
+                case "/" -> "\"root\"";
+                case "/same" -> "\"same-" + System.nanoTime() + "\"";
+                case "/target" -> "\"target\"";
+                default -> null;
+            };
+
+            if (path.equals("/moved")) {
+                exchange.getResponseHeaders().set("Location", "/target");
+                exchange.sendResponseHeaders(301, -1);
+                return;
+            }
+
+            if (etag == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            exchange.getResponseHeaders().set("ETag", etag);
+
+            if (etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            String links = path.equals("/") ? "<a href='/moved'>moved</a><a href='/same'>same</a>" : "";
+            byte[] body = ("<html><body>" + links + "</body></html>").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private String origin() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+}
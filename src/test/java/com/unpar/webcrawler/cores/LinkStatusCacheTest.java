@@ -0,0 +1,148 @@
+package com.unpar.webcrawler.cores;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TTL, pemadatan shard, dan membaca ulang cache dari disk.
+ *
+ * Instance cache disimpan per direktori untuk seluruh JVM, sehingga setiap test memakai
+ * direktori sendiri, dan "crawl berikutnya" disimulasikan dengan menyalin shard ke
+ * direktori baru.
+ */
+class LinkStatusCacheTest {
+
+    private static final String URL = "https://example.org/page";
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void successAndFailureHaveSeparateTtl() {
+        LinkStatusCache cache = LinkStatusCache.open(directory.resolve("cache"), HOUR, Duration.ZERO, 100);
+
+        cache.put(URL, 200, "");
+        cache.put(URL + "/missing", 404, "Not Found");
+
+        assertEquals(200, cache.get(URL).statusCode());
+        assertNull(cache.get(URL + "/missing"));
+    }
+
+    @Test
+    void sameDirectoryReturnsSameInstance() {
+        Path dir = directory.resolve("cache");
+        LinkStatusCache cache = LinkStatusCache.open(dir, HOUR, HOUR, 100);
+
+        assertSame(cache, LinkStatusCache.open(dir.resolve("..").resolve("cache"), HOUR, HOUR, 100));
+        assertThrows(IllegalArgumentException.class, () -> LinkStatusCache.open(dir, HOUR, Duration.ZERO, 100));
+    }
+
+    @Test
+    void reopenedCacheReadsEntriesFromDisk() throws IOException {
+        LinkStatusCache first = LinkStatusCache.open(directory.resolve("first"), HOUR, HOUR, 100);
+
+        first.put(URL, 404, "Not\tFound");
+        first.put(URL, 200, "");
+        first.put(URL + "/gone", 0, "ConnectException");
+        first.flush();
+
+        LinkStatusCache second = LinkStatusCache.open(copy("first", "second"), HOUR, HOUR, 100);
+
+        assertEquals(200, second.get(URL).statusCode());
+        assertEquals(new LinkStatusCache.Entry(0, second.get(URL + "/gone").checkedAt(), "ConnectException"), second.get(URL + "/gone"));
+        assertNull(second.get(URL + "/unknown"));
+    }
+
+    @Test
+    void expiredEntryOnDiskIsIgnored() throws IOException {
+        Path dir = Files.createDirectories(directory.resolve("cache"));
+        long old = System.currentTimeMillis() - HOUR.toMillis() * 2;
+
+        Files.writeString(shardOf(dir, URL), key(URL) + "\t200\t" + old + "\t\n", StandardCharsets.UTF_8);
+
+        assertNull(LinkStatusCache.open(dir, HOUR, HOUR, 100).get(URL));
+    }
+
+    /**
+     * Baris terakhir yang terpotong (crash saat menulis) tidak boleh menyatu dengan entry baru.
+     */
+    @Test
+    void truncatedLastLineIsClosedBeforeAppending() throws IOException {
+        Path dir = Files.createDirectories(directory.resolve("cache"));
+        long now = System.currentTimeMillis();
+
+        Files.writeString(shardOf(dir, URL), key(URL) + "\t200\t" + now + "\t\n" + key(URL) + "\t50", StandardCharsets.UTF_8);
+
+        LinkStatusCache cache = LinkStatusCache.open(dir, HOUR, HOUR, 100);
+        assertEquals(200, cache.get(URL).statusCode());
+
+        cache.put(URL, 301, "");
+        cache.flush();
+
+        LinkStatusCache reopened = LinkStatusCache.open(copy("cache", "reopened"), HOUR, HOUR, 100);
+        assertEquals(301, reopened.get(URL).statusCode());
+    }
+
+    /**
+     * Shard di atas 1 MB dipadatkan saat dibuka: hanya entry terbaru per url yang belum
+     * kedaluwarsa yang tersisa.
+     */
+    @Test
+    void largeShardIsCompactedOnOpen() throws IOException {
+        Path dir = Files.createDirectories(directory.resolve("cache"));
+        Path shard = shardOf(dir, URL);
+        long now = System.currentTimeMillis();
+        long old = now - HOUR.toMillis() * 2;
+
+        try (Writer writer = Files.newBufferedWriter(shard, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < 20_000; i++) {
+                writer.write(key(URL) + "\t500\t" + now + "\tServer Error " + i + "\n");
+                writer.write("https://example.org/old-" + i + "\t200\t" + old + "\t\n");
+            }
+            writer.write(key(URL) + "\t200\t" + now + "\t\n");
+        }
+
+        assertTrue(Files.size(shard) > 1024 * 1024);
+
+        LinkStatusCache cache = LinkStatusCache.open(dir, HOUR, HOUR, 100);
+
+        assertEquals(200, cache.get(URL).statusCode());
+        assertEquals(List.of(key(URL) + "\t200\t" + now + "\t"), Files.readAllLines(shard, StandardCharsets.UTF_8));
+    }
+
+    private Path copy(String from, String to) throws IOException {
+        Path target = Files.createDirectories(directory.resolve(to));
+
+        try (Stream<Path> files = Files.list(directory.resolve(from))) {
+            for (Path file : files.toList()) {
+                Files.copy(file, target.resolve(file.getFileName()));
+            }
+        }
+
+        return target;
+    }
+
+    private static String key(String url) {
+        return Crawler.URLCanonicalization(url);
+    }
+
+    private static Path shardOf(Path dir, String url) {
+        return dir.resolve(String.format("shard-%02x.tsv", Math.floorMod(key(url).hashCode(), 256)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.unpar.webcrawler.cores;
+
+import com.unpar.webcrawler.models.BrokenLink;
+import com.unpar.webcrawler.models.WebpageLink;
+import com.unpar.webcrawler.utils.UrlDictionary;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Hasil yang ditulis dalam format binary dibaca kembali utuh oleh readBinary().
+ */
+class ResultWriterTest {
+
+    private static final String ORIGIN = "https://example.org";
+    private static final Instant ACCESS_TIME = Instant.parse("2024-05-01T10:15:30.123Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void binaryRoundTrip() throws IOException {
+        Path file = directory.resolve("result.bin");
+        UrlDictionary urls = new UrlDictionary();
+        String longUrl = ORIGIN + "/" + "x".repeat(100_000);          // record lebih besar dari buffer
+
+        BrokenLink missing = new BrokenLink(urls, ORIGIN + "/missing", 404, "Not Found", "hilang", ORIGIN + "/");
+        missing.addSource(ORIGIN + "/a");
+        missing.addSource(ORIGIN + "/ü");
+
+        BrokenLink refused = new BrokenLink(urls, "https://down.example.com/", 0, "ConnectException", "", ORIGIN + "/a");
+        BrokenLink seed = new BrokenLink(urls, longUrl, 500, "Internal Server Error", "", null);
+
+        try (ResultWriter writer = ResultWriter.open(file)) {
+            writer.webpage(new WebpageLink(ORIGIN + "/", 200, 3, ACCESS_TIME));
+            writer.broken(missing);
+            writer.webpage(new WebpageLink(ORIGIN + "/a", 200, 0, ACCESS_TIME.plusSeconds(1)));
+            writer.broken(refused);
+            writer.broken(seed);
+        }
+
+        List<String> webpages = new ArrayList<>();
+        List<BrokenLink> brokenLinks = new ArrayList<>();
+
+        ResultWriter.readBinary(file, wl -> webpages.add(describe(wl)), brokenLinks::add);
+
+        assertEquals(List.of(
+                ORIGIN + "/ 200 3 " + ACCESS_TIME,
+                ORIGIN + "/a 200 0 " + ACCESS_TIME.plusSeconds(1)), webpages);
+
+        assertEquals(List.of(describe(missing), describe(refused), describe(seed)), brokenLinks.stream().map(ResultWriterTest::describe).toList());
+
+        // sumber yang sama hanya ditulis sekali dan dipakai bersama
+        assertSame(brokenLinks.get(0).getUrlDictionary(), brokenLinks.get(1).getUrlDictionary());
+        assertEquals(brokenLinks.get(0).getSources()[1], brokenLinks.get(1).getSources()[0]);
+
+        // writer tidak mengubah id sumber milik BrokenLink yang ditulis
+        assertEquals(List.of(ORIGIN + "/", ORIGIN + "/a", ORIGIN + "/ü"), missing.getWebpageUrls());
+    }
+
+    @Test
+    void truncatedLastRecordIsIgnored() throws IOException {
+        Path file = directory.resolve("result.bin");
+        UrlDictionary urls = new UrlDictionary();
+
+        try (ResultWriter writer = ResultWriter.binary(file)) {
+            writer.webpage(new WebpageLink(ORIGIN + "/", 200, 1, ACCESS_TIME));
+            writer.broken(new BrokenLink(urls, ORIGIN + "/missing", 404, "Not Found", "hilang", ORIGIN + "/"));
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        List<String> webpages = new ArrayList<>();
+        List<BrokenLink> brokenLinks = new ArrayList<>();
+
+        ResultWriter.readBinary(file, wl -> webpages.add(describe(wl)), brokenLinks::add);
+
+        assertEquals(List.of(ORIGIN + "/ 200 1 " + ACCESS_TIME), webpages);
+        assertEquals(List.of(), brokenLinks);
+    }
+
+    @Test
+    void rejectsOtherFormats() throws IOException {
+        Path file = directory.resolve("result.ndjson");
+
+        try (ResultWriter writer = ResultWriter.open(file)) {
+            writer.webpage(new WebpageLink(ORIGIN + "/", 200, 1, ACCESS_TIME));
+        }
+
+        assertEquals('{', Files.readString(file, StandardCharsets.UTF_8).charAt(0));
+        assertThrows(IOException.class, () -> ResultWriter.readBinary(file, wl -> {
+        }, bl -> {
+        }));
+    }
+
+    private static String describe(WebpageLink wl) {
+        return wl.getUrl() + " " + wl.getStatusCode() + " " + wl.getLinkCount() + " " + wl.getAccessTime();
+    }
+
+    private static String describe(BrokenLink bl) {
+        return bl.getUrl() + " " + bl.getStatusCode() + " " + bl.getReason() + " " + bl.getAnchorText() + " " + bl.getWebpageUrls();
+    }
+}
@@ -0,0 +1,257 @@
+package com.unpar.webcrawler.cores;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Aturan robots.txt (RFC 9309): pemilihan grup dari product token, aturan Allow / Disallow
+ * terpanjang yang cocok, wildcard '*' dan '$', serta status robots.txt yang menentukan
+ * apakah situs boleh di-crawl (4xx: tanpa larangan, 5xx dan 429: seluruh situs dilarang).
+ */
+class RobotsTxtTest {
+
+    private static final String USER_AGENT = "BrokenLinkChecker/1.0 (+https://example.org/bot)";
+
+    private HttpServer server;                              // melayani /robots.txt dengan status
+    private volatile int status;
+
+    // ===================== Pemilihan grup =====================
+
+    @Test
+    void usesGroupOfProductTokenInsteadOfWildcard() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: *
+                Disallow: /
+
+                User-agent: brokenlinkchecker
+                Disallow: /private
+                """, USER_AGENT);
+
+        assertTrue(robots.isAllowed("/public"));
+        assertFalse(robots.isAllowed("/private/a"));
+    }
+
+    @Test
+    void fallsBackToWildcardGroupWhenNoGroupMatches() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: OtherBot
+                Disallow: /
+
+                User-agent: *
+                Disallow: /tmp/
+                """, USER_AGENT);
+
+        assertTrue(robots.isAllowed("/"));
+        assertFalse(robots.isAllowed("/tmp/x"));
+    }
+
+    @Test
+    void mergesAllMatchingGroupsAndConsecutiveUserAgentLines() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: OtherBot
+                User-agent: BrokenLinkChecker
+                Disallow: /a
+
+                User-agent: *
+                Disallow: /b
+
+                User-agent: BrokenLinkChecker/2.0
+                Disallow: /c
+                """, USER_AGENT);
+
+        assertFalse(robots.isAllowed("/a"));
+        assertTrue(robots.isAllowed("/b"));
+        assertFalse(robots.isAllowed("/c"));
+    }
+
+    @Test
+    void ignoresCommentsEmptyDisallowAndUnknownFields() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                # komentar
+                User-agent: *   # semua crawler
+                Disallow:
+                Noindex: /x
+                Disallow: /y # komentar di akhir baris
+                """, USER_AGENT);
+
+        assertTrue(robots.isAllowed("/x"));
+        assertFalse(robots.isAllowed("/y"));
+    }
+
+    // ===================== Allow / Disallow =====================
+
+    @Test
+    void longestMatchingRuleWins() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: *
+                Disallow: /docs/
+                Allow: /docs/public/
+                Disallow: /docs/public/drafts
+                """, USER_AGENT);
+
+        assertFalse(robots.isAllowed("/docs/a"));
+        assertTrue(robots.isAllowed("/docs/public/a"));
+        assertFalse(robots.isAllowed("/docs/public/drafts/1"));
+        assertTrue(robots.isAllowed("/doc"));
+    }
+
+    @Test
+    void allowWinsOverDisallowOfSameLength() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: *
+                Disallow: /page
+                Allow: /page
+                """, USER_AGENT);
+
+        assertTrue(robots.isAllowed("/page"));
+    }
+
+    @Test
+    void supportsWildcardAndEndAnchor() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: *
+                Disallow: /*.pdf$
+                Disallow: /private*/secret
+                Disallow: /exact$
+                Disallow: /*?session=
+                """, USER_AGENT);
+
+        assertFalse(robots.isAllowed("/files/a.pdf"));
+        assertTrue(robots.isAllowed("/files/a.pdf?x=1"));
+        assertTrue(robots.isAllowed("/files/a.pdfx"));
+        assertFalse(robots.isAllowed("/private/secret"));
+        assertFalse(robots.isAllowed("/private-area/x/secret/y"));
+        assertTrue(robots.isAllowed("/private/public"));
+        assertFalse(robots.isAllowed("/exact"));
+        assertTrue(robots.isAllowed("/exact/more"));
+        assertFalse(robots.isAllowed("/list?session=1"));
+    }
+
+    @Test
+    void wildcardMatchingDoesNotBacktrackExponentially() {
+        RobotsTxt robots = RobotsTxt.parse("User-agent: *\nDisallow: /*a*a*a*a*a*a*a*a*a*a*b$\n", USER_AGENT);
+        String path = "/" + "a".repeat(5000);
+
+        long start = System.nanoTime();
+
+        assertTrue(robots.isAllowed(path));
+        assertFalse(robots.isAllowed(path + "b"));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void robotsTxtItselfIsAlwaysAllowed() {
+        RobotsTxt robots = RobotsTxt.parse("User-agent: *\nDisallow: /\n", USER_AGENT);
+
+        assertTrue(robots.isAllowed("/robots.txt"));
+        assertFalse(robots.isAllowed("/"));
+        assertFalse(robots.isAllowed(""));
+    }
+
+    @Test
+    void matchesPathAndQueryOfAbsoluteUrls() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                User-agent: *
+                Disallow: /search?
+                Disallow: /?print
+                """, USER_AGENT);
+
+        assertFalse(robots.isAllowedUrl("https://example.org/search?q=x#top"));
+        assertTrue(robots.isAllowedUrl("https://example.org/search#?"));
+        assertFalse(robots.isAllowedUrl("https://example.org?print=1"));
+        assertTrue(robots.isAllowedUrl("https://example.org"));
+    }
+
+    // ===================== Crawl-delay & Sitemap =====================
+
+    @Test
+    void takesCrawlDelayFromSelectedGroupAndSitemapsFromAnywhere() {
+        RobotsTxt robots = RobotsTxt.parse("""
+                Sitemap: https://example.org/a.xml
+                User-agent: *
+                Crawl-delay: 10
+
+                User-agent: BrokenLinkChecker
+                Crawl-delay: 1.5
+                Sitemap: https://example.org/b.xml
+                """, USER_AGENT);
+
+        assertEquals(Duration.ofMillis(1500), robots.getCrawlDelay());
+        assertEquals(List.of("https://example.org/a.xml", "https://example.org/b.xml"), robots.getSitemaps());
+        assertNull(RobotsTxt.parse("User-agent: *\nCrawl-delay: -1\n", USER_AGENT).getCrawlDelay());
+    }
+
+    // ===================== Status robots.txt =====================
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/robots.txt", exchange -> {
+            byte[] body = "User-agent: *\nDisallow: /private\n".getBytes(StandardCharsets.UTF_8);
+
+            try (exchange; OutputStream out = exchange.getResponseBody()) {
+                exchange.sendResponseHeaders(status, body.length);
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {400, 401, 403, 404, 410, 451})
+    void clientErrorAllowsEverything(int statusCode) {
+        status = statusCode;
+
+        assertSame(RobotsTxt.ALLOW_ALL, fetchRobots());
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {429, 500, 502, 503})
+    void serverErrorDisallowsEverything(int statusCode) {
+        status = statusCode;
+
+        RobotsTxt robots = fetchRobots();
+
+        assertSame(RobotsTxt.DISALLOW_ALL, robots);
+        assertFalse(robots.isAllowed("/"));
+    }
+
+    @Test
+    void successfulResponseIsParsed() {
+        status = 200;
+
+        RobotsTxt robots = fetchRobots();
+
+        assertTrue(robots.isAllowed("/public"));
+        assertFalse(robots.isAllowed("/private"));
+    }
+
+    private RobotsTxt fetchRobots() {
+        RobotsCache robots = new RobotsCache(new HttpFetcher(USER_AGENT, Duration.ofSeconds(5)), USER_AGENT);
+
+        return robots.fetch("http://127.0.0.1:" + server.getAddress().getPort());
+    }
+}
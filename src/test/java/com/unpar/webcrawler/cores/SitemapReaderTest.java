@@ -0,0 +1,207 @@
+package com.unpar.webcrawler.cores;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.unpar.webcrawler.models.WebpageLink;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Pembacaan sitemap: urlset, sitemap index, sitemap teks, dan body gzip, serta crawl yang
+ * mengikuti sitemap index secara rekursif sampai webpage yang hanya disebut sitemap anak.
+ */
+class SitemapReaderTest {
+
+    // ===================== SitemapReader =====================
+
+    @Test
+    void readsPageUrlsOfUrlset() throws IOException {
+        Result result = read(xml("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <urlset xmlns="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <url><loc>https://example.org/a</loc><lastmod>2024-01-01</lastmod></url>
+                  <url><loc>
+                      https://example.org/b?x=1&amp;y=2
+                  </loc></url>
+                  <url><loc><![CDATA[https://example.org/c]]></loc></url>
+                  <url><loc></loc></url>
+                </urlset>
+                """), 100);
+
+        assertEquals(List.of("https://example.org/a", "https://example.org/b?x=1&y=2", "https://example.org/c"), result.pages);
+        assertEquals(List.of(), result.children);
+        assertEquals(3, result.count);
+    }
+
+    @Test
+    void readsChildSitemapsOfSitemapIndex() throws IOException {
+        Result result = read(xml("""
+                <sm:sitemapindex xmlns:sm="http://www.sitemaps.org/schemas/sitemap/0.9">
+                  <sm:sitemap><sm:loc>https://example.org/s1.xml</sm:loc></sm:sitemap>
+                  <sm:sitemap><sm:loc>https://example.org/s2.xml.gz</sm:loc></sm:sitemap>
+                </sm:sitemapindex>
+                """), 100);
+
+        assertEquals(List.of(), result.pages);
+        assertEquals(List.of("https://example.org/s1.xml", "https://example.org/s2.xml.gz"), result.children);
+    }
+
+    @Test
+    void readsGzipBodyByMagicBytes() throws IOException {
+        Result result = read(gzip(xml("<urlset><url><loc>https://example.org/gz</loc></url></urlset>")), 100);
+
+        assertEquals(List.of("https://example.org/gz"), result.pages);
+    }
+
+    @Test
+    void readsTextSitemapWithOneUrlPerLine() throws IOException {
+        Result result = read(xml("\uFEFFhttps://example.org/a\n\n  https://example.org/b  \nnot a url\nftp://example.org/c\n"), 100);
+
+        assertEquals(List.of("https://example.org/a", "https://example.org/b"), result.pages);
+    }
+
+    @Test
+    void stopsAtMaxUrls() throws IOException {
+        StringBuilder urlset = new StringBuilder("<urlset>");
+
+        for (int i = 0; i < 10; i++) {
+            urlset.append("<url><loc>https://example.org/").append(i).append("</loc></url>");
+        }
+
+        Result result = read(xml(urlset.append("</urlset>").toString()), 4);
+
+        assertEquals(4, result.count);
+        assertEquals(4, result.pages.size());
+    }
+
+    @Test
+    void keepsUrlsReadBeforeBrokenXml() throws IOException {
+        Result result = read(xml("<urlset><url><loc>https://example.org/a</loc></url><url><loc>https://exa"), 100);
+
+        assertEquals(List.of("https://example.org/a"), result.pages);
+    }
+
+    @Test
+    void doesNotResolveExternalEntities() throws IOException {
+        Result result = read(xml("""
+                <?xml version="1.0"?>
+                <!DOCTYPE urlset [<!ENTITY secret SYSTEM "file:///etc/hostname">]>
+                <urlset><url><loc>https://example.org/&secret;</loc></url><url><loc>https://example.org/b</loc></url></urlset>
+                """), 100);
+
+        for (String page : result.pages) {
+            assertEquals(-1, page.indexOf('\n'), page);
+        }
+    }
+
+    // ===================== Crawl dari sitemap =====================
+
+    /**
+     * robots.txt menyebut sitemap index, yang menunjuk urlset gzip dan sitemap index lain.
+     * Webpage /orphan/* tidak ditautkan dari webpage mana pun, hanya dari sitemap.
+     */
+    @Test
+    void crawlFollowsNestedSitemapIndexesAndGzipSitemaps() throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+
+        Map<String, byte[]> files = Map.of(
+                "/robots.txt", xml("User-agent: *\nSitemap: " + origin + "/index.xml\n"),
+                "/index.xml", xml("<sitemapindex>"
+                        + "<sitemap><loc>" + origin + "/pages.xml.gz</loc></sitemap>"
+                        + "<sitemap><loc>" + origin + "/nested-index.xml</loc></sitemap>"
+                        + "</sitemapindex>"),
+                "/pages.xml.gz", gzip(xml("<urlset><url><loc>" + origin + "/orphan/1</loc></url>"
+                        + "<url><loc>https://other.example/ignored</loc></url></urlset>")),
+                "/nested-index.xml", xml("<sitemapindex><sitemap><loc>" + origin + "/more.txt</loc></sitemap>"
+                        + "<sitemap><loc>" + origin + "/index.xml</loc></sitemap></sitemapindex>"),
+                "/more.txt", xml(origin + "/orphan/2\n" + origin + "/orphan/3\n"));
+
+        server.createContext("/", exchange -> serve(exchange, files));
+        server.start();
+
+        try {
+            Crawler crawler = new Crawler(origin + "/");
+            Set<String> crawled = new TreeSet<>();
+
+            crawler.crawl(wl -> crawled.add(pathOf(wl, origin)), bl -> {
+            });
+
+            assertEquals(Set.of("/", "/orphan/1", "/orphan/2", "/orphan/3"), crawled);
+            assertEquals(3, crawler.snapshot().sitemapUrls());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static void serve(HttpExchange exchange, Map<String, byte[]> files) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = files.get(path);
+
+            if (body == null && (path.equals("/") || path.startsWith("/orphan/"))) {
+                body = "<html><body>webpage</body></html>".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/html");
+            }
+
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            exchange.sendResponseHeaders(200, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static String pathOf(WebpageLink wl, String origin) {
+        String path = wl.getUrl().substring(origin.length());
+        return path.isEmpty() ? "/" : path;
+    }
+
+    private record Result(List<String> pages, List<String> children, int count) {
+    }
+
+    private static Result read(byte[] body, int maxUrls) throws IOException {
+        List<String> pages = new ArrayList<>();
+        List<String> children = new ArrayList<>();
+        InputStream in = new ByteArrayInputStream(body);
+
+        int count = SitemapReader.read(in, pages::add, children::add, maxUrls);
+
+        return new Result(pages, children, count);
+    }
+
+    private static byte[] xml(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gz = new GZIPOutputStream(bytes)) {
+            gz.write(content);
+        }
+
+        return bytes.toByteArray();
+    }
+}
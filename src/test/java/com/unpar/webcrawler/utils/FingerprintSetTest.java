@@ -0,0 +1,105 @@
+package com.unpar.webcrawler.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Kedua varian dimulai dengan kapasitas kecil sehingga tabelnya harus membesar berkali-kali
+ * tanpa kehilangan url.
+ */
+class FingerprintSetTest {
+
+    private static final int URLS = 50_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void onHeapGrowsBeyondExpectedSize() {
+        assertGrows(FingerprintSet.onHeap(16));
+    }
+
+    @Test
+    void mappedGrowsBeyondExpectedSize() throws IOException {
+        Path file = directory.resolve("seen.bin");
+        FingerprintSet set = FingerprintSet.mapped(file, 16);
+
+        assertEquals(32L * Long.BYTES, Files.size(file));
+
+        assertGrows(set);
+
+        // 50.000 / 0.7 dibulatkan ke pangkat dua = 2^17 slot
+        assertEquals((1L << 17) * Long.BYTES, Files.size(file));
+        assertFalse(Files.exists(directory.resolve("seen.bin.tmp")));
+    }
+
+    /**
+     * Thread penambah berjalan bersamaan dengan grow(): setiap url tetap hanya sekali
+     * dianggap baru.
+     */
+    @Test
+    void mappedConcurrentAddsAcrossGrowth() throws InterruptedException {
+        FingerprintSet set = FingerprintSet.mapped(directory.resolve("seen.bin"), 16);
+        AtomicInteger added = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (int i = 0; i < URLS; i++) {
+                    if (set.add(url(i))) {
+                        added.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(URLS, added.get());
+        assertEquals(URLS, set.size());
+
+        for (int i = 0; i < URLS; i++) {
+            assertTrue(set.contains(url(i)), url(i));
+        }
+    }
+
+    @Test
+    void fingerprintIsNeverEmptySlot() {
+        assertTrue(FingerprintSet.fingerprint("") != 0);
+        assertEquals(FingerprintSet.fingerprint("https://example.org/a"), FingerprintSet.fingerprint("https://example.org/a"));
+        assertTrue(FingerprintSet.fingerprint("https://example.org/a") != FingerprintSet.fingerprint("https://example.org/b"));
+    }
+
+    private static void assertGrows(FingerprintSet set) {
+        for (int i = 0; i < URLS; i++) {
+            assertTrue(set.add(url(i)), url(i));
+        }
+
+        assertEquals(URLS, set.size());
+
+        for (int i = 0; i < URLS; i++) {
+            assertTrue(set.contains(url(i)), url(i));
+            assertFalse(set.add(url(i)), url(i));
+        }
+
+        assertFalse(set.contains(url(URLS)));
+        assertEquals(URLS, set.size());
+    }
+
+    private static String url(int i) {
+        return "https://example.org/page/" + i;
+    }
+}